@@ -0,0 +1,82 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading the per-request settings from the cached {@link ConnectorSettings} with computing them from the configuration
+ * properties for each request as the connector did before.
+ * <p>
+ * Run it with {@code mvn -Pjmh test-compile exec:exec -Djmh.args="ConnectorSettingsBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ConnectorSettingsBenchmark {
+
+    private Client client;
+    private HttpClientConnector connector;
+    private ClientRequest clientRequest;
+
+    @Setup
+    public void setUp() {
+        client = ClientBuilder.newClient(new ClientConfig()
+                .property(ClientProperties.READ_TIMEOUT, 5_000)
+                .property(ClientProperties.REQUEST_ENTITY_PROCESSING, "CHUNKED")
+                .property(ClientProperties.CHUNKED_ENCODING_SIZE, 8192));
+        connector = new HttpClientConnector(HttpClient.newHttpClient());
+        clientRequest = new BenchmarkClientRequest(URI.create("https://localhost/post"), (ClientConfig) client.getConfiguration());
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+    }
+
+    @Benchmark
+    public void cached(Blackhole blackhole) {
+        consume(connector.settings(clientRequest), blackhole);
+    }
+
+    @Benchmark
+    public void recomputed(Blackhole blackhole) {
+        consume(ConnectorSettings.of(clientRequest.getConfiguration()), blackhole);
+    }
+
+    private void consume(ConnectorSettings settings, Blackhole blackhole) {
+        blackhole.consume(settings.readTimeout());
+        blackhole.consume(settings.chunked());
+        blackhole.consume(settings.chunkSize());
+        blackhole.consume(settings.lazyResponseHeaders(clientRequest));
+        blackhole.consume(settings.asyncBodyBufferSize(clientRequest));
+    }
+
+    private static final class BenchmarkClientRequest extends ClientRequest {
+        private BenchmarkClientRequest(URI requestUri, ClientConfig clientConfig) {
+            super(requestUri, clientConfig, new MapPropertiesDelegate());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the allocations of buffering a serialized request entity in a {@link ByteArrayOutputStream} published with
+ * {@link HttpRequest.BodyPublishers#ofByteArray(byte[])} and in a {@link SegmentedBuffer}, with and without segment pooling.
+ * <p>
+ * Run it with {@code mvn -Pjmh test-compile exec:exec -Djmh.args="EntityBufferBenchmark -prof gc"},
+ * the interesting figure is {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EntityBufferBenchmark {
+
+    private static final int WRITE_SIZE = 8192;
+
+    @Param({"1048576", "5242880"})
+    public int entitySize;
+
+    private byte[] entity;
+    private SegmentPool segmentPool;
+
+    @Setup
+    public void setUp() {
+        entity = new byte[entitySize];
+        new Random(entitySize).nextBytes(entity);
+        segmentPool = new SegmentPool(2 * entitySize / SegmentPool.SEGMENT_SIZE);
+    }
+
+    @Benchmark
+    public void byteArrayOutputStream(Blackhole blackhole) throws IOException {
+        // Same as the connector before: unknown size, growing array and a final copy
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        serialize(buffer);
+        drain(HttpRequest.BodyPublishers.ofByteArray(buffer.toByteArray()), blackhole);
+    }
+
+    @Benchmark
+    public void segmentedBuffer(Blackhole blackhole) throws IOException {
+        final SegmentedBuffer buffer = new SegmentedBuffer(-1, null);
+        serialize(buffer);
+        drain(buffer.toBodyPublisher(), blackhole);
+    }
+
+    @Benchmark
+    public void pooledSegmentedBuffer(Blackhole blackhole) throws IOException {
+        final SegmentedBuffer buffer = new SegmentedBuffer(-1, segmentPool);
+        serialize(buffer);
+        drain(buffer.toBodyPublisher(), blackhole);
+        buffer.release();
+    }
+
+    private void serialize(OutputStream outputStream) throws IOException {
+        for (int offset = 0; offset < entity.length; offset += WRITE_SIZE) {
+            outputStream.write(entity, offset, Math.min(WRITE_SIZE, entity.length - offset));
+        }
+        outputStream.close();
+    }
+
+    private static void drain(HttpRequest.BodyPublisher bodyPublisher, Blackhole blackhole) {
+        bodyPublisher.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                blackhole.consume(item.remaining());
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                throw new IllegalStateException(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                blackhole.consume(true);
+            }
+        });
+    }
+}
@@ -0,0 +1,135 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.client.Invocation;
+import jakarta.ws.rs.client.WebTarget;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.nhenneaux.jersey.connector.httpclient.JettyServerTest.findAvailablePort;
+import static com.github.nhenneaux.jersey.connector.httpclient.JettyServerTest.tlsConfig;
+import static com.github.nhenneaux.jersey.connector.httpclient.JettyServerTest.trustStore;
+
+/**
+ * Measures the request/response translation and transport paths of {@link HttpClientConnector} against an in-process Jetty server.
+ * <p>
+ * Run it with {@code mvn -Pjmh test-compile exec:exec -Djmh.args="HttpClientConnectorBenchmark -prof gc"}
+ * to get the throughput, the average time and the allocation rate per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class HttpClientConnectorBenchmark {
+
+    public enum EntityType {
+        NONE, BYTES, STRING, JSON
+    }
+
+    public enum EntityProcessing {
+        BUFFERED, CHUNKED
+    }
+
+    @Param({"NONE", "BYTES", "STRING", "JSON"})
+    public EntityType entityType;
+
+    @Param({"BUFFERED", "CHUNKED"})
+    public EntityProcessing entityProcessing;
+
+    @Param({"HTTP_1_1", "HTTP_2"})
+    public HttpClient.Version version;
+
+    private AutoCloseable server;
+    private Client client;
+    private WebTarget target;
+    private Entity<?> entity;
+
+    @Setup
+    public void setUp() {
+        final int port = findAvailablePort();
+        server = JettyServerTest.jerseyServer(port, tlsConfig(), DummyRestService.class);
+
+        final ClientConfig clientConfig = new ClientConfig()
+                .connectorProvider((jaxRsClient, configuration) -> new HttpClientConnector(HttpClient.newBuilder().sslContext(jaxRsClient.getSslContext()).version(version).build()));
+        if (entityProcessing == EntityProcessing.CHUNKED) {
+            clientConfig.property(ClientProperties.REQUEST_ENTITY_PROCESSING, "CHUNKED");
+        }
+        client = ClientBuilder.newBuilder()
+                .trustStore(trustStore())
+                .withConfig(clientConfig)
+                .build();
+
+        final String json = "{\"data\":\"" + UUID.randomUUID() + "\"}";
+        switch (entityType) {
+            case NONE:
+                target = client.target("https://localhost:" + port).path("pingWithSleep").queryParam("sleepTimeInMilliseconds", 0);
+                entity = null;
+                break;
+            case BYTES:
+                target = client.target("https://localhost:" + port).path("post");
+                entity = Entity.entity(json.getBytes(StandardCharsets.UTF_8), MediaType.APPLICATION_JSON_TYPE);
+                break;
+            case STRING:
+                target = client.target("https://localhost:" + port).path("post");
+                entity = Entity.entity(json, MediaType.APPLICATION_JSON_TYPE);
+                break;
+            case JSON:
+                target = client.target("https://localhost:" + port).path("post");
+                entity = Entity.json(new DummyRestService.Data(UUID.randomUUID().toString()));
+                break;
+            default:
+                throw new IllegalStateException("Unknown entity type " + entityType);
+        }
+        // The first call pays for the TLS handshake and the protocol negotiation
+        sync();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        client.close();
+        server.close();
+    }
+
+    @Benchmark
+    public String sync() {
+        try (Response response = invocation().invoke()) {
+            return response.readEntity(String.class);
+        }
+    }
+
+    @Benchmark
+    public String async() throws ExecutionException, InterruptedException {
+        try (Response response = invocation().submit().get()) {
+            return response.readEntity(String.class);
+        }
+    }
+
+    private Invocation invocation() {
+        final Invocation.Builder request = target.request();
+        return entity == null ? request.buildGet() : request.buildPost(entity);
+    }
+}
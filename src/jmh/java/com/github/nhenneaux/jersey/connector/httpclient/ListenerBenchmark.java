@@ -0,0 +1,261 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSession;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of the connector for a whole synchronous exchange without any listener, with a listener ignoring all the events
+ * and with a {@link LatencyRegistry}.
+ * The HTTP client answers immediately from memory so that only the work of the connector is measured.
+ * <p>
+ * Run it with {@code mvn -Pjmh test-compile exec:exec -Djmh.args="ListenerBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ListenerBenchmark {
+
+    private static final HttpClientConnectorListener NO_OP_LISTENER = new HttpClientConnectorListener() {
+    };
+
+    @Param({"none", "noOp", "latencyRegistry"})
+    public String listener;
+
+    private Client client;
+    private HttpClientConnector connector;
+    private ClientRequest clientRequest;
+
+    @Setup
+    public void setUp() {
+        connector = new HttpClientConnector(new InMemoryHttpClient(), listenerFactory());
+        client = ClientBuilder.newClient();
+        clientRequest = new BenchmarkClientRequest(URI.create("https://localhost/get"), (ClientConfig) client.getConfiguration());
+        clientRequest.setMethod("GET");
+    }
+
+    private HttpClientConnectorListener.Factory listenerFactory() {
+        switch (listener) {
+            case "noOp":
+                return request -> NO_OP_LISTENER;
+            case "latencyRegistry":
+                return new LatencyRegistry();
+            default:
+                return null;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+    }
+
+    @Benchmark
+    public int exchange() throws IOException {
+        final ClientResponse response = connector.apply(clientRequest);
+        try (InputStream entityStream = response.getEntityStream()) {
+            return entityStream.readAllBytes().length;
+        }
+    }
+
+    private static final class BenchmarkClientRequest extends ClientRequest {
+        private BenchmarkClientRequest(URI requestUri, ClientConfig clientConfig) {
+            super(requestUri, clientConfig, new MapPropertiesDelegate());
+        }
+    }
+
+    /**
+     * Client answering every request with the same small response, the body is handed to the body subscriber on the calling thread.
+     */
+    private static final class InMemoryHttpClient extends HttpClient {
+        private static final byte[] BODY = "{\"data\":\"benchmark-value\"}\n".getBytes();
+        private static final HttpHeaders HEADERS = HttpHeaders.of(Map.of(
+                "content-length", List.of(Integer.toString(BODY.length)),
+                "content-type", List.of("application/json")), (name, value) -> true);
+        private static final HttpResponse.ResponseInfo RESPONSE_INFO = new HttpResponse.ResponseInfo() {
+            @Override
+            public int statusCode() {
+                return 200;
+            }
+
+            @Override
+            public HttpHeaders headers() {
+                return HEADERS;
+            }
+
+            @Override
+            public Version version() {
+                return Version.HTTP_2;
+            }
+        };
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler) {
+            final HttpResponse.BodySubscriber<T> bodySubscriber = responseBodyHandler.apply(RESPONSE_INFO);
+            bodySubscriber.onSubscribe(new Flow.Subscription() {
+                private boolean published;
+
+                @Override
+                public void request(long n) {
+                    if (!published) {
+                        published = true;
+                        bodySubscriber.onNext(List.of(ByteBuffer.wrap(BODY)));
+                        bodySubscriber.onComplete();
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                    published = true;
+                }
+            });
+            return bodySubscriber.getBody().toCompletableFuture().thenApply(body -> new InMemoryHttpResponse<>(request, body));
+        }
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler, HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+            return sendAsync(request, responseBodyHandler);
+        }
+
+        @Override
+        public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler) {
+            return sendAsync(request, responseBodyHandler).join();
+        }
+
+        @Override
+        public Optional<CookieHandler> cookieHandler() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<Duration> connectTimeout() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Redirect followRedirects() {
+            return Redirect.NEVER;
+        }
+
+        @Override
+        public Optional<ProxySelector> proxy() {
+            return Optional.empty();
+        }
+
+        @Override
+        public SSLContext sslContext() {
+            return null;
+        }
+
+        @Override
+        public SSLParameters sslParameters() {
+            return null;
+        }
+
+        @Override
+        public Optional<Authenticator> authenticator() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Version version() {
+            return Version.HTTP_2;
+        }
+
+        @Override
+        public Optional<Executor> executor() {
+            return Optional.empty();
+        }
+    }
+
+    private static final class InMemoryHttpResponse<T> implements HttpResponse<T> {
+        private final HttpRequest request;
+        private final T body;
+
+        private InMemoryHttpResponse(HttpRequest request, T body) {
+            this.request = request;
+            this.body = body;
+        }
+
+        @Override
+        public int statusCode() {
+            return 200;
+        }
+
+        @Override
+        public HttpRequest request() {
+            return request;
+        }
+
+        @Override
+        public Optional<HttpResponse<T>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return InMemoryHttpClient.HEADERS;
+        }
+
+        @Override
+        public T body() {
+            return body;
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return request.uri();
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_2;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.net.ssl.SSLSession;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the translation of a typical small response when every header value is copied in the Jersey response
+ * and when the headers are exposed through {@link HttpHeadersMultivaluedMap}.
+ * <p>
+ * Run it with {@code mvn -Pjmh test-compile exec:exec -Djmh.args="ResponseHeadersBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ResponseHeadersBenchmark {
+
+    @Param({"false", "true"})
+    public boolean lazyResponseHeaders;
+
+    private Client client;
+    private HttpClientConnector connector;
+    private ClientRequest clientRequest;
+    private HttpResponse<InputStream> httpResponse;
+
+    @Setup
+    public void setUp() {
+        connector = new HttpClientConnector(HttpClient.newHttpClient());
+        client = ClientBuilder.newClient(new ClientConfig().property(HttpClientConnectorProperties.LAZY_RESPONSE_HEADERS, lazyResponseHeaders));
+        clientRequest = new BenchmarkClientRequest(URI.create("https://localhost/post"), (ClientConfig) client.getConfiguration());
+
+        final Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.put("cache-control", List.of("no-cache, no-store, max-age=0, must-revalidate"));
+        headers.put("content-length", List.of("27"));
+        headers.put("content-type", List.of("application/json"));
+        headers.put("date", List.of("Thu, 16 Oct 2026 10:00:00 GMT"));
+        headers.put("expires", List.of("0"));
+        headers.put("pragma", List.of("no-cache"));
+        headers.put("server", List.of("Jetty"));
+        headers.put("strict-transport-security", List.of("max-age=31536000 ; includeSubDomains"));
+        headers.put("vary", List.of("Origin", "Access-Control-Request-Method", "Access-Control-Request-Headers"));
+        headers.put("x-content-type-options", List.of("nosniff"));
+        headers.put("x-frame-options", List.of("DENY"));
+        headers.put("x-request-id", List.of("5f1b3c8e-1f0e-4b8a-9a53-0c6f5e0f5a2d"));
+        httpResponse = new StaticHttpResponse(HttpHeaders.of(headers, (name, value) -> true));
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+    }
+
+    @Benchmark
+    public Object translateAndReadContentType() {
+        final ClientResponse response = connector.toJerseyResponse(clientRequest, httpResponse);
+        // Most applications only look at the media type and the length
+        return response.getMediaType() + ":" + response.getLength();
+    }
+
+    private static final class BenchmarkClientRequest extends ClientRequest {
+        private BenchmarkClientRequest(URI requestUri, ClientConfig clientConfig) {
+            super(requestUri, clientConfig, new MapPropertiesDelegate());
+        }
+    }
+
+    private static final class StaticHttpResponse implements HttpResponse<InputStream> {
+        private static final byte[] BODY = "{\"data\":\"benchmark-value\"}\n".getBytes();
+        private final HttpHeaders headers;
+
+        private StaticHttpResponse(HttpHeaders headers) {
+            this.headers = headers;
+        }
+
+        @Override
+        public int statusCode() {
+            return 200;
+        }
+
+        @Override
+        public HttpRequest request() {
+            return null;
+        }
+
+        @Override
+        public Optional<HttpResponse<InputStream>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return headers;
+        }
+
+        @Override
+        public InputStream body() {
+            return new ByteArrayInputStream(BODY);
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return URI.create("https://localhost/post");
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_2;
+        }
+    }
+}
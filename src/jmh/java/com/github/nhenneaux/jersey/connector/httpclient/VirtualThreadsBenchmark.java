@@ -0,0 +1,99 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.client.WebTarget;
+import jakarta.ws.rs.core.Response;
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.nhenneaux.jersey.connector.httpclient.JettyServerTest.findAvailablePort;
+import static com.github.nhenneaux.jersey.connector.httpclient.JettyServerTest.tlsConfig;
+import static com.github.nhenneaux.jersey.connector.httpclient.JettyServerTest.trustStore;
+
+/**
+ * Sends {@value #CONCURRENT_REQUESTS} concurrent asynchronous requests with a chunked entity, with the default executors
+ * and with {@link HttpClientConnectorProperties#VIRTUAL_THREADS}.
+ * <p>
+ * It needs JDK 21 or later to compare both modes, run it with
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="VirtualThreadsBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class VirtualThreadsBenchmark {
+
+    static final int CONCURRENT_REQUESTS = 10_000;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    private AutoCloseable server;
+    private Client client;
+    private WebTarget target;
+    private Entity<DummyRestService.Data> entity;
+
+    @Setup
+    public void setUp() {
+        if (virtualThreads && !VirtualThreads.isSupported()) {
+            throw new IllegalStateException("Virtual threads need JDK 21 or later, the runtime version is " + Runtime.version());
+        }
+        final int port = findAvailablePort();
+        server = JettyServerTest.jerseyServer(port, tlsConfig(), DummyRestService.class);
+        client = ClientBuilder.newBuilder()
+                .trustStore(trustStore())
+                .withConfig(new ClientConfig()
+                        .connectorProvider(HttpClientConnector::new)
+                        .property(ClientProperties.REQUEST_ENTITY_PROCESSING, "CHUNKED")
+                        .property(HttpClientConnectorProperties.VIRTUAL_THREADS, virtualThreads))
+                .build();
+        target = client.target("https://localhost:" + port).path("post");
+        entity = Entity.json(new DummyRestService.Data(UUID.randomUUID().toString()));
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        client.close();
+        server.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONCURRENT_REQUESTS)
+    public int concurrentAsyncPost() throws ExecutionException, InterruptedException {
+        final List<Future<Response>> responses = new ArrayList<>(CONCURRENT_REQUESTS);
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            responses.add(target.request().async().post(entity));
+        }
+        int length = 0;
+        for (Future<Response> response : responses) {
+            try (Response r = response.get()) {
+                length += r.readEntity(String.class).length();
+            }
+        }
+        return length;
+    }
+}
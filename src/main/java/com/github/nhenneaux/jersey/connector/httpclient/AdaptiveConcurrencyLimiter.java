@@ -0,0 +1,288 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the requests in flight to each host with a limit adapted to the latencies and errors of the host.
+ * <p>
+ * The limit follows an additive increase and multiplicative decrease like TCP congestion control. The responses received
+ * within twice the baseline latency of the host increase the limit by one per window of responses when the host is busy,
+ * i.e. at least half of the limit is in flight. A slower response, a failure, a timeout or a 429 or 5xx response decreases the limit
+ * by 10%, at most once per window, so that the requests queue in the client instead of piling up in a downstream which slows down.
+ * The baseline follows within a few tens of responses the decreases of latency, e.g. once the connections are established,
+ * and within about a hundred responses the increases, a lasting change of latency thus becomes the new baseline.
+ * <p>
+ * Waiting for a permit never blocks a thread: a request over the limit waits in a bounded queue and is sent once a request of the
+ * same host completes, or is rejected with a {@link ConcurrencyLimitExceededException} when the queue is full.
+ * The limiter is registered with {@link HttpClientConnectorProperties#CONCURRENCY_LIMITER}, the instance can be kept to monitor the limits.
+ * <pre>
+ * {@code
+ * var limiter = new AdaptiveConcurrencyLimiter();
+ * var client = ClientBuilder.newClient(new ClientConfig()
+ *         .connectorProvider(HttpClientConnector::new)
+ *         .property(HttpClientConnectorProperties.CONCURRENCY_LIMITER, limiter));
+ * ...
+ * limiter.snapshot().forEach((host, snapshot) -> export(host, snapshot.getLimit(), snapshot.getInFlight()));
+ * }</pre>
+ */
+public final class AdaptiveConcurrencyLimiter {
+
+    public static final int DEFAULT_INITIAL_LIMIT = 20;
+    public static final int DEFAULT_MAX_LIMIT = 1000;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double LATENCY_TOLERANCE = 2.0;
+    private static final double BASELINE_INCREASE_SMOOTHING = 0.01;
+    private static final double BASELINE_DECREASE_SMOOTHING = 0.05;
+    private static final CompletableFuture<Void> ACQUIRED = CompletableFuture.completedFuture(null);
+
+    private final int initialLimit;
+    private final int maxLimit;
+    private final int queueSize;
+    private final LongSupplier nanoClock;
+    private final Map<String, Destination> destinations = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a limiter starting with {@value #DEFAULT_INITIAL_LIMIT} requests in flight per host and rejecting the requests over the limit.
+     */
+    public AdaptiveConcurrencyLimiter() {
+        this(DEFAULT_INITIAL_LIMIT, DEFAULT_MAX_LIMIT, 0);
+    }
+
+    /**
+     * @param initialLimit the limit of requests in flight to a host before any response is received
+     * @param maxLimit     the highest limit of requests in flight to a host
+     * @param queueSize    the number of requests waiting for a permit per host before the requests are rejected
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int maxLimit, int queueSize) {
+        this(initialLimit, maxLimit, queueSize, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int maxLimit, int queueSize, LongSupplier nanoClock) {
+        if (initialLimit < 1 || maxLimit < initialLimit || queueSize < 0) {
+            throw new IllegalArgumentException("The limits must satisfy 1 <= initialLimit <= maxLimit and queueSize >= 0 but were initialLimit="
+                    + initialLimit + ", maxLimit=" + maxLimit + ", queueSize=" + queueSize);
+        }
+        this.initialLimit = initialLimit;
+        this.maxLimit = maxLimit;
+        this.queueSize = queueSize;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Sends the request once a permit of its host is available.
+     *
+     * @param sender sends the request, the permit is released when its response headers are received
+     */
+    <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, Function<HttpRequest, CompletableFuture<HttpResponse<T>>> sender) {
+        final String host = String.valueOf(request.uri().getHost());
+        final Destination destination = destinations.computeIfAbsent(host, key -> new Destination());
+        final CompletableFuture<Void> permit = destination.acquire();
+        if (permit == ACQUIRED) {
+            return send(destination, request, sender);
+        }
+        if (permit == null) {
+            return CompletableFuture.failedFuture(new ConcurrencyLimitExceededException(host, destination.limit()));
+        }
+        final AtomicReference<CompletableFuture<HttpResponse<T>>> exchange = new AtomicReference<>();
+        final CompletableFuture<HttpResponse<T>> result = permit.thenCompose(ignored -> {
+            final CompletableFuture<HttpResponse<T>> sent = send(destination, request, sender);
+            exchange.set(sent);
+            return sent;
+        });
+        // A request cancelled or timed out while waiting gives up its place in the queue
+        result.whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                permit.cancel(false);
+                final CompletableFuture<HttpResponse<T>> sent = exchange.get();
+                if (sent != null) {
+                    sent.cancel(true);
+                }
+            }
+        });
+        return result;
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> send(Destination destination, HttpRequest request, Function<HttpRequest, CompletableFuture<HttpResponse<T>>> sender) {
+        final long started = nanoClock.getAsLong();
+        final CompletableFuture<HttpResponse<T>> sent;
+        try {
+            sent = sender.apply(request);
+        } catch (RuntimeException e) {
+            destination.release(started, -1, false);
+            throw e;
+        }
+        sent.whenComplete((response, throwable) -> {
+            final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+            if (cause instanceof CancellationException) {
+                // Cancelled by the caller, e.g. the loser of a hedged request, the latency is unknown
+                destination.release(started, -1, false);
+            } else if (cause != null) {
+                destination.release(started, -1, cause instanceof IOException || cause instanceof TimeoutException);
+            } else {
+                final int statusCode = response.statusCode();
+                destination.release(started, nanoClock.getAsLong() - started, statusCode == 429 || statusCode >= 500);
+            }
+        });
+        return sent;
+    }
+
+    /**
+     * @return the snapshot of the limits of each host sorted by host
+     */
+    public Map<String, Snapshot> snapshot() {
+        final Map<String, Snapshot> snapshots = new TreeMap<>();
+        destinations.forEach((host, destination) -> snapshots.put(host, destination.snapshot()));
+        return snapshots;
+    }
+
+    private final class Destination {
+        private final Queue<CompletableFuture<Void>> waiting = new ArrayDeque<>();
+        private double limit = initialLimit;
+        private int inFlight;
+        private double baselineLatency = -1;
+        private long decreasedAt = nanoClock.getAsLong();
+        private long rejectedCount;
+
+        private synchronized int limit() {
+            return (int) limit;
+        }
+
+        /**
+         * @return {@link #ACQUIRED} when the request can be sent, a future completed once a permit is available or {@code null} when the request is rejected
+         */
+        private synchronized CompletableFuture<Void> acquire() {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return ACQUIRED;
+            }
+            if (waiting.size() < queueSize) {
+                final CompletableFuture<Void> permit = new CompletableFuture<>();
+                waiting.add(permit);
+                return permit;
+            }
+            rejectedCount++;
+            return null;
+        }
+
+        /**
+         * @param started the time the request was sent
+         * @param latency the latency of the response or a negative value when it is unknown
+         * @param dropped whether the request failed or was rejected by the host
+         */
+        private void release(long started, long latency, boolean dropped) {
+            final List<CompletableFuture<Void>> granted = new ArrayList<>();
+            synchronized (this) {
+                final boolean busy = inFlight * 2 >= (int) limit;
+                inFlight--;
+                if (latency >= 0 && baselineLatency < 0) {
+                    baselineLatency = latency;
+                }
+                final boolean congested = dropped || latency >= 0 && latency > baselineLatency * LATENCY_TOLERANCE;
+                // Like TCP, the limit is decreased once per window: the requests sent before the last decrease do not reflect it yet
+                if (congested && started - decreasedAt >= 0) {
+                    limit = Math.max(1, limit * BACKOFF_RATIO);
+                    decreasedAt = nanoClock.getAsLong();
+                } else if (!congested && latency >= 0 && busy) {
+                    limit = Math.min(maxLimit, limit + 1 / limit);
+                }
+                if (latency >= 0) {
+                    baselineLatency += (latency - baselineLatency) * (latency < baselineLatency ? BASELINE_DECREASE_SMOOTHING : BASELINE_INCREASE_SMOOTHING);
+                }
+                while (inFlight < (int) limit && !waiting.isEmpty()) {
+                    final CompletableFuture<Void> permit = waiting.poll();
+                    if (!permit.isDone()) {
+                        inFlight++;
+                        granted.add(permit);
+                    }
+                }
+            }
+            // The waiting requests are sent outside of the lock, a permit cancelled in the meantime is given back
+            for (CompletableFuture<Void> permit : granted) {
+                if (!permit.complete(null)) {
+                    release(0, -1, false);
+                }
+            }
+        }
+
+        private synchronized Snapshot snapshot() {
+            return new Snapshot((int) limit, inFlight, waiting.size(), rejectedCount, baselineLatency < 0 ? Duration.ZERO : Duration.ofNanos((long) baselineLatency));
+        }
+    }
+
+    /**
+     * Limit of a host at the time of the snapshot.
+     */
+    public static final class Snapshot {
+        private final int limit;
+        private final int inFlight;
+        private final int queued;
+        private final long rejectedCount;
+        private final Duration latency;
+
+        private Snapshot(int limit, int inFlight, int queued, long rejectedCount, Duration latency) {
+            this.limit = limit;
+            this.inFlight = inFlight;
+            this.queued = queued;
+            this.rejectedCount = rejectedCount;
+            this.latency = latency;
+        }
+
+        /**
+         * @return the current limit of requests in flight
+         */
+        public int getLimit() {
+            return limit;
+        }
+
+        /**
+         * @return the number of requests waiting for their response headers
+         */
+        public int getInFlight() {
+            return inFlight;
+        }
+
+        /**
+         * @return the number of requests waiting for a permit
+         */
+        public int getQueued() {
+            return queued;
+        }
+
+        /**
+         * @return the number of requests rejected since the creation of the limiter
+         */
+        public long getRejectedCount() {
+            return rejectedCount;
+        }
+
+        /**
+         * @return the baseline latency the latency of each response is compared to
+         */
+        public Duration getLatency() {
+            return latency;
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{limit=" + limit + ", inFlight=" + inFlight + ", queued=" + queued
+                    + ", rejectedCount=" + rejectedCount + ", latency=" + latency + '}';
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import jakarta.ws.rs.core.MediaType;
+import org.glassfish.jersey.client.ClientRequest;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Registry of the factories publishing the request entities straight to the {@link java.net.http.HttpClient}, without the Jersey message body writers.
+ * <p>
+ * The entity of a request is usually buffered or streamed through the {@link jakarta.ws.rs.ext.MessageBodyWriter} matching its type. An entity
+ * whose type has a factory in the registry skips that round-trip: the factory creates the {@link HttpRequest.BodyPublisher} sending it,
+ * e.g. to send a protobuf message without copying its serialized form. The factories are looked up by the class of the entity,
+ * the factory of the most recently registered type the entity is an instance of is used.
+ * <pre>
+ * {@code
+ * var bodyPublishers = new BodyPublisherRegistry()
+ *         .register(Message.class, (message, request) -> HttpRequest.BodyPublishers.ofByteArray(message.toByteArray()));
+ * var client = ClientBuilder.newClient(new ClientConfig()
+ *         .connectorProvider(HttpClientConnector::new)
+ *         .property(HttpClientConnectorProperties.BODY_PUBLISHER_REGISTRY, bodyPublishers));
+ * }</pre>
+ * A new registry already publishes the following types:
+ * <ul>
+ *     <li>{@code byte[]}, {@link ByteBuffer} and {@code ByteBuffer[]} without copying the bytes, from the position to the limit of the buffers,</li>
+ *     <li>{@link CharSequence} encoded with the charset of the {@code Content-Type}, UTF-8 by default,</li>
+ *     <li>{@link File} and {@link Path} read from the disk with their length,</li>
+ *     <li>{@link InputStream} read by the HTTP client while it sends it and closed once the response is received, the request cannot be resent
+ *     since the stream is read only once,</li>
+ *     <li>{@link HttpRequest.BodyPublisher} sent as is and any other {@link Flow.Publisher} which MUST publish {@link ByteBuffer},</li>
+ *     <li>{@link SerializedPayload} holding an already serialized entity.</li>
+ * </ul>
+ * The entities are not processed by the writer interceptors. When {@link HttpClientConnectorProperties#REQUEST_COMPRESSION_THRESHOLD} is set,
+ * the {@code byte[]} and {@link CharSequence} entities are compressed as the serialized entities, the other ones are sent uncompressed.
+ * The registry is thread-safe.
+ */
+public final class BodyPublisherRegistry {
+
+    static final BodyPublisherRegistry DEFAULT = new BodyPublisherRegistry();
+
+    private final List<Registration<?>> registrations = new CopyOnWriteArrayList<>();
+    private final Map<Class<?>, Optional<Registration<?>>> resolved = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a registry with the factories of the built-in types.
+     */
+    public BodyPublisherRegistry() {
+        register(byte[].class, (bytes, request) -> HttpRequest.BodyPublishers.ofByteArray(bytes));
+        register(ByteBuffer.class, (buffer, request) -> ByteBuffersPublisher.of(buffer));
+        register(ByteBuffer[].class, (buffers, request) -> ByteBuffersPublisher.of(buffers));
+        register(CharSequence.class, (text, request) -> HttpRequest.BodyPublishers.ofString(text.toString(), charset(request)));
+        register(File.class, (file, request) -> ofFile(file.toPath()));
+        register(Path.class, (path, request) -> ofFile(path));
+        register(InputStream.class, (inputStream, request) -> new InputStreamPublisher(inputStream));
+        register(Flow.Publisher.class, BodyPublisherRegistry::fromPublisher);
+        register(HttpRequest.BodyPublisher.class, (bodyPublisher, request) -> bodyPublisher);
+        register(SerializedPayload.class, (payload, request) -> payload.bodyPublisher());
+    }
+
+    /**
+     * Registers the factory of the entities of the given type, it takes precedence over the factories of the types registered before.
+     *
+     * @return this registry
+     */
+    public <T> BodyPublisherRegistry register(Class<T> type, Factory<? super T> factory) {
+        registrations.add(0, new Registration<>(type, factory));
+        resolved.clear();
+        return this;
+    }
+
+    /**
+     * @return the publisher of the entity or {@code null} when the entity is serialized by the Jersey message body writers
+     */
+    HttpRequest.BodyPublisher newPublisher(Object entity, ClientRequest clientRequest) {
+        return resolved.computeIfAbsent(entity.getClass(), this::lookup)
+                .map(registration -> registration.newPublisher(entity, clientRequest))
+                .orElse(null);
+    }
+
+    private Optional<Registration<?>> lookup(Class<?> entityClass) {
+        for (Registration<?> registration : registrations) {
+            if (registration.type.isAssignableFrom(entityClass)) {
+                return Optional.of(registration);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return the charset of the {@code Content-Type} of the request or UTF-8 when there is none
+     */
+    static Charset charset(ClientRequest clientRequest) {
+        final MediaType mediaType = clientRequest.getMediaType();
+        final String charset = mediaType == null ? null : mediaType.getParameters().get(MediaType.CHARSET_PARAMETER);
+        return charset == null ? StandardCharsets.UTF_8 : Charset.forName(charset);
+    }
+
+    private static HttpRequest.BodyPublisher ofFile(Path path) {
+        try {
+            return HttpRequest.BodyPublishers.ofFile(path);
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpRequest.BodyPublisher fromPublisher(Flow.Publisher<?> publisher, ClientRequest clientRequest) {
+        return HttpRequest.BodyPublishers.fromPublisher((Flow.Publisher<ByteBuffer>) publisher);
+    }
+
+    /**
+     * Creates the publisher of the entities of a type.
+     */
+    @FunctionalInterface
+    public interface Factory<T> {
+        /**
+         * @param entity        the entity of the request
+         * @param clientRequest the request, e.g. to read its {@code Content-Type}
+         * @return the publisher sending the entity or {@code null} to serialize it with the Jersey message body writers
+         */
+        HttpRequest.BodyPublisher newPublisher(T entity, ClientRequest clientRequest);
+    }
+
+    /**
+     * Publisher of a stream read only once, a new subscription of the HTTP client, e.g. to resend the request, fails since the stream has then been read.
+     */
+    private static final class InputStreamPublisher implements HttpRequest.BodyPublisher {
+        private final HttpRequest.BodyPublisher publisher;
+        private final AtomicBoolean subscribed = new AtomicBoolean();
+
+        private InputStreamPublisher(InputStream inputStream) {
+            this.publisher = HttpRequest.BodyPublishers.ofInputStream(() -> inputStream);
+        }
+
+        @Override
+        public long contentLength() {
+            return publisher.contentLength();
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            if (subscribed.getAndSet(true)) {
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    @Override
+                    public void request(long n) {
+                        // The subscription is already failed
+                    }
+
+                    @Override
+                    public void cancel() {
+                        // The subscription is already failed
+                    }
+                });
+                subscriber.onError(new IllegalStateException("The InputStream entity is already sent, it cannot be read again."));
+                return;
+            }
+            publisher.subscribe(subscriber);
+        }
+    }
+
+    private static final class Registration<T> {
+        private final Class<T> type;
+        private final Factory<? super T> factory;
+
+        private Registration(Class<T> type, Factory<? super T> factory) {
+            this.type = type;
+            this.factory = factory;
+        }
+
+        private HttpRequest.BodyPublisher newPublisher(Object entity, ClientRequest clientRequest) {
+            return factory.newPublisher(type.cast(entity), clientRequest);
+        }
+    }
+}
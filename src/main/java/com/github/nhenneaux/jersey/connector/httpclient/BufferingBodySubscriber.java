@@ -0,0 +1,169 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Body subscriber collecting the response body in memory without blocking any thread, the body is only available once it is fully received.
+ * <p>
+ * When the body is larger than the limit, the buffers already received are handed over to {@link HttpResponse.BodySubscribers#ofInputStream()}
+ * and the remaining of the body is streamed.
+ */
+final class BufferingBodySubscriber implements HttpResponse.BodySubscriber<InputStream> {
+
+    private final long limit;
+    private final CompletableFuture<InputStream> body = new CompletableFuture<>();
+    private final List<ByteBuffer> buffers = new ArrayList<>();
+    private long size;
+    private Flow.Subscription subscription;
+    private HttpResponse.BodySubscriber<InputStream> streaming;
+
+    private BufferingBodySubscriber(long limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * @return a body handler buffering the responses up to the given number of bytes, the larger responses are streamed
+     */
+    static HttpResponse.BodyHandler<InputStream> handler(long limit) {
+        return responseInfo -> {
+            final var contentLength = responseInfo.headers().firstValueAsLong("content-length");
+            if (contentLength.isPresent() && contentLength.getAsLong() > limit) {
+                return HttpResponse.BodySubscribers.ofInputStream();
+            }
+            return new BufferingBodySubscriber(limit);
+        };
+    }
+
+    @Override
+    public CompletionStage<InputStream> getBody() {
+        return body;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> item) {
+        if (streaming != null) {
+            streaming.onNext(item);
+            return;
+        }
+        for (ByteBuffer buffer : item) {
+            size += buffer.remaining();
+            buffers.add(buffer);
+        }
+        if (size > limit) {
+            switchToStreaming();
+        } else {
+            subscription.request(1);
+        }
+    }
+
+    private void switchToStreaming() {
+        streaming = HttpResponse.BodySubscribers.ofInputStream();
+        final AtomicReference<List<ByteBuffer>> received = new AtomicReference<>(new ArrayList<>(buffers));
+        buffers.clear();
+        streaming.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                final List<ByteBuffer> replayed = received.getAndSet(null);
+                long remaining = n;
+                if (replayed != null) {
+                    streaming.onNext(replayed);
+                    remaining--;
+                }
+                if (remaining > 0) {
+                    subscription.request(remaining);
+                }
+            }
+
+            @Override
+            public void cancel() {
+                subscription.cancel();
+            }
+        });
+        streaming.getBody().whenComplete((inputStream, throwable) -> {
+            if (throwable == null) {
+                body.complete(inputStream);
+            } else {
+                body.completeExceptionally(throwable);
+            }
+        });
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        if (streaming != null) {
+            streaming.onError(throwable);
+        } else {
+            buffers.clear();
+            body.completeExceptionally(throwable);
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        if (streaming != null) {
+            streaming.onComplete();
+        } else {
+            body.complete(new ByteBuffersInputStream(buffers));
+        }
+    }
+
+    /**
+     * Input stream reading a list of buffers without copying them in a single array.
+     */
+    static final class ByteBuffersInputStream extends InputStream {
+        private final List<ByteBuffer> buffers;
+        private int index;
+
+        ByteBuffersInputStream(List<ByteBuffer> buffers) {
+            this.buffers = buffers;
+        }
+
+        private ByteBuffer current() {
+            while (index < buffers.size() && !buffers.get(index).hasRemaining()) {
+                index++;
+            }
+            return index < buffers.size() ? buffers.get(index) : null;
+        }
+
+        @Override
+        public int read() {
+            final ByteBuffer buffer = current();
+            return buffer == null ? -1 : buffer.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            int read = 0;
+            ByteBuffer buffer;
+            while (read < length && (buffer = current()) != null) {
+                final int copied = Math.min(length - read, buffer.remaining());
+                buffer.get(bytes, offset + read, copied);
+                read += copied;
+            }
+            return read == 0 ? -1 : read;
+        }
+
+        @Override
+        public int available() {
+            final ByteBuffer buffer = current();
+            return buffer == null ? 0 : buffer.remaining();
+        }
+    }
+}
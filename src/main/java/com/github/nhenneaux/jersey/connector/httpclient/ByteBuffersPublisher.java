@@ -0,0 +1,87 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes buffers without copying them, from their position to their limit.
+ * <p>
+ * Each subscriber gets its own read-only view of the buffers, the request can thus be sent again, e.g. by a hedged attempt,
+ * and the buffers are never modified.
+ */
+final class ByteBuffersPublisher implements Flow.Publisher<ByteBuffer> {
+
+    private final ByteBuffer[] buffers;
+
+    private ByteBuffersPublisher(ByteBuffer[] buffers) {
+        this.buffers = buffers;
+    }
+
+    /**
+     * @return the body publisher of the remaining bytes of the buffers with their length
+     */
+    static HttpRequest.BodyPublisher of(ByteBuffer... buffers) {
+        final ByteBuffer[] views = new ByteBuffer[buffers.length];
+        long contentLength = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            views[i] = buffers[i].asReadOnlyBuffer();
+            contentLength += views[i].remaining();
+        }
+        if (contentLength == 0) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        return HttpRequest.BodyPublishers.fromPublisher(new ByteBuffersPublisher(views), contentLength);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        subscriber.onSubscribe(new BufferSubscription(subscriber));
+    }
+
+    private final class BufferSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private int index;
+        private volatile boolean done;
+
+        private BufferSubscription(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                done = true;
+                subscriber.onError(new IllegalArgumentException("The requested number of buffers must be positive but was " + n));
+                return;
+            }
+            demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            done = true;
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                while (!done && demand.get() > 0 && index < buffers.length) {
+                    demand.decrementAndGet();
+                    subscriber.onNext(buffers[index++].duplicate());
+                }
+                if (!done && index == buffers.length) {
+                    done = true;
+                    subscriber.onComplete();
+                }
+            } while (wip.decrementAndGet() != 0);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Output stream compressing the entity with gzip when it is larger than a threshold.
+ * <p>
+ * The first bytes are kept until the threshold is exceeded, the target stream is then opened for a compressed entity.
+ * When the entity is closed or flushed before exceeding the threshold, the target is opened for an entity sent as is,
+ * a flush thus keeps the streaming behaviour of the entity writers flushing early.
+ */
+final class CompressingOutputStream extends OutputStream {
+
+    /**
+     * Opens the stream receiving the entity once it is known whether it is compressed.
+     */
+    @FunctionalInterface
+    interface Target {
+        OutputStream open(boolean compressed) throws IOException;
+    }
+
+    private static final int GZIP_BUFFER_SIZE = 8192;
+
+    private final int threshold;
+    private final Target target;
+    private byte[] pending;
+    private int count;
+    private OutputStream out;
+
+    CompressingOutputStream(int threshold, Target target) {
+        this.threshold = threshold;
+        this.target = target;
+        this.pending = new byte[Math.min(Math.max(threshold, 0), GZIP_BUFFER_SIZE)];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (out != null) {
+            out.write(bytes, offset, length);
+            return;
+        }
+        if (count + length <= threshold) {
+            if (count + length > pending.length) {
+                final byte[] grown = new byte[Math.min(threshold, Math.max(pending.length * 2, count + length))];
+                System.arraycopy(pending, 0, grown, 0, count);
+                pending = grown;
+            }
+            System.arraycopy(bytes, offset, pending, count, length);
+            count += length;
+            return;
+        }
+        open(true);
+        out.write(bytes, offset, length);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (out == null) {
+            open(false);
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out == null) {
+            open(false);
+        }
+        out.close();
+    }
+
+    private void open(boolean compressed) throws IOException {
+        final OutputStream targetStream = target.open(compressed);
+        out = compressed ? new GZIPOutputStream(targetStream, GZIP_BUFFER_SIZE) : targetStream;
+        out.write(pending, 0, count);
+        pending = null;
+    }
+}
@@ -0,0 +1,36 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import jakarta.ws.rs.ProcessingException;
+
+/**
+ * Thrown when a request is rejected by the {@link AdaptiveConcurrencyLimiter} because the destination already has as many
+ * requests in flight as its current limit and the queue of waiting requests is full.
+ * The request is not sent, it can thus be retried safely later or on another destination.
+ */
+public class ConcurrencyLimitExceededException extends ProcessingException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String destination;
+    private final int limit;
+
+    public ConcurrencyLimitExceededException(String destination, int limit) {
+        super("The concurrency limit " + limit + " of " + destination + " is reached, the request is rejected without being sent");
+        this.destination = destination;
+        this.limit = limit;
+    }
+
+    /**
+     * @return the destination whose limit is reached
+     */
+    public String getDestination() {
+        return destination;
+    }
+
+    /**
+     * @return the limit of requests in flight when the request was rejected
+     */
+    public int getLimit() {
+        return limit;
+    }
+}
@@ -0,0 +1,149 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Opens the connections to a set of origins before the first requests, so that these requests do not pay for the DNS resolution,
+ * the TCP and TLS handshakes and the HTTP/2 negotiation.
+ * <p>
+ * A cheap request, {@code HEAD} by default, is sent in parallel to each origin with each client and the warm-up waits for the responses
+ * until a deadline, the requests still pending are then cancelled. Any response, whatever its status, means that the connection
+ * is established and kept open by the client.
+ */
+public final class ConnectionWarmUp {
+
+    static final String DEFAULT_METHOD = "HEAD";
+    static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(5);
+
+    private ConnectionWarmUp() {
+        // Static helpers only
+    }
+
+    /**
+     * @param origins a comma-separated {@link String} or a collection of {@link URI} or {@link String}
+     * @return the origins of the property value
+     */
+    static List<URI> parseOrigins(Object origins) {
+        final Collection<?> values = origins instanceof Collection ? (Collection<?>) origins : Arrays.asList(String.valueOf(origins).split(","));
+        return values.stream()
+                .map(value -> value instanceof URI ? (URI) value : URI.create(String.valueOf(value).trim()))
+                .filter(uri -> !uri.toString().isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Sends the warm-up request to each origin with each client and waits for the responses until the timeout.
+     *
+     * @return the outcome of the warm-up, an origin which cannot be reached is reported as a failure instead of being thrown
+     */
+    static Result warmUp(Collection<HttpClient> clients, Collection<URI> origins, String method, Duration timeout) {
+        final long start = System.nanoTime();
+        final Map<URI, Throwable> failures = new LinkedHashMap<>();
+        final Map<URI, List<CompletableFuture<HttpResponse<Void>>>> exchanges = new LinkedHashMap<>();
+        for (URI origin : origins) {
+            for (HttpClient client : clients) {
+                try {
+                    final HttpRequest request = HttpRequest.newBuilder(origin)
+                            .method(method, HttpRequest.BodyPublishers.noBody())
+                            .timeout(timeout)
+                            .build();
+                    exchanges.computeIfAbsent(origin, key -> new ArrayList<>()).add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+                } catch (RuntimeException e) {
+                    failures.putIfAbsent(origin, e);
+                }
+            }
+        }
+        final CompletableFuture<Void> all = CompletableFuture.allOf(exchanges.values().stream()
+                .flatMap(List::stream)
+                .toArray(CompletableFuture[]::new));
+        try {
+            all.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // The outcome of each origin is collected below
+        }
+        final Duration duration = Duration.ofNanos(System.nanoTime() - start);
+
+        exchanges.forEach((origin, futures) -> futures.forEach(future -> {
+            if (!future.isDone()) {
+                future.cancel(true);
+                failures.putIfAbsent(origin, new HttpTimeoutException("The warm-up of " + origin + " did not complete within " + timeout.toMillis() + " ms"));
+            } else if (future.isCompletedExceptionally()) {
+                failures.putIfAbsent(origin, cause(future));
+            }
+        }));
+        return new Result(List.copyOf(origins), duration, failures);
+    }
+
+    private static Throwable cause(CompletableFuture<?> future) {
+        final Throwable throwable = future.handle((response, cause) -> cause).join();
+        return throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+    }
+
+    /**
+     * Outcome of a warm-up.
+     */
+    public static final class Result {
+        private final List<URI> origins;
+        private final Duration duration;
+        private final Map<URI, Throwable> failures;
+
+        Result(List<URI> origins, Duration duration, Map<URI, Throwable> failures) {
+            this.origins = origins;
+            this.duration = duration;
+            this.failures = Collections.unmodifiableMap(failures);
+        }
+
+        /**
+         * @return the origins to warm up
+         */
+        public List<URI> getOrigins() {
+            return origins;
+        }
+
+        /**
+         * @return the time spent waiting for the warm-up responses, at most the timeout of the warm-up
+         */
+        public Duration getDuration() {
+            return duration;
+        }
+
+        /**
+         * @return whether a response was received from every origin with every client
+         */
+        public boolean isSucceeded() {
+            return failures.isEmpty();
+        }
+
+        /**
+         * @return the first failure of each origin which could not be warmed up, a {@link HttpTimeoutException} when it did not answer before the deadline
+         */
+        public Map<URI, Throwable> getFailures() {
+            return failures;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{origins=" + origins + ", duration=" + duration + ", failures=" + failures + '}';
+        }
+    }
+}
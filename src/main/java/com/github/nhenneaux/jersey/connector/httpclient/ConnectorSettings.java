@@ -0,0 +1,147 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import jakarta.ws.rs.core.Configuration;
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.ClientRequest;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Settings of the connector derived from a client {@link Configuration}, they are computed once instead of scanning the properties for each request.
+ * <p>
+ * The runtime configuration of a Jersey client is immutable, a modification of the client configuration creates a new runtime configuration.
+ * The snapshot is thus valid as long as the requests refer to the same configuration instance.
+ */
+final class ConnectorSettings {
+
+    private final Configuration configuration;
+    private final Optional<Duration> readTimeout;
+    private final boolean chunked;
+    private final int chunkSize;
+    private final boolean lazyResponseHeaders;
+    private final int asyncBodyBufferSize;
+    private final boolean responseDecompression;
+    private final int requestCompressionThreshold;
+    private final Optional<Duration> requestDeadline;
+    private final Optional<Duration> readIdleTimeout;
+
+    private ConnectorSettings(Configuration configuration) {
+        this.configuration = configuration;
+        final Optional<Configuration> optionalConfiguration = Optional.ofNullable(configuration);
+        this.readTimeout = optionalConfiguration
+                .flatMap(c -> getDurationTimeout(c, ClientProperties.READ_TIMEOUT));
+        this.chunked = optionalConfiguration
+                .map(c -> c.getProperty(ClientProperties.REQUEST_ENTITY_PROCESSING))
+                .map(String.class::cast)
+                .filter("CHUNKED"::equals)
+                .isPresent();
+        this.chunkSize = optionalConfiguration
+                .map(c -> ClientProperties.getValue(c.getProperties(), ClientProperties.CHUNKED_ENCODING_SIZE, ClientProperties.DEFAULT_CHUNK_SIZE, Integer.class))
+                .orElse(ClientProperties.DEFAULT_CHUNK_SIZE);
+        // Same conversions as ClientRequest#resolveProperty which is used when the request overrides these properties
+        this.lazyResponseHeaders = optionalConfiguration
+                .map(c -> ClientProperties.getValue(c.getProperties(), HttpClientConnectorProperties.LAZY_RESPONSE_HEADERS, false, Boolean.class))
+                .orElse(false);
+        this.asyncBodyBufferSize = optionalConfiguration
+                .map(c -> ClientProperties.getValue(c.getProperties(), HttpClientConnectorProperties.ASYNC_BODY_BUFFER_SIZE, 0, Integer.class))
+                .orElse(0);
+        this.responseDecompression = optionalConfiguration
+                .map(c -> ClientProperties.getValue(c.getProperties(), HttpClientConnectorProperties.RESPONSE_DECOMPRESSION, false, Boolean.class))
+                .orElse(false);
+        this.requestCompressionThreshold = optionalConfiguration
+                .map(c -> ClientProperties.getValue(c.getProperties(), HttpClientConnectorProperties.REQUEST_COMPRESSION_THRESHOLD, -1, Integer.class))
+                .orElse(-1);
+        this.requestDeadline = optionalConfiguration
+                .map(c -> ClientProperties.getValue(c.getProperties(), HttpClientConnectorProperties.REQUEST_DEADLINE, Integer.class))
+                .filter(deadline -> deadline > 0)
+                .map(Duration::ofMillis);
+        this.readIdleTimeout = optionalConfiguration
+                .map(c -> ClientProperties.getValue(c.getProperties(), HttpClientConnectorProperties.READ_IDLE_TIMEOUT, Integer.class))
+                .filter(timeout -> timeout > 0)
+                .map(Duration::ofMillis);
+    }
+
+    static ConnectorSettings of(Configuration configuration) {
+        return new ConnectorSettings(configuration);
+    }
+
+    static Optional<Duration> getDurationTimeout(Configuration configuration, String property) {
+        return Optional.ofNullable(ClientProperties.getValue(configuration.getProperties(), property, Integer.class))
+                .map(Duration::ofMillis);
+    }
+
+    boolean isFor(Configuration configuration) {
+        return this.configuration == configuration;
+    }
+
+    Optional<Duration> readTimeout() {
+        return readTimeout;
+    }
+
+    boolean chunked() {
+        return chunked;
+    }
+
+    int chunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @return whether the response headers are exposed lazily, a request property overrides the configuration
+     */
+    boolean lazyResponseHeaders(ClientRequest clientRequest) {
+        if (clientRequest.getProperty(HttpClientConnectorProperties.LAZY_RESPONSE_HEADERS) == null) {
+            return lazyResponseHeaders;
+        }
+        return Boolean.TRUE.equals(clientRequest.resolveProperty(HttpClientConnectorProperties.LAZY_RESPONSE_HEADERS, Boolean.class));
+    }
+
+    /**
+     * @return the size limit of the asynchronous bodies collected in memory or {@code 0} when they are streamed, a request property overrides the configuration
+     */
+    int asyncBodyBufferSize(ClientRequest clientRequest) {
+        if (clientRequest.getProperty(HttpClientConnectorProperties.ASYNC_BODY_BUFFER_SIZE) == null) {
+            return asyncBodyBufferSize;
+        }
+        return Optional.ofNullable(clientRequest.resolveProperty(HttpClientConnectorProperties.ASYNC_BODY_BUFFER_SIZE, Integer.class)).orElse(0);
+    }
+
+    /**
+     * @return whether the responses are decompressed, a request property overrides the configuration
+     */
+    boolean responseDecompression(ClientRequest clientRequest) {
+        if (clientRequest.getProperty(HttpClientConnectorProperties.RESPONSE_DECOMPRESSION) == null) {
+            return responseDecompression;
+        }
+        return Boolean.TRUE.equals(clientRequest.resolveProperty(HttpClientConnectorProperties.RESPONSE_DECOMPRESSION, Boolean.class));
+    }
+
+    /**
+     * @return the size from which the request entities are compressed or a negative value when they are sent as is
+     */
+    int requestCompressionThreshold() {
+        return requestCompressionThreshold;
+    }
+
+    /**
+     * @return the total time allowed to the request, a request property overrides the configuration
+     */
+    Optional<Duration> requestDeadline(ClientRequest clientRequest) {
+        if (clientRequest.getProperty(HttpClientConnectorProperties.REQUEST_DEADLINE) == null) {
+            return requestDeadline;
+        }
+        return Optional.ofNullable(clientRequest.resolveProperty(HttpClientConnectorProperties.REQUEST_DEADLINE, Integer.class))
+                .filter(deadline -> deadline > 0)
+                .map(Duration::ofMillis);
+    }
+
+    Optional<Duration> readIdleTimeout(ClientRequest clientRequest) {
+        if (clientRequest.getProperty(HttpClientConnectorProperties.READ_IDLE_TIMEOUT) == null) {
+            return readIdleTimeout;
+        }
+        return Optional.ofNullable(clientRequest.resolveProperty(HttpClientConnectorProperties.READ_IDLE_TIMEOUT, Integer.class))
+                .filter(timeout -> timeout > 0)
+                .map(Duration::ofMillis);
+    }
+}
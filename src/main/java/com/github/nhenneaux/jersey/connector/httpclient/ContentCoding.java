@@ -0,0 +1,106 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpHeaders;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Content codings supported by the connector, gzip for the requests and gzip or deflate for the responses.
+ */
+final class ContentCoding {
+
+    static final String CONTENT_ENCODING = "Content-Encoding";
+    static final String ACCEPT_ENCODING = "Accept-Encoding";
+    static final String GZIP = "gzip";
+    static final String ACCEPTED_ENCODINGS = "gzip, deflate";
+
+    private static final Set<String> DECODED_ENCODINGS = Set.of("gzip", "x-gzip", "deflate");
+
+    private ContentCoding() {
+        // Utility class
+    }
+
+    static byte[] gzip(byte[] bytes) {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressed)) {
+            gzipOutputStream.write(bytes);
+        } catch (IOException e) {
+            // Not thrown by an in-memory stream
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * @return the content coding of the response when the connector can decode it
+     */
+    static Optional<String> decodableEncoding(HttpHeaders headers) {
+        return headers.firstValue(CONTENT_ENCODING)
+                .map(encoding -> encoding.trim().toLowerCase(Locale.ROOT))
+                .filter(DECODED_ENCODINGS::contains);
+    }
+
+    /**
+     * @return the headers of the decoded response, without the coding and the length of the encoded body
+     */
+    static HttpHeaders decodedHeaders(HttpHeaders headers) {
+        return HttpHeaders.of(headers.map(), (name, value) -> !CONTENT_ENCODING.equalsIgnoreCase(name) && !"Content-Length".equalsIgnoreCase(name));
+    }
+
+    /**
+     * @return the decoded stream, the decoder is only created on the first read since reading the gzip header blocks
+     */
+    static InputStream decode(String encoding, InputStream encoded) {
+        return new DecodingInputStream(encoding, encoded);
+    }
+
+    private static final class DecodingInputStream extends InputStream {
+        private final String encoding;
+        private final InputStream encoded;
+        private InputStream decoded;
+
+        private DecodingInputStream(String encoding, InputStream encoded) {
+            this.encoding = encoding;
+            this.encoded = encoded;
+        }
+
+        private InputStream decoded() throws IOException {
+            if (decoded == null) {
+                decoded = "deflate".equals(encoding) ? new InflaterInputStream(encoded) : new GZIPInputStream(encoded);
+            }
+            return decoded;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return decoded().read();
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            return decoded().read(bytes, offset, length);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return decoded == null ? 0 : decoded.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (decoded == null) {
+                encoded.close();
+            } else {
+                decoded.close();
+            }
+        }
+    }
+}
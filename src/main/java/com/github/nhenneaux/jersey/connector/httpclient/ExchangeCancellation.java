@@ -0,0 +1,75 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import java.io.InputStream;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Propagates the cancellation of the future returned to the caller of an asynchronous invocation to the exchange of the HTTP client.
+ * <p>
+ * A future derived with {@code thenApply} or {@code thenCompose} does not cancel its source, so the exchange would keep its connection or HTTP/2 stream
+ * busy until the response is received. Since JDK 16, cancelling the future returned by {@link java.net.http.HttpClient#sendAsync} aborts the exchange.
+ * The exchange is recorded when it is dispatched, before a chunked entity is written, so that a cancellation also stops the entity writer.
+ */
+final class ExchangeCancellation {
+
+    private volatile Future<?> exchange;
+    private volatile boolean cancelled;
+
+    /**
+     * @return a sender recording the exchange, the request is not sent once the invocation is cancelled
+     */
+    Function<HttpRequest, CompletableFuture<HttpResponse<InputStream>>> sender(Function<HttpRequest, CompletableFuture<HttpResponse<InputStream>>> sender) {
+        return request -> {
+            if (cancelled) {
+                return CompletableFuture.failedFuture(new CancellationException("The invocation was cancelled before the request was sent"));
+            }
+            final CompletableFuture<HttpResponse<InputStream>> httpCallFuture = sender.apply(request);
+            exchange = httpCallFuture;
+            if (cancelled) {
+                httpCallFuture.cancel(true);
+            }
+            return httpCallFuture;
+        };
+    }
+
+    /**
+     * Cancels the recorded exchange when the result is cancelled.
+     *
+     * @return the result
+     */
+    <T> CompletableFuture<T> bind(CompletableFuture<T> result) {
+        result.whenComplete((value, throwable) -> {
+            if (result.isCancelled()) {
+                cancel();
+            }
+        });
+        return result;
+    }
+
+    void cancel() {
+        cancelled = true;
+        final Future<?> pendingExchange = exchange;
+        if (pendingExchange != null) {
+            pendingExchange.cancel(true);
+        }
+    }
+
+    /**
+     * Cancels the source when the future derived from it is cancelled.
+     *
+     * @return the derived future
+     */
+    static <T> CompletableFuture<T> propagate(CompletableFuture<T> derived, Future<?> source) {
+        derived.whenComplete((value, throwable) -> {
+            if (derived.isCancelled()) {
+                source.cancel(true);
+            }
+        });
+        return derived;
+    }
+}
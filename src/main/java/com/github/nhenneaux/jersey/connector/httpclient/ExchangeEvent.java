@@ -0,0 +1,146 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+
+/**
+ * JDK Flight Recorder event of an exchange sent by {@link HttpClientConnector}, it spans from the start of the request build to the closing of the response body.
+ * <p>
+ * The event is disabled by default, it can be enabled in the recording settings, e.g.
+ * {@code jcmd <pid> JFR.start +com.github.nhenneaux.jersey.connector.httpclient.Exchange#enabled=true} on JDK 17+.
+ * When it is disabled, the connector does not create it.
+ */
+@Name(ExchangeEvent.NAME)
+@Label("HTTP Client Connector Exchange")
+@Category({"Jersey", "HTTP Client Connector"})
+@Description("Exchange sent by the Jersey connector for java.net.http.HttpClient")
+@Enabled(false)
+@StackTrace(false)
+final class ExchangeEvent extends Event implements HttpClientConnectorListener {
+
+    static final String NAME = "com.github.nhenneaux.jersey.connector.httpclient.Exchange";
+    private static final EventType EVENT_TYPE = EventType.getEventType(ExchangeEvent.class);
+
+    @Label("Method")
+    String method;
+
+    @Label("Host")
+    String host;
+
+    @Label("HTTP Version")
+    String version;
+
+    @Label("Status")
+    int status;
+
+    @Label("Chunked")
+    @Description("Whether the request entity is streamed in chunks of unknown total length")
+    boolean chunked;
+
+    @Label("Request Size")
+    @Description("Length of the request body, -1 when it is chunked")
+    @DataAmount
+    long requestSize;
+
+    @Label("Response Size")
+    @Description("Number of bytes of the response body read")
+    @DataAmount
+    long responseSize;
+
+    @Label("Serialization Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long serializationTime;
+
+    @Label("Time To First Byte")
+    @Description("Time from the dispatch of the request to the reception of the response headers")
+    @Timespan(Timespan.NANOSECONDS)
+    long timeToFirstByte;
+
+    @Label("Failure")
+    String failure;
+
+    private transient long serializationStarted;
+    private transient long dispatched;
+    private transient boolean committed;
+
+    /**
+     * @return a new event or {@code null} when the event is not enabled in the running recordings
+     */
+    static ExchangeEvent newEventIfEnabled() {
+        return EVENT_TYPE.isEnabled() ? new ExchangeEvent() : null;
+    }
+
+    @Override
+    public void requestBuildStarted(long nanoTime) {
+        begin();
+    }
+
+    @Override
+    public void entitySerializationStarted(long nanoTime) {
+        serializationStarted = nanoTime;
+    }
+
+    @Override
+    public void entitySerializationEnded(long nanoTime) {
+        serializationTime = nanoTime - serializationStarted;
+    }
+
+    @Override
+    public void sendDispatched(HttpRequest request, long nanoTime) {
+        dispatched = nanoTime;
+        method = request.method();
+        host = request.uri().getHost();
+        requestSize = request.bodyPublisher().map(HttpRequest.BodyPublisher::contentLength).orElse(0L);
+        chunked = requestSize < 0;
+    }
+
+    @Override
+    public void responseHeadersReceived(int statusCode, HttpClient.Version version, long nanoTime) {
+        timeToFirstByte = nanoTime - dispatched;
+        this.status = statusCode;
+        this.version = version.name();
+    }
+
+    @Override
+    public void bodyClosed(long bytesRead, long nanoTime) {
+        responseSize = bytesRead;
+        commitOnce();
+    }
+
+    @Override
+    public void bodyFailed(Throwable cause, long bytesRead, long nanoTime) {
+        responseSize = bytesRead;
+        failed(cause, nanoTime);
+    }
+
+    @Override
+    public void failed(Throwable cause, long nanoTime) {
+        failure = cause.toString();
+        commitOnce();
+    }
+
+    /**
+     * Commits the event once, the body of a failed exchange can still be closed afterwards.
+     */
+    private synchronized void commitOnce() {
+        if (committed) {
+            return;
+        }
+        committed = true;
+        end();
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import org.glassfish.jersey.client.ClientRequest;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Notifies a {@link HttpClientConnectorListener} and the {@link ExchangeEvent} of the phases of one exchange.
+ * <p>
+ * An observer is only created when a listener is registered or when the event is enabled, the connector skips all the notifications otherwise.
+ */
+final class ExchangeObserver {
+
+    private final HttpClientConnectorListener listener;
+    private final AtomicBoolean failed = new AtomicBoolean();
+
+    private ExchangeObserver(HttpClientConnectorListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return the observer of the exchange or {@code null} when the factory, if any, does not observe this request and the event is disabled
+     */
+    static ExchangeObserver of(HttpClientConnectorListener.Factory listenerFactory, ClientRequest clientRequest) {
+        final HttpClientConnectorListener listener = listenerFactory == null ? null : listenerFactory.newListener(clientRequest);
+        final ExchangeEvent event = ExchangeEvent.newEventIfEnabled();
+        if (event == null) {
+            return listener == null ? null : new ExchangeObserver(listener);
+        }
+        return new ExchangeObserver(listener == null ? event : new CompositeListener(listener, event));
+    }
+
+    void requestBuildStarted() {
+        listener.requestBuildStarted(System.nanoTime());
+    }
+
+    void entitySerializationStarted() {
+        listener.entitySerializationStarted(System.nanoTime());
+    }
+
+    void entitySerializationEnded() {
+        listener.entitySerializationEnded(System.nanoTime());
+    }
+
+    /**
+     * @return a sender notifying the dispatch of the request and the failure of the exchange
+     */
+    Function<HttpRequest, CompletableFuture<HttpResponse<InputStream>>> sender(Function<HttpRequest, CompletableFuture<HttpResponse<InputStream>>> sender) {
+        return request -> {
+            listener.sendDispatched(request, System.nanoTime());
+            final CompletableFuture<HttpResponse<InputStream>> httpCallFuture = sender.apply(request);
+            httpCallFuture.whenComplete((response, throwable) -> {
+                if (throwable != null) {
+                    failed(throwable);
+                }
+            });
+            return httpCallFuture;
+        };
+    }
+
+    /**
+     * @return a body handler notifying the reception of the response headers, it is called by the HTTP client before reading the body
+     */
+    <T> HttpResponse.BodyHandler<T> bodyHandler(HttpResponse.BodyHandler<T> bodyHandler) {
+        return responseInfo -> {
+            listener.responseHeadersReceived(responseInfo.statusCode(), responseInfo.version(), System.nanoTime());
+            return bodyHandler.apply(responseInfo);
+        };
+    }
+
+    /**
+     * @return the entity stream notifying when its end is read, when a read fails and when it is closed
+     */
+    InputStream entityStream(InputStream entityStream) {
+        return new ObservedInputStream(entityStream);
+    }
+
+    /**
+     * Notifies the closing of an empty body.
+     */
+    void bodyClosed() {
+        listener.bodyClosed(0, System.nanoTime());
+    }
+
+    /**
+     * Notifies the failure once, an exchange failing while writing a chunked entity both throws and cancels the response future.
+     */
+    void failed(Throwable cause) {
+        if (failed.compareAndSet(false, true)) {
+            listener.failed(cause, System.nanoTime());
+        }
+    }
+
+    private void bodyFailed(Throwable cause, long bytesRead) {
+        if (failed.compareAndSet(false, true)) {
+            listener.bodyFailed(cause, bytesRead, System.nanoTime());
+        }
+    }
+
+    private final class ObservedInputStream extends FilterInputStream {
+        private long bytesRead;
+        private boolean consumed;
+        private boolean closed;
+
+        private ObservedInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int read;
+            try {
+                read = super.read();
+            } catch (IOException e) {
+                bodyFailed(e, bytesRead);
+                throw e;
+            }
+            if (read == -1) {
+                endOfStream();
+            } else {
+                bytesRead++;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int read;
+            try {
+                read = super.read(b, off, len);
+            } catch (IOException e) {
+                bodyFailed(e, bytesRead);
+                throw e;
+            }
+            if (read == -1) {
+                endOfStream();
+            } else {
+                bytesRead += read;
+            }
+            return read;
+        }
+
+        private void endOfStream() {
+            if (!consumed) {
+                consumed = true;
+                listener.bodyConsumed(bytesRead, System.nanoTime());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                if (!closed) {
+                    closed = true;
+                    listener.bodyClosed(bytesRead, System.nanoTime());
+                }
+            }
+        }
+    }
+
+    /**
+     * Notifies both the registered listener and the event.
+     */
+    private static final class CompositeListener implements HttpClientConnectorListener {
+        private final HttpClientConnectorListener first;
+        private final HttpClientConnectorListener second;
+
+        private CompositeListener(HttpClientConnectorListener first, HttpClientConnectorListener second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void requestBuildStarted(long nanoTime) {
+            first.requestBuildStarted(nanoTime);
+            second.requestBuildStarted(nanoTime);
+        }
+
+        @Override
+        public void entitySerializationStarted(long nanoTime) {
+            first.entitySerializationStarted(nanoTime);
+            second.entitySerializationStarted(nanoTime);
+        }
+
+        @Override
+        public void entitySerializationEnded(long nanoTime) {
+            first.entitySerializationEnded(nanoTime);
+            second.entitySerializationEnded(nanoTime);
+        }
+
+        @Override
+        public void sendDispatched(HttpRequest request, long nanoTime) {
+            first.sendDispatched(request, nanoTime);
+            second.sendDispatched(request, nanoTime);
+        }
+
+        @Override
+        public void responseHeadersReceived(int statusCode, HttpClient.Version version, long nanoTime) {
+            first.responseHeadersReceived(statusCode, version, nanoTime);
+            second.responseHeadersReceived(statusCode, version, nanoTime);
+        }
+
+        @Override
+        public void bodyConsumed(long bytesRead, long nanoTime) {
+            first.bodyConsumed(bytesRead, nanoTime);
+            second.bodyConsumed(bytesRead, nanoTime);
+        }
+
+        @Override
+        public void bodyClosed(long bytesRead, long nanoTime) {
+            first.bodyClosed(bytesRead, nanoTime);
+            second.bodyClosed(bytesRead, nanoTime);
+        }
+
+        @Override
+        public void bodyFailed(Throwable cause, long bytesRead, long nanoTime) {
+            first.bodyFailed(cause, bytesRead, nanoTime);
+            second.bodyFailed(cause, bytesRead, nanoTime);
+        }
+
+        @Override
+        public void failed(Throwable cause, long nanoTime) {
+            first.failed(cause, nanoTime);
+            second.failed(cause, nanoTime);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import org.glassfish.jersey.client.ClientRequest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Writes a successful response body to a file as it is received, the entity of the response then reads the file.
+ * <p>
+ * The bytes are written by the {@link java.net.http.HttpClient} to a {@link java.nio.channels.FileChannel} without any {@link InputStream} copy
+ * on the thread of the caller. The body is first written to a temporary file next to the target which is moved to the target once complete,
+ * so a failed or cancelled download never leaves a truncated file behind. The responses with a status other than 2xx are streamed as usual.
+ */
+final class FileDownload implements HttpResponse.BodySubscriber<InputStream> {
+
+    private final HttpResponse.BodySubscriber<Path> file;
+    private final CompletionStage<InputStream> body;
+
+    private FileDownload(Path partial, Path target) {
+        this.file = HttpResponse.BodySubscribers.ofFile(partial);
+        this.body = file.getBody()
+                .whenComplete((downloaded, throwable) -> {
+                    if (throwable != null) {
+                        deleteQuietly(partial);
+                    }
+                })
+                .thenApply(downloaded -> moveAndOpen(downloaded, target));
+    }
+
+    /**
+     * @return the file targeted by the {@link HttpClientConnectorProperties#DOWNLOAD_FILE} of the request, if any
+     */
+    static Optional<Path> target(ClientRequest clientRequest) {
+        final Object value = clientRequest.getProperty(HttpClientConnectorProperties.DOWNLOAD_FILE);
+        if (value == null) {
+            return Optional.empty();
+        }
+        if (value instanceof Path) {
+            return Optional.of((Path) value);
+        }
+        if (value instanceof File) {
+            return Optional.of(((File) value).toPath());
+        }
+        return Optional.of(Path.of(value.toString()));
+    }
+
+    /**
+     * @return a body handler writing the successful responses to the target file, the other responses are handled by the fallback
+     */
+    static HttpResponse.BodyHandler<InputStream> handler(Path target, HttpResponse.BodyHandler<InputStream> fallback) {
+        final Path absoluteTarget = target.toAbsolutePath();
+        return responseInfo -> {
+            if (responseInfo.statusCode() / 100 != 2) {
+                return fallback.apply(responseInfo);
+            }
+            final Path partial;
+            try {
+                partial = Files.createTempFile(absoluteTarget.getParent(), absoluteTarget.getFileName().toString(), ".part");
+            } catch (IOException e) {
+                throw new UncheckedIOException("The download file cannot be created next to " + absoluteTarget, e);
+            }
+            return new FileDownload(partial, absoluteTarget);
+        };
+    }
+
+    private static InputStream moveAndOpen(Path downloaded, Path target) {
+        try {
+            Files.move(downloaded, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return Files.newInputStream(target);
+        } catch (IOException e) {
+            deleteQuietly(downloaded);
+            throw new UncheckedIOException("The downloaded file cannot be moved to " + target, e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // The temporary file is left behind
+        }
+    }
+
+    @Override
+    public CompletionStage<InputStream> getBody() {
+        return body;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        file.onSubscribe(subscription);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> item) {
+        file.onNext(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        file.onError(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        file.onComplete();
+    }
+}
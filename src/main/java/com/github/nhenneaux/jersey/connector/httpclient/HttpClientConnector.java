@@ -3,38 +3,53 @@ package com.github.nhenneaux.jersey.connector.httpclient;
 import jakarta.ws.rs.ProcessingException;
 import jakarta.ws.rs.client.Client;
 import jakarta.ws.rs.core.Configuration;
+import jakarta.ws.rs.core.MultivaluedMap;
 import jakarta.ws.rs.core.Response;
 import org.glassfish.jersey.client.ClientProperties;
 import org.glassfish.jersey.client.ClientRequest;
 import org.glassfish.jersey.client.ClientResponse;
 import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
 import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.message.internal.OutboundJaxrsResponse;
+import org.glassfish.jersey.message.internal.OutboundMessageContext;
 import org.glassfish.jersey.message.internal.Statuses;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.PipedInputStream;
-import java.io.PipedOutputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.InetSocketAddress;
 import java.net.ProxySelector;
 import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static org.glassfish.jersey.client.ClientProperties.CONNECT_TIMEOUT;
 import static org.glassfish.jersey.client.ClientProperties.PROXY_URI;
-import static org.glassfish.jersey.client.ClientProperties.READ_TIMEOUT;
 
 /**
  * Jersey connector for java.net.http.HttpClient.
@@ -53,21 +68,77 @@ import static org.glassfish.jersey.client.ClientProperties.READ_TIMEOUT;
  *                               .connectorProvider(
  *                                  (jaxRsClient, config) ->  new HttpClientConnector(httpClient)))
  * }</pre>
+ * The connector features configured when the connector is created are only read by {@link #HttpClientConnector(Client, Configuration)}:
+ * the buffer pool, the execution modes, the client pool, the listener factory, the coalescing, the HTTP cache, the hedging, the concurrency limiter,
+ * the body publisher registry and the warm-up. They are ignored by the constructors taking a {@link HttpClient}, a {@link Supplier} or a {@link HttpClientPool},
+ * which send the requests straight to the given clients. The properties read for each request, e.g. the timeouts, the deadline or the compression, still apply.
  */
 public class HttpClientConnector implements Connector {
 
-    private static final Runnable NO_OP = () -> {
+    private static final Consumer<IOException> NO_OP = exception -> {
     };
+    private static final String DEFAULT_COALESCING_VARY_HEADERS = "Accept,Accept-Encoding,Accept-Language,Authorization,Cookie";
     private final Supplier<HttpClient> httpClientSupplier;
-
+    private final HttpClientPool httpClientPool;
+    private final SegmentPool segmentPool;
+    private final ExecutorService virtualThreadExecutor;
+    private final ExecutorService threadPoolExecutor;
+    private final HttpClientConnectorListener.Factory listenerFactory;
+    private final RequestCoalescer coalescer;
+    private final HttpResponseCache responseCache;
+    private final RequestHedger hedger;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final ConnectionWarmUp.Result warmUpResult;
+    private final BodyPublisherRegistry bodyPublishers;
+    private volatile ConnectorSettings settings;
+
+    /**
+     * Creates a connector sending the requests with the client, the connector features configured with the client properties are ignored.
+     */
     public HttpClientConnector(HttpClient httpClient) {
         this(() -> httpClient);
     }
 
+    /**
+     * Creates a connector notifying the listeners created by the factory of the phases of each exchange,
+     * the other connector features configured with the client properties are ignored.
+     */
+    public HttpClientConnector(HttpClient httpClient, HttpClientConnectorListener.Factory listenerFactory) {
+        this(() -> httpClient, null, listenerFactory);
+    }
+
+    /**
+     * Creates a connector sending each request with the client supplied, the connector features configured with the client properties are ignored.
+     */
     public HttpClientConnector(Supplier<HttpClient> httpClientSupplier) {
+        this(httpClientSupplier, null, null);
+    }
+
+    /**
+     * Creates a connector spreading the requests over the clients of the pool, the connector features configured with the client properties are ignored.
+     */
+    public HttpClientConnector(HttpClientPool httpClientPool) {
+        this(httpClientPool::next, httpClientPool, null);
+    }
+
+    private HttpClientConnector(Supplier<HttpClient> httpClientSupplier, HttpClientPool httpClientPool, HttpClientConnectorListener.Factory listenerFactory) {
         this.httpClientSupplier = httpClientSupplier;
+        this.httpClientPool = httpClientPool;
+        this.segmentPool = null;
+        this.virtualThreadExecutor = null;
+        this.threadPoolExecutor = null;
+        this.listenerFactory = listenerFactory;
+        this.coalescer = null;
+        this.responseCache = null;
+        this.hedger = null;
+        this.concurrencyLimiter = null;
+        this.warmUpResult = null;
+        this.bodyPublishers = BodyPublisherRegistry.DEFAULT;
     }
 
+    /**
+     * Creates a connector with a new {@link HttpClient} and the connector features configured by the properties of the client configuration.
+     */
     public HttpClientConnector(Client jaxRsClient, Configuration configuration) {
         final HttpClient.Builder builder = HttpClient.newBuilder()
                 .sslContext(jaxRsClient.getSslContext());
@@ -78,11 +149,103 @@ public class HttpClientConnector implements Connector {
                 .map(URI::create)
                 .ifPresent(proxyUri -> builder.proxy(ProxySelector.of(InetSocketAddress.createUnresolved(proxyUri.getHost(), proxyUri.getPort()))));
 
-        final var client = getDurationTimeout(configuration, CONNECT_TIMEOUT)
-                .map(builder::connectTimeout)
-                .orElse(builder)
-                .build();
-        this.httpClientSupplier = () -> client;
+        final ExecutorService executorService = Optional.of(configuration)
+                .map(c -> c.getProperty(HttpClientConnectorProperties.EXECUTOR_SERVICE))
+                .map(ExecutorService.class::cast)
+                .orElse(null);
+        this.virtualThreadExecutor = executorService != null ? null : Optional.of(configuration)
+                .map(c -> ClientProperties.getValue(c.getProperties(), HttpClientConnectorProperties.VIRTUAL_THREADS, Boolean.class))
+                .filter(Boolean::booleanValue)
+                .flatMap(enabled -> VirtualThreads.newVirtualThreadPerTaskExecutor())
+                .orElse(null);
+        this.threadPoolExecutor = executorService != null || virtualThreadExecutor != null ? null : Optional.of(configuration)
+                .map(c -> ClientProperties.getValue(c.getProperties(), ClientProperties.ASYNC_THREADPOOL_SIZE, 0, Integer.class))
+                .filter(size -> size > 0)
+                .map(size -> Executors.newFixedThreadPool(size, new DaemonThreadFactory()))
+                .orElse(null);
+        Optional.ofNullable(executorService)
+                .or(() -> Optional.ofNullable(virtualThreadExecutor))
+                .or(() -> Optional.ofNullable(threadPoolExecutor))
+                .ifPresent(builder::executor);
+
+        ConnectorSettings.getDurationTimeout(configuration, CONNECT_TIMEOUT).ifPresent(builder::connectTimeout);
+        Optional.of(configuration)
+                .map(c -> c.getProperty(HttpClientConnectorProperties.HTTP_VERSION))
+                .map(version -> version instanceof HttpClient.Version ? (HttpClient.Version) version : HttpClient.Version.valueOf(String.valueOf(version)))
+                .ifPresent(builder::version);
+        Optional.of(configuration)
+                .map(c -> c.getProperty(HttpClientConnectorProperties.REDIRECT))
+                .map(redirect -> redirect instanceof HttpClient.Redirect ? (HttpClient.Redirect) redirect : HttpClient.Redirect.valueOf(String.valueOf(redirect)))
+                .or(() -> Optional.ofNullable(ClientProperties.getValue(configuration.getProperties(), ClientProperties.FOLLOW_REDIRECTS, Boolean.class))
+                        .map(follow -> Boolean.TRUE.equals(follow) ? HttpClient.Redirect.NORMAL : HttpClient.Redirect.NEVER))
+                .ifPresent(builder::followRedirects);
+        Optional.ofNullable(ClientProperties.getValue(configuration.getProperties(), HttpClientConnectorProperties.PRIORITY, Integer.class))
+                .ifPresent(builder::priority);
+        final int poolSize = ClientProperties.getValue(configuration.getProperties(), HttpClientConnectorProperties.CLIENT_POOL_SIZE, 1, Integer.class);
+        if (poolSize > 1) {
+            final HttpClientPool.Selection selection = Optional.of(configuration)
+                    .map(c -> c.getProperty(HttpClientConnectorProperties.CLIENT_POOL_SELECTION))
+                    .map(value -> value instanceof HttpClientPool.Selection ? (HttpClientPool.Selection) value : HttpClientPool.Selection.valueOf(String.valueOf(value)))
+                    .orElse(HttpClientPool.Selection.LEAST_IN_FLIGHT);
+            this.httpClientPool = new HttpClientPool(poolSize, builder::build, selection);
+            this.httpClientSupplier = httpClientPool::next;
+        } else {
+            final var client = builder.build();
+            this.httpClientPool = null;
+            this.httpClientSupplier = () -> client;
+        }
+        this.segmentPool = Optional.of(configuration)
+                .map(c -> ClientProperties.getValue(c.getProperties(), HttpClientConnectorProperties.BUFFER_POOL_SIZE, Integer.class))
+                .map(SegmentPool::new)
+                .orElse(null);
+        this.listenerFactory = Optional.of(configuration)
+                .map(c -> c.getProperty(HttpClientConnectorProperties.LISTENER_FACTORY))
+                .map(HttpClientConnectorListener.Factory.class::cast)
+                .orElse(null);
+        this.coalescer = Optional.of(configuration)
+                .map(c -> ClientProperties.getValue(c.getProperties(), HttpClientConnectorProperties.COALESCING, Boolean.class))
+                .filter(Boolean::booleanValue)
+                .map(enabled -> Optional.ofNullable(configuration.getProperty(HttpClientConnectorProperties.COALESCING_VARY_HEADERS))
+                        .map(String.class::cast)
+                        .orElse(DEFAULT_COALESCING_VARY_HEADERS))
+                .map(varyHeaders -> new RequestCoalescer(Arrays.stream(varyHeaders.split(","))
+                        .map(String::trim)
+                        .filter(header -> !header.isEmpty())
+                        .collect(Collectors.toList())))
+                .orElse(null);
+        this.responseCache = Optional.of(configuration)
+                .map(c -> ClientProperties.getValue(c.getProperties(), HttpClientConnectorProperties.HTTP_CACHE_SIZE, Integer.class))
+                .filter(size -> size > 0)
+                .map(HttpResponseCache::new)
+                .orElse(null);
+        this.hedger = Optional.of(configuration)
+                .map(c -> ClientProperties.getValue(c.getProperties(), HttpClientConnectorProperties.HEDGING_DELAY, Integer.class))
+                .filter(delay -> delay >= 0)
+                .map(delay -> RequestHedger.fixed(Duration.ofMillis(delay)))
+                .or(() -> Optional.ofNullable(ClientProperties.getValue(configuration.getProperties(), HttpClientConnectorProperties.HEDGING, Boolean.class))
+                        .filter(Boolean::booleanValue)
+                        .map(enabled -> RequestHedger.adaptive()))
+                .orElse(null);
+        this.concurrencyLimiter = Optional.of(configuration)
+                .map(c -> c.getProperty(HttpClientConnectorProperties.CONCURRENCY_LIMITER))
+                .map(AdaptiveConcurrencyLimiter.class::cast)
+                .orElse(null);
+        this.bodyPublishers = Optional.of(configuration)
+                .map(c -> c.getProperty(HttpClientConnectorProperties.BODY_PUBLISHER_REGISTRY))
+                .map(BodyPublisherRegistry.class::cast)
+                .orElse(BodyPublisherRegistry.DEFAULT);
+        this.warmUpResult = Optional.of(configuration)
+                .map(c -> c.getProperty(HttpClientConnectorProperties.WARM_UP_ORIGINS))
+                .map(ConnectionWarmUp::parseOrigins)
+                .filter(origins -> !origins.isEmpty())
+                .map(origins -> warmUp(
+                        origins,
+                        Optional.ofNullable(configuration.getProperty(HttpClientConnectorProperties.WARM_UP_METHOD))
+                                .map(String.class::cast)
+                                .orElse(ConnectionWarmUp.DEFAULT_METHOD),
+                        ConnectorSettings.getDurationTimeout(configuration, HttpClientConnectorProperties.WARM_UP_TIMEOUT)
+                                .orElse(ConnectionWarmUp.DEFAULT_TIMEOUT)))
+                .orElse(null);
     }
 
     static <R> R handleInterruption(Interruptable<R> interruptable) {
@@ -94,46 +257,125 @@ public class HttpClientConnector implements Connector {
         }
     }
 
-    static void connectStream(PipedOutputStream pipedOutputStream, PipedInputStream pipedInputStream) {
-        try {
-            pipedInputStream.connect(pipedOutputStream);
-        } catch (IOException e) {
-            throw new ProcessingException("The input stream cannot be connected to the output stream, " + e.getMessage(), e);
+    /**
+     * @return the settings of the configuration, they are only computed again when the requests refer to another configuration
+     */
+    ConnectorSettings settings(ClientRequest clientRequest) {
+        final Configuration configuration = clientRequest.getConfiguration();
+        ConnectorSettings current = settings;
+        if (current == null || !current.isFor(configuration)) {
+            current = ConnectorSettings.of(configuration);
+            settings = current;
         }
-    }
-
-    private Optional<Duration> getDurationTimeout(Configuration configuration, String property) {
-        return Optional.of(configuration)
-                .map(c -> c.getProperty(property))
-                .map(Integer.class::cast)
-                .map(Duration::ofMillis);
+        return current;
     }
 
     @Override
     public ClientResponse apply(ClientRequest clientRequest) {
-        final HttpResponse<InputStream> response = send(clientRequest, this::send);
-        return toJerseyResponse(clientRequest, response);
+        final RequestDeadline deadline = startDeadline(clientRequest);
+        final ExchangeObserver observer = ExchangeObserver.of(listenerFactory, clientRequest);
+        final HttpResponse.BodyHandler<InputStream> handler = bodyHandler(clientRequest, HttpResponse.BodyHandlers.ofInputStream());
+        final HttpResponse.BodyHandler<InputStream> bodyHandler = observer == null ? handler : observer.bodyHandler(handler);
+        final Function<HttpRequest, CompletableFuture<HttpResponse<InputStream>>> sender = bypassesSharedPaths(clientRequest)
+                ? request -> sendExclusive(request, bodyHandler)
+                : request -> sendAsync(request, bodyHandler);
+        final HttpResponse<InputStream> response = waitForResponse(send(clientRequest, clientRequest.getProperty(HttpClientConnectorProperties.CANCELLATION_SIGNAL) == null
+                ? sender
+                : cancellation(clientRequest).sender(sender), observer, deadline));
+        return toJerseyResponse(clientRequest, response, observer, deadline);
     }
 
-    HttpResponse<InputStream> send(HttpRequest request) {
+    /**
+     * @return the handler delivering the lines to the {@link HttpClientConnectorProperties#LINE_SUBSCRIBER} or writing the body to the
+     * {@link HttpClientConnectorProperties#DOWNLOAD_FILE} of the request, if any, or else the given handler
+     */
+    private static HttpResponse.BodyHandler<InputStream> bodyHandler(ClientRequest clientRequest, HttpResponse.BodyHandler<InputStream> handler) {
+        return LineStreaming.subscriber(clientRequest)
+                .map(subscriber -> LineStreaming.handler(subscriber, handler))
+                .or(() -> FileDownload.target(clientRequest).map(target -> FileDownload.handler(target, handler)))
+                .orElse(handler);
+    }
+
+    private static boolean isStreamingLines(ClientRequest clientRequest) {
+        return clientRequest.getProperty(HttpClientConnectorProperties.LINE_SUBSCRIBER) != null;
+    }
+
+    /**
+     * A stream of lines can last forever and a downloaded file can be larger than the memory, they are neither cached, coalesced nor hedged,
+     * which would collect the body in memory, or deliver the lines or write the file twice.
+     */
+    private static boolean bypassesSharedPaths(ClientRequest clientRequest) {
+        return isStreamingLines(clientRequest) || clientRequest.getProperty(HttpClientConnectorProperties.DOWNLOAD_FILE) != null;
+    }
+
+    /**
+     * @return the cancellation of the exchange of the request, it is also cancelled once the {@link HttpClientConnectorProperties#CANCELLATION_SIGNAL} completes
+     */
+    private static ExchangeCancellation cancellation(ClientRequest clientRequest) {
+        final ExchangeCancellation cancellation = new ExchangeCancellation();
+        Optional.ofNullable(clientRequest.getProperty(HttpClientConnectorProperties.CANCELLATION_SIGNAL))
+                .map(signal -> (CompletionStage<?>) signal)
+                .ifPresent(signal -> signal.whenComplete((value, throwable) -> cancellation.cancel()));
+        return cancellation;
+    }
+
+    /**
+     * @return the deadline of the request started now or {@code null} when the request has no deadline
+     */
+    private RequestDeadline startDeadline(ClientRequest clientRequest) {
+        return settings(clientRequest).requestDeadline(clientRequest).map(RequestDeadline::start).orElse(null);
+    }
+
+    /**
+     * Waits for the response like {@link HttpClient#send(HttpRequest, HttpResponse.BodyHandler)} does, the exchange is cancelled when the waiting thread is interrupted.
+     */
+    static HttpResponse<InputStream> waitForResponse(CompletableFuture<HttpResponse<InputStream>> responseFuture) {
         return handleInterruption(() -> {
             try {
-                return getHttpClient().send(request, HttpResponse.BodyHandlers.ofInputStream());
-            } catch (IOException e) {
-                throw new ProcessingException("The HTTP sending process failed with error, " + e.getMessage(), e);
+                return responseFuture.get();
+            } catch (InterruptedException e) {
+                responseFuture.cancel(true);
+                throw e;
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof ConcurrencyLimitExceededException) {
+                    // The request was not sent, the rejection is reported as is so that it can be told apart from the sending failures
+                    throw (ConcurrencyLimitExceededException) cause;
+                }
+                throw new ProcessingException("The HTTP sending process failed with error, " + cause.getMessage(), cause);
+            } catch (CancellationException e) {
+                throw new ProcessingException("The HTTP exchange was cancelled", e);
             }
         });
     }
 
-    private ClientResponse toJerseyResponse(ClientRequest clientRequest, HttpResponse<InputStream> inputStreamHttpResponse) {
-        final Response.StatusType responseStatus = Statuses.from(inputStreamHttpResponse.statusCode());
-        final ClientResponse jerseyResponse = new ClientResponse(responseStatus, clientRequest);
-        final var headers = inputStreamHttpResponse.headers();
+    ClientResponse toJerseyResponse(ClientRequest clientRequest, HttpResponse<InputStream> inputStreamHttpResponse) {
+        return toJerseyResponse(clientRequest, inputStreamHttpResponse, null, null);
+    }
 
-        final var contentLengthHeader = headers.firstValueAsLong("content-length");
-        if ((contentLengthHeader.isEmpty() || contentLengthHeader.getAsLong() > 0) && inputStreamHttpResponse.statusCode() != Response.Status.NO_CONTENT.getStatusCode()) {
-            final InputStream entityStream = inputStreamHttpResponse.body();
-            jerseyResponse.setEntityStream(entityStream);
+    private ClientResponse toJerseyResponse(ClientRequest clientRequest, HttpResponse<InputStream> inputStreamHttpResponse, ExchangeObserver observer, RequestDeadline deadline) {
+        final Response.StatusType responseStatus = Statuses.from(inputStreamHttpResponse.statusCode());
+        final ConnectorSettings connectorSettings = settings(clientRequest);
+        final Optional<String> contentEncoding = connectorSettings.responseDecompression(clientRequest)
+                ? ContentCoding.decodableEncoding(inputStreamHttpResponse.headers())
+                : Optional.empty();
+        // The decoded entity has neither the coding nor the length of the received body
+        final var headers = contentEncoding.isPresent() ? ContentCoding.decodedHeaders(inputStreamHttpResponse.headers()) : inputStreamHttpResponse.headers();
+        final boolean lazyHeaders = connectorSettings.lazyResponseHeaders(clientRequest);
+        final ClientResponse jerseyResponse = lazyHeaders
+                ? new ClientResponse(clientRequest, new OutboundJaxrsResponse(responseStatus, new HttpHeadersMessageContext(clientRequest.getConfiguration(), headers)))
+                : new ClientResponse(responseStatus, clientRequest);
+
+        final var contentLengthHeader = inputStreamHttpResponse.headers().firstValueAsLong("content-length");
+        // The lines of a successful response are delivered to the line subscriber, the response has no entity
+        final boolean streamedLines = isStreamingLines(clientRequest) && inputStreamHttpResponse.statusCode() / 100 == 2;
+        if ((contentLengthHeader.isEmpty() || contentLengthHeader.getAsLong() > 0) && inputStreamHttpResponse.statusCode() != Response.Status.NO_CONTENT.getStatusCode() && !streamedLines) {
+            final InputStream receivedBody = connectorSettings.readIdleTimeout(clientRequest)
+                    .<InputStream>map(timeout -> IdleTimeoutInputStream.of(inputStreamHttpResponse.body(), timeout))
+                    .orElseGet(inputStreamHttpResponse::body);
+            final InputStream body = deadline == null ? receivedBody : deadline.entityStream(receivedBody);
+            final InputStream entityStream = contentEncoding.isPresent() ? ContentCoding.decode(contentEncoding.get(), body) : body;
+            jerseyResponse.setEntityStream(observer == null ? entityStream : observer.entityStream(entityStream));
         } else {
             //noinspection EmptyTryBlock
             try (var ignored = inputStreamHttpResponse.body()) {
@@ -141,37 +383,139 @@ public class HttpClientConnector implements Connector {
             } catch (IOException e) {
                 // ignored exception since stream is not used
             }
+            if (observer != null) {
+                observer.bodyClosed();
+            }
+            if (deadline != null) {
+                deadline.complete();
+            }
+        }
+        if (!lazyHeaders) {
+            headers.map().forEach((name, values) -> values.forEach(value -> jerseyResponse.header(name, value)));
         }
-        headers.map().forEach((name, values) -> values.forEach(value -> jerseyResponse.header(name, value)));
         return jerseyResponse;
     }
 
     @Override
     public Future<?> apply(ClientRequest clientRequest, AsyncConnectorCallback asyncConnectorCallback) {
-        final CompletableFuture<HttpResponse<InputStream>> httpResponseCompletableFuture = send(clientRequest, this::getSendAsync);
-        return toJerseyResponseWithCallback(clientRequest, httpResponseCompletableFuture, asyncConnectorCallback);
+        final RequestDeadline deadline = startDeadline(clientRequest);
+        final ExchangeObserver observer = ExchangeObserver.of(listenerFactory, clientRequest);
+        final int asyncBodyBufferSize = settings(clientRequest).asyncBodyBufferSize(clientRequest);
+        final HttpResponse.BodyHandler<InputStream> handler = bodyHandler(clientRequest, asyncBodyBufferSize > 0 ? BufferingBodySubscriber.handler(asyncBodyBufferSize) : HttpResponse.BodyHandlers.ofInputStream());
+        final HttpResponse.BodyHandler<InputStream> bodyHandler = observer == null ? handler : observer.bodyHandler(handler);
+        final ExchangeCancellation cancellation = cancellation(clientRequest);
+        final Function<HttpRequest, CompletableFuture<HttpResponse<InputStream>>> sender = bypassesSharedPaths(clientRequest)
+                ? request -> futureTimeout(request, sendExclusive(request, bodyHandler))
+                : request -> getSendAsync(request, bodyHandler);
+        final Supplier<CompletableFuture<HttpResponse<InputStream>>> sending = () -> send(clientRequest, cancellation.sender(sender), observer, deadline);
+        // The entity is written on a virtual thread so that the thread of the Jersey async executor is not blocked by the entity writer
+        final CompletableFuture<HttpResponse<InputStream>> httpResponseCompletableFuture = virtualThreadExecutor == null
+                ? sending.get()
+                : CompletableFuture.supplyAsync(sending, virtualThreadExecutor).thenCompose(Function.identity());
+        return cancellation.bind(toJerseyResponseWithCallback(clientRequest, httpResponseCompletableFuture, asyncConnectorCallback, observer, deadline));
+    }
+
+    private CompletableFuture<HttpResponse<InputStream>> sendAsync(HttpRequest request) {
+        return sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+    }
+
+    private CompletableFuture<HttpResponse<InputStream>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<InputStream> bodyHandler) {
+        if (responseCache != null) {
+            if (HttpResponseCache.isCacheable(request)) {
+                return responseCache.sendAsync(request, bodyHandler, this::sendShared);
+            }
+            if (HttpResponseCache.invalidates(request)) {
+                return invalidateCache(request, sendShared(request, bodyHandler));
+            }
+        }
+        return sendShared(request, bodyHandler);
+    }
+
+    /**
+     * Sends the request on its own exchange, the response is neither served from the cache nor shared with other requests.
+     */
+    private CompletableFuture<HttpResponse<InputStream>> sendExclusive(HttpRequest request, HttpResponse.BodyHandler<InputStream> bodyHandler) {
+        if (responseCache != null && HttpResponseCache.invalidates(request)) {
+            return invalidateCache(request, sendAttempt(request, bodyHandler));
+        }
+        return sendAttempt(request, bodyHandler);
+    }
+
+    private CompletableFuture<HttpResponse<InputStream>> invalidateCache(HttpRequest request, CompletableFuture<HttpResponse<InputStream>> httpCallFuture) {
+        httpCallFuture.thenAccept(response -> {
+            if (response.statusCode() < 400) {
+                responseCache.invalidate(request.uri());
+            }
+        });
+        return httpCallFuture;
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> sendShared(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        if (coalescer != null && RequestCoalescer.isCoalescable(request)) {
+            return coalescer.sendAsync(request, bodyHandler, sharedRequest -> sendToClient(sharedRequest, HttpResponse.BodyHandlers.ofByteArray()));
+        }
+        return sendToClient(request, bodyHandler);
     }
 
-    private CompletableFuture<HttpResponse<InputStream>> getSendAsync(HttpRequest request) {
-        final var httpResponseCompletableFuture = getHttpClient().sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
-        return futureTimeout(request, httpResponseCompletableFuture);
+    private <T> CompletableFuture<HttpResponse<T>> sendToClient(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        if (hedger != null && RequestHedger.isHedgeable(request)) {
+            return hedger.sendAsync(request, bodyHandler, this::sendAttempt);
+        }
+        return sendAttempt(request, bodyHandler);
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> sendAttempt(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        if (concurrencyLimiter != null) {
+            return concurrencyLimiter.sendAsync(request, limitedRequest -> sendToHttpClient(limitedRequest, bodyHandler));
+        }
+        return sendToHttpClient(request, bodyHandler);
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> sendToHttpClient(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        return httpClientPool == null ? getHttpClient().sendAsync(request, bodyHandler) : httpClientPool.sendAsync(request, bodyHandler);
+    }
+
+    private CompletableFuture<HttpResponse<InputStream>> getSendAsync(HttpRequest request, HttpResponse.BodyHandler<InputStream> bodyHandler) {
+        return futureTimeout(request, sendAsync(request, bodyHandler));
     }
 
     private static <T> CompletableFuture<T> futureTimeout(HttpRequest request, CompletableFuture<T> future) {
         return request.timeout().map(readTimeout -> future.orTimeout(readTimeout.toMillis() + 100, TimeUnit.MILLISECONDS)).orElse(future);
     }
 
-    private <R> R send(ClientRequest clientRequest, Function<HttpRequest, R> sender) {
+    private CompletableFuture<HttpResponse<InputStream>> send(ClientRequest clientRequest, Function<HttpRequest, CompletableFuture<HttpResponse<InputStream>>> sender, ExchangeObserver observer, RequestDeadline deadline) {
+        final Function<HttpRequest, CompletableFuture<HttpResponse<InputStream>>> boundSender = deadline == null ? sender : deadline.sender(sender);
+        if (observer != null) {
+            observer.requestBuildStarted();
+        }
+        try {
+            return buildAndSend(clientRequest, observer == null ? boundSender : observer.sender(boundSender), observer);
+        } catch (RuntimeException e) {
+            if (observer != null) {
+                observer.failed(e);
+            }
+            if (deadline != null) {
+                deadline.complete();
+            }
+            throw e;
+        }
+    }
+
+    private CompletableFuture<HttpResponse<InputStream>> buildAndSend(ClientRequest clientRequest, Function<HttpRequest, CompletableFuture<HttpResponse<InputStream>>> sender, ExchangeObserver observer) {
         final HttpRequest.Builder requestBuilder = HttpRequest.newBuilder();
         clientRequest.getRequestHeaders().forEach((key, values) -> values.forEach(value -> requestBuilder.header(key, value)));
         requestBuilder.uri(clientRequest.getUri());
 
-        final var readTimeoutOptional = Optional.of(clientRequest)
-                .map(ClientRequest::getConfiguration)
-                .flatMap(configuration -> getDurationTimeout(configuration, READ_TIMEOUT));
-        readTimeoutOptional
+        final ConnectorSettings connectorSettings = settings(clientRequest);
+        connectorSettings.readTimeout()
                 .ifPresent(requestBuilder::timeout);
-
+        // A downloaded file holds the body as received, it is thus not requested compressed
+        if (connectorSettings.responseDecompression(clientRequest) && clientRequest.getHeaderString(ContentCoding.ACCEPT_ENCODING) == null
+                && clientRequest.getProperty(HttpClientConnectorProperties.DOWNLOAD_FILE) == null) {
+            requestBuilder.header(ContentCoding.ACCEPT_ENCODING, ContentCoding.ACCEPTED_ENCODINGS);
+        }
+        // An entity already encoded by the application is sent as is
+        final int compressionThreshold = clientRequest.getHeaderString(ContentCoding.CONTENT_ENCODING) == null ? connectorSettings.requestCompressionThreshold() : -1;
 
         final Object entity = clientRequest.getEntity();
 
@@ -181,37 +525,78 @@ public class HttpClientConnector implements Connector {
             return sender.apply(requestBuilder.build());
         }
 
-
-        if (entity instanceof byte[]) {
-            requestBuilder.method(method, HttpRequest.BodyPublishers.ofByteArray((byte[]) entity));
+        if (compressionThreshold >= 0 && entity instanceof byte[]) {
+            requestBuilder.method(method, HttpRequest.BodyPublishers.ofByteArray(compress(requestBuilder, (byte[]) entity, compressionThreshold)));
             return sender.apply(requestBuilder.build());
         }
-        if (entity instanceof String) {
-            requestBuilder.method(method, HttpRequest.BodyPublishers.ofString((String) entity));
+        if (compressionThreshold >= 0 && entity instanceof CharSequence) {
+            requestBuilder.method(method, HttpRequest.BodyPublishers.ofByteArray(compress(requestBuilder, entity.toString().getBytes(BodyPublisherRegistry.charset(clientRequest)), compressionThreshold)));
             return sender.apply(requestBuilder.build());
         }
+        // The entities having a publisher are sent by the HTTP client as they are, uncompressed, without being copied through the Jersey message body writers
+        final HttpRequest.BodyPublisher bodyPublisher;
+        try {
+            bodyPublisher = bodyPublishers.newPublisher(entity, clientRequest);
+        } catch (UncheckedIOException e) {
+            throw new ProcessingException("The sending process failed with I/O error, " + e.getCause().getMessage(), e.getCause());
+        }
+        if (bodyPublisher != null) {
+            requestBuilder.method(method, bodyPublisher);
+            final CompletableFuture<HttpResponse<InputStream>> httpCallFuture = sender.apply(requestBuilder.build());
+            if (entity instanceof InputStream) {
+                // The HTTP client only closes the stream read up to its end, not when the exchange ends before
+                httpCallFuture.whenComplete((response, throwable) -> closeEntityStream((InputStream) entity));
+            }
+            return httpCallFuture;
+        }
         clientRequest.enableBuffering();
 
-        final var chunkedEnabled = Optional.of(clientRequest)
-                .map(ClientRequest::getConfiguration)
-                .map(configuration -> configuration.getProperty(ClientProperties.REQUEST_ENTITY_PROCESSING))
-                .map(String.class::cast)
-                .filter("CHUNKED"::equals)
-                .isPresent();
-        if (chunkedEnabled) {
-            return streamRequestBody(clientRequest, requestBuilder, sender, method);
+        if (connectorSettings.chunked()) {
+            if (compressionThreshold >= 0) {
+                return streamCompressedRequestBody(clientRequest, requestBuilder, sender, method, observer, compressionThreshold);
+            }
+            return streamRequestBody(clientRequest, requestBuilder, sender, method, observer);
         }
-        final var buffer = new AtomicReference<ByteArrayOutputStream>();
+        final var buffer = new AtomicReference<SegmentedBuffer>();
+
+        if (compressionThreshold >= 0) {
+            final AtomicBoolean compressed = new AtomicBoolean();
+            clientRequest.setStreamProvider(size -> new CompressingOutputStream(compressionThreshold, gzip -> {
+                compressed.set(gzip);
+                return buffer.updateAndGet(ignored -> new SegmentedBuffer(size, segmentPool));
+            }));
+            writeEntity(clientRequest, NO_OP, observer);
+            if (compressed.get()) {
+                requestBuilder.header(ContentCoding.CONTENT_ENCODING, ContentCoding.GZIP);
+            }
+        } else {
+            clientRequest.setStreamProvider(size -> buffer.updateAndGet(ignored -> new SegmentedBuffer(size, segmentPool)));
+            writeEntity(clientRequest, NO_OP, observer);
+        }
+        final SegmentedBuffer segmentedBuffer = buffer.get();
+        final HttpRequest httpRequest = requestBuilder.method(method, segmentedBuffer.toBodyPublisher()).build();
+        final CompletableFuture<HttpResponse<InputStream>> httpCallFuture = sender.apply(httpRequest);
+        // The segments are only returned to the pool once the HTTP client does not publish them anymore.
+        httpCallFuture.whenComplete((response, throwable) -> segmentedBuffer.release());
+        return httpCallFuture;
+    }
 
-        clientRequest.setStreamProvider(size -> size > 0 ? buffer.updateAndGet(ignored -> new ByteArrayOutputStream(size)) : buffer.updateAndGet(ignored -> new ByteArrayOutputStream()));
-        writeEntity(clientRequest, NO_OP);
-        final HttpRequest httpRequest = requestBuilder.method(method, HttpRequest.BodyPublishers.ofByteArray(buffer.get().toByteArray())).build();
-        return sender.apply(httpRequest);
+    private static void closeEntityStream(InputStream entityStream) {
+        try {
+            entityStream.close();
+        } catch (IOException e) {
+            // The entity is not used anymore
+        }
     }
 
+    CompletableFuture<ClientResponse> toJerseyResponseWithCallback(ClientRequest clientRequest, CompletableFuture<HttpResponse<InputStream>> inputStreamHttpResponseFuture, AsyncConnectorCallback asyncConnectorCallback) {
+        return toJerseyResponseWithCallback(clientRequest, inputStreamHttpResponseFuture, asyncConnectorCallback, null, null);
+    }
 
-    Future<ClientResponse> toJerseyResponseWithCallback(ClientRequest clientRequest, CompletableFuture<HttpResponse<InputStream>> inputStreamHttpResponseFuture, AsyncConnectorCallback asyncConnectorCallback) {
-        final CompletableFuture<ClientResponse> clientResponseCompletableFuture = inputStreamHttpResponseFuture.thenApply(inputStreamHttpResponse -> toJerseyResponse(clientRequest, inputStreamHttpResponse));
+    private CompletableFuture<ClientResponse> toJerseyResponseWithCallback(ClientRequest clientRequest, CompletableFuture<HttpResponse<InputStream>> inputStreamHttpResponseFuture, AsyncConnectorCallback asyncConnectorCallback, ExchangeObserver observer, RequestDeadline deadline) {
+        final CompletableFuture<ClientResponse> clientResponseCompletableFuture = ExchangeCancellation.propagate(
+                inputStreamHttpResponseFuture.thenApply(inputStreamHttpResponse -> toJerseyResponse(clientRequest, inputStreamHttpResponse, observer, deadline)),
+                inputStreamHttpResponseFuture);
         clientResponseCompletableFuture.whenComplete((response, cause) -> {
             if (cause == null) {
                 asyncConnectorCallback.response(response);
@@ -225,45 +610,140 @@ public class HttpClientConnector implements Connector {
         return clientResponseCompletableFuture;
     }
 
-    <R> R streamRequestBody(ClientRequest clientRequest, HttpRequest.Builder requestBuilder, Function<HttpRequest, R> sender, String method) {
-        @SuppressWarnings("squid:S2095") // The stream cannot be closed here and is closed in Jersey client.
-        final PipedOutputStream pipedOutputStream = new PipedOutputStream();
-        @SuppressWarnings("squid:S2095") // The stream cannot be closed here and is closed in Jersey client.
-        final PipedInputStream pipedInputStream = new PipedInputStream();
-        connectStream(pipedOutputStream, pipedInputStream);
-        clientRequest.setStreamProvider(contentLength -> pipedOutputStream);
-
-        final HttpRequest httpRequest = requestBuilder.method(method, HttpRequest.BodyPublishers.ofInputStream(() -> pipedInputStream)).build();
-
-        final CompletableFuture<R> httpCallFuture = supplyAsync(httpRequest, () -> sender.apply(httpRequest));
-
-
-        CompletableFuture<Void> sendingRequestFuture = supplyAsync(httpRequest, () -> writeEntity(clientRequest, () -> httpCallFuture.cancel(true)));
+    /**
+     * Sends the request with a body published while the entity is written.
+     * The exchange is started before writing the entity so that the entity writer only waits for the demand of the HTTP client.
+     */
+    CompletableFuture<HttpResponse<InputStream>> streamRequestBody(ClientRequest clientRequest, HttpRequest.Builder requestBuilder, Function<HttpRequest, CompletableFuture<HttpResponse<InputStream>>> sender, String method, ExchangeObserver observer) {
+        final int chunkSize = settings(clientRequest).chunkSize();
+        @SuppressWarnings("squid:S2095") // The stream is closed once the entity is written.
+        final OutputStreamPublisher publisher = new OutputStreamPublisher(chunkSize);
+        clientRequest.setStreamProvider(contentLength -> publisher);
+
+        final CompletableFuture<HttpResponse<InputStream>> httpCallFuture = dispatchStream(requestBuilder, sender, method, publisher);
+
+        writeEntity(clientRequest, exception -> {
+            publisher.abort(exception);
+            httpCallFuture.cancel(true);
+        }, observer);
+        return httpCallFuture;
+    }
 
-        return handleInterruption(() -> {
+    /**
+     * Sends the request with a body published while the entity is written and compressed once it exceeds the threshold.
+     * The exchange is only started once the first bytes decide whether the entity is compressed, since the {@code Content-Encoding} header is sent first.
+     */
+    private CompletableFuture<HttpResponse<InputStream>> streamCompressedRequestBody(ClientRequest clientRequest, HttpRequest.Builder requestBuilder, Function<HttpRequest, CompletableFuture<HttpResponse<InputStream>>> sender, String method, ExchangeObserver observer, int compressionThreshold) {
+        final int chunkSize = settings(clientRequest).chunkSize();
+        @SuppressWarnings("squid:S2095") // The stream is closed once the entity is written.
+        final OutputStreamPublisher publisher = new OutputStreamPublisher(chunkSize);
+        final CompletableFuture<HttpResponse<InputStream>> httpCallFuture = new CompletableFuture<>();
+        clientRequest.setStreamProvider(contentLength -> new CompressingOutputStream(compressionThreshold, compressed -> {
+            if (compressed) {
+                requestBuilder.header(ContentCoding.CONTENT_ENCODING, ContentCoding.GZIP);
+            }
+            final CompletableFuture<HttpResponse<InputStream>> exchange;
             try {
-                return sendingRequestFuture.thenCombine(httpCallFuture, (aVoid, inputStreamHttpResponse) -> inputStreamHttpResponse).get();
-            } catch (ExecutionException e) {
-                throw new ProcessingException(e);
+                exchange = dispatchStream(requestBuilder, sender, method, publisher);
+            } catch (RuntimeException e) {
+                httpCallFuture.completeExceptionally(e);
+                throw new IOException(e.getMessage(), e);
             }
-        });
+            exchange.whenComplete((response, throwable) -> {
+                if (throwable == null) {
+                    httpCallFuture.complete(response);
+                } else {
+                    httpCallFuture.completeExceptionally(throwable);
+                }
+            });
+            httpCallFuture.whenComplete((response, throwable) -> {
+                if (httpCallFuture.isCancelled()) {
+                    exchange.cancel(true);
+                }
+            });
+            return publisher;
+        }));
+
+        writeEntity(clientRequest, exception -> {
+            publisher.abort(exception);
+            httpCallFuture.cancel(true);
+        }, observer);
+        return httpCallFuture;
+    }
 
+    private static CompletableFuture<HttpResponse<InputStream>> dispatchStream(HttpRequest.Builder requestBuilder, Function<HttpRequest, CompletableFuture<HttpResponse<InputStream>>> sender, String method, OutputStreamPublisher publisher) {
+        final HttpRequest httpRequest = requestBuilder.method(method, HttpRequest.BodyPublishers.fromPublisher(publisher)).build();
+        final CompletableFuture<HttpResponse<InputStream>> httpCallFuture = sender.apply(httpRequest);
+        // The exchange can complete before the whole entity is consumed (e.g. failure or early response), the pending writes are then released.
+        // A cancelled exchange also fails the following writes so that the entity writer stops.
+        httpCallFuture.whenComplete((response, throwable) -> {
+            final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+            if (cause instanceof CancellationException) {
+                publisher.abort(cause);
+            } else {
+                publisher.cancel();
+            }
+        });
+        return httpCallFuture;
     }
 
-    private <T> CompletableFuture<T> supplyAsync(HttpRequest httpRequest, Supplier<T> entityWriter) {
-        return futureTimeout(httpRequest, getHttpClient().executor().map(executor -> CompletableFuture.supplyAsync(entityWriter, executor)).orElseGet(() -> CompletableFuture.supplyAsync(entityWriter)));
+    /**
+     * @return the bytes compressed with gzip when they exceed the threshold, the {@code Content-Encoding} header is then added to the request
+     */
+    private static byte[] compress(HttpRequest.Builder requestBuilder, byte[] bytes, int compressionThreshold) {
+        if (compressionThreshold < 0 || bytes.length <= compressionThreshold) {
+            return bytes;
+        }
+        requestBuilder.header(ContentCoding.CONTENT_ENCODING, ContentCoding.GZIP);
+        return ContentCoding.gzip(bytes);
     }
 
-    private static Void writeEntity(ClientRequest clientRequest, Runnable onError) {
-        try (var ignoredOnlyForClose = clientRequest.getEntityStream()) {
+    private static Void writeEntity(ClientRequest clientRequest, Consumer<IOException> onError, ExchangeObserver observer) {
+        final OutputStream entityStream = clientRequest.getEntityStream();
+        try {
+            if (observer != null) {
+                observer.entitySerializationStarted();
+            }
             clientRequest.writeEntity();
+            if (entityStream != null) {
+                entityStream.close();
+            }
+            if (observer != null) {
+                observer.entitySerializationEnded();
+            }
             return null;
         } catch (IOException e) {
-            onError.run();
+            onError.accept(e);
             throw new ProcessingException("The sending process failed with I/O error, " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Opens the connections to the origins with a {@code HEAD} request, with every client of the pool when the connector uses one.
+     *
+     * @param origins the origins to warm up, e.g. {@code https://api.example.com}
+     * @param timeout the maximum time to wait for the responses, the requests still pending are then cancelled
+     * @return the outcome of the warm-up, it does not throw when an origin cannot be reached
+     */
+    public ConnectionWarmUp.Result warmUp(Collection<URI> origins, Duration timeout) {
+        return warmUp(origins, ConnectionWarmUp.DEFAULT_METHOD, timeout);
+    }
+
+    /**
+     * Opens the connections to the origins with a request of the given method, see {@link #warmUp(Collection, Duration)}.
+     */
+    public ConnectionWarmUp.Result warmUp(Collection<URI> origins, String method, Duration timeout) {
+        final List<HttpClient> clients = httpClientPool == null ? List.of(getHttpClient()) : httpClientPool.getClients();
+        return ConnectionWarmUp.warmUp(clients, origins, method, timeout);
+    }
+
+    /**
+     * @return the outcome of the warm-up done when the connector was created, when {@link HttpClientConnectorProperties#WARM_UP_ORIGINS} is set
+     */
+    public Optional<ConnectionWarmUp.Result> getWarmUpResult() {
+        return Optional.ofNullable(warmUpResult);
+    }
+
     public HttpClient getHttpClient() {
         return httpClientSupplier.get();
     }
@@ -275,11 +755,49 @@ public class HttpClientConnector implements Connector {
 
     @Override
     public void close() {
-        // Nothing to close
+        if (virtualThreadExecutor != null) {
+            virtualThreadExecutor.shutdown();
+        }
+        if (threadPoolExecutor != null) {
+            threadPoolExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Names the threads of the pool sized by {@link ClientProperties#ASYNC_THREADPOOL_SIZE}, they are daemon threads like the ones of the default executor of the HTTP client.
+     */
+    private static final class DaemonThreadFactory implements ThreadFactory {
+        private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+        private final String prefix = "HttpClientConnector-" + POOL_COUNTER.incrementAndGet() + "-worker-";
+        private final AtomicInteger threadCounter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            final Thread thread = new Thread(runnable, prefix + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
     }
 
     interface Interruptable<R> {
         R execute() throws InterruptedException;
     }
 
+    /**
+     * Message context handing the lazy view of the response headers to {@link ClientResponse#ClientResponse(ClientRequest, Response)} which uses it as is.
+     */
+    private static final class HttpHeadersMessageContext extends OutboundMessageContext {
+        private final MultivaluedMap<String, String> headers;
+
+        private HttpHeadersMessageContext(Configuration configuration, HttpHeaders headers) {
+            super(configuration);
+            this.headers = new HttpHeadersMultivaluedMap(headers);
+        }
+
+        @Override
+        public MultivaluedMap<String, String> getStringHeaders() {
+            return headers;
+        }
+    }
+
 }
@@ -0,0 +1,97 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import org.glassfish.jersey.client.ClientRequest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+
+/**
+ * Listener of the phases of a single exchange sent by {@link HttpClientConnector}.
+ * <p>
+ * All the timestamps are given by {@link System#nanoTime()}, they can only be compared with each other.
+ * The methods are called on the threads running the phases (caller thread, entity writer, HTTP client executor or entity reader),
+ * they must be fast and must not throw. When no {@link Factory} is registered, no listener method is called and no timestamp is taken,
+ * unless the JDK Flight Recorder event of the exchanges is enabled, see {@link HttpClientConnectorProperties#LISTENER_FACTORY}.
+ * <p>
+ * A factory can be registered with the {@link HttpClientConnectorProperties#LISTENER_FACTORY} property or with
+ * {@link HttpClientConnector#HttpClientConnector(HttpClient, Factory)}.
+ */
+public interface HttpClientConnectorListener {
+
+    /**
+     * Creates the listener of each exchange.
+     */
+    @FunctionalInterface
+    interface Factory {
+        /**
+         * @param clientRequest the request about to be sent
+         * @return the listener of the exchange or {@code null} to not observe this exchange, e.g. when sampling
+         */
+        HttpClientConnectorListener newListener(ClientRequest clientRequest);
+    }
+
+    /**
+     * The connector starts building the HTTP request.
+     */
+    default void requestBuildStarted(long nanoTime) {
+    }
+
+    /**
+     * The Jersey message body writers start serializing the entity.
+     */
+    default void entitySerializationStarted(long nanoTime) {
+    }
+
+    /**
+     * The entity is serialized, for a chunked entity, it is also fully handed over to the HTTP client.
+     */
+    default void entitySerializationEnded(long nanoTime) {
+    }
+
+    /**
+     * The request is handed over to the HTTP client, for a chunked entity, this happens before the entity serialization.
+     */
+    default void sendDispatched(HttpRequest request, long nanoTime) {
+    }
+
+    /**
+     * The status line and the headers of the response are received.
+     *
+     * @param version the version of the HTTP protocol negotiated for the exchange
+     */
+    default void responseHeadersReceived(int statusCode, HttpClient.Version version, long nanoTime) {
+    }
+
+    /**
+     * The end of the response body is read.
+     *
+     * @param bytesRead the number of bytes of the body read
+     */
+    default void bodyConsumed(long bytesRead, long nanoTime) {
+    }
+
+    /**
+     * The response body is closed, either after being consumed or before.
+     *
+     * @param bytesRead the number of bytes of the body read before closing it
+     */
+    default void bodyClosed(long bytesRead, long nanoTime) {
+    }
+
+    /**
+     * Reading the response body failed, e.g. the connection was reset or the {@link HttpClientConnectorProperties#READ_IDLE_TIMEOUT} expired,
+     * the body is thus truncated. By default, the failure is notified to {@link #failed(Throwable, long)}.
+     *
+     * @param bytesRead the number of bytes of the body read before the failure
+     */
+    default void bodyFailed(Throwable cause, long bytesRead, long nanoTime) {
+        failed(cause, nanoTime);
+    }
+
+    /**
+     * The exchange failed, a timeout is notified with a {@link java.net.http.HttpTimeoutException} or a {@link java.util.concurrent.TimeoutException}
+     * possibly wrapped in a {@link java.util.concurrent.CompletionException} or a {@link jakarta.ws.rs.ProcessingException}.
+     */
+    default void failed(Throwable cause, long nanoTime) {
+    }
+}
@@ -0,0 +1,335 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+/**
+ * Configuration properties specific to {@link HttpClientConnector}, they complement the generic {@link org.glassfish.jersey.client.ClientProperties}.
+ */
+public final class HttpClientConnectorProperties {
+
+    /**
+     * Maximum number of 64 KiB segments kept in a pool to buffer request entities when the entity processing is buffered.
+     * <p>
+     * The value MUST be an instance convertible to {@link java.lang.Integer}. When not set, the segments are not pooled
+     * and are left to the garbage collector once the request is sent.
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String BUFFER_POOL_SIZE = "jersey.config.client.httpclient.bufferPoolSize";
+
+    /**
+     * Exposes the response headers through a lazy view of the {@link java.net.http.HttpHeaders} instead of copying every header value in the Jersey response.
+     * <p>
+     * The value MUST be an instance convertible to {@link java.lang.Boolean}, it can be set on the client configuration or per request.
+     * The default value is {@code false}. When enabled, the headers are only copied if they are modified, e.g. by a response filter,
+     * and the value lists read before such a modification are immutable.
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String LAZY_RESPONSE_HEADERS = "jersey.config.client.httpclient.lazyResponseHeaders";
+
+    /**
+     * Maximum size in bytes of the response bodies collected in memory before the asynchronous invocation callbacks are notified.
+     * <p>
+     * The value MUST be an instance convertible to {@link java.lang.Integer}, it can be set on the client configuration or per request.
+     * When set, the body of an asynchronous invocation is received without blocking any thread and the callback is only notified once
+     * the whole body is available, reading the entity in the callback then never blocks. A body larger than the limit is streamed as
+     * when the property is not set. By default, the body is always streamed.
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String ASYNC_BODY_BUFFER_SIZE = "jersey.config.client.httpclient.asyncBodyBufferSize";
+
+    /**
+     * Runs the blocking work of the connector on virtual threads, it requires JDK 21 or later.
+     * <p>
+     * The value MUST be an instance convertible to {@link java.lang.Boolean}. When enabled, the {@link java.net.http.HttpClient} built by the connector
+     * uses a virtual thread per task executor, so the response hand-off and the dependent actions run on virtual threads,
+     * and the entities of the asynchronous invocations are written on a virtual thread.
+     * The default value is {@code false}, the property is ignored on a runtime without virtual threads.
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String VIRTUAL_THREADS = "jersey.config.client.httpclient.virtualThreads";
+
+    /**
+     * Executor of the {@link java.net.http.HttpClient} built by the connector, it runs the response hand-off and the dependent actions.
+     * <p>
+     * The value MUST be an instance of {@link java.util.concurrent.ExecutorService}, it is not shut down by the connector.
+     * It takes precedence over {@link #VIRTUAL_THREADS} and {@link org.glassfish.jersey.client.ClientProperties#ASYNC_THREADPOOL_SIZE},
+     * the latter creates a fixed thread pool of that size owned by the connector. By default, the client uses its own cached thread pool.
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String EXECUTOR_SERVICE = "jersey.config.client.httpclient.executorService";
+
+    /**
+     * Preferred HTTP version of the {@link java.net.http.HttpClient} built by the connector.
+     * <p>
+     * The value MUST be an instance of {@link java.net.http.HttpClient.Version} or its name, {@code HTTP_1_1} or {@code HTTP_2}.
+     * The default value is {@code HTTP_2}, the client falls back to HTTP/1.1 when the server does not support HTTP/2.
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String HTTP_VERSION = "jersey.config.client.httpclient.httpVersion";
+
+    /**
+     * Redirect policy of the {@link java.net.http.HttpClient} built by the connector.
+     * <p>
+     * The value MUST be an instance of {@link java.net.http.HttpClient.Redirect} or its name, {@code NEVER}, {@code NORMAL} or {@code ALWAYS}.
+     * It takes precedence over {@link org.glassfish.jersey.client.ClientProperties#FOLLOW_REDIRECTS} which is mapped to {@code NORMAL}
+     * when {@code true}, i.e. never from HTTPS to HTTP, and {@code NEVER} when {@code false}. The policy applies to the whole client,
+     * it cannot be overridden per request. The default value is {@code NEVER}.
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String REDIRECT = "jersey.config.client.httpclient.redirect";
+
+    /**
+     * Default priority of the HTTP/2 streams sent by the {@link java.net.http.HttpClient} built by the connector.
+     * <p>
+     * The value MUST be an instance convertible to {@link java.lang.Integer} between {@code 1} and {@code 256}. By default, the streams have no priority.
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String PRIORITY = "jersey.config.client.httpclient.priority";
+
+    /**
+     * Registry of the factories publishing the request entities straight to the {@link java.net.http.HttpClient}, without the Jersey message body writers.
+     * <p>
+     * The value MUST be an instance of {@link BodyPublisherRegistry}. By default, the built-in types of {@link BodyPublisherRegistry} are published,
+     * a registry is only needed to add the factories of other types, e.g. protobuf messages.
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String BODY_PUBLISHER_REGISTRY = "jersey.config.client.httpclient.bodyPublisherRegistry";
+
+    /**
+     * Number of {@link java.net.http.HttpClient} built by the connector to spread the requests over several connections to the same host.
+     * <p>
+     * The value MUST be an instance convertible to {@link java.lang.Integer}. The default value is {@code 1}, a single client.
+     * See {@link HttpClientPool}.
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String CLIENT_POOL_SIZE = "jersey.config.client.httpclient.clientPoolSize";
+
+    /**
+     * Selection of the client sending a request when {@link #CLIENT_POOL_SIZE} is greater than one.
+     * <p>
+     * The value MUST be an instance of {@link HttpClientPool.Selection} or its name, {@code ROUND_ROBIN} or {@code LEAST_IN_FLIGHT}.
+     * The default value is {@code LEAST_IN_FLIGHT}.
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String CLIENT_POOL_SELECTION = "jersey.config.client.httpclient.clientPoolSelection";
+
+    /**
+     * Factory of the listeners notified of the phases of each exchange, see {@link HttpClientConnectorListener}.
+     * <p>
+     * The value MUST be an instance of {@link HttpClientConnectorListener.Factory}. By default, there is no listener
+     * and the connector does not take any timestamp. The connector also records a JDK Flight Recorder event
+     * {@code com.github.nhenneaux.jersey.connector.httpclient.Exchange} for each exchange, it is disabled by default in the recording settings
+     * and only created when enabled.
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String LISTENER_FACTORY = "jersey.config.client.httpclient.listenerFactory";
+
+    /**
+     * Shares a single exchange between the identical GET and HEAD requests sent concurrently, e.g. many threads reading the same
+     * configuration after a cache expiry.
+     * <p>
+     * The value MUST be an instance convertible to {@link java.lang.Boolean}. The default value is {@code false}.
+     * The requests are identical when they have the same method, URI, values of the {@link #COALESCING_VARY_HEADERS} and values of the conditional
+     * and range headers, e.g. {@code If-None-Match} or {@code Range}.
+     * The shared response body is collected in memory and each request gets its own copy of it, so it should only be enabled
+     * for clients reading small bodies.
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String COALESCING = "jersey.config.client.httpclient.coalescing";
+
+    /**
+     * Comma-separated names of the request headers which must have the same values for two requests to share an exchange when {@link #COALESCING} is enabled.
+     * <p>
+     * The value MUST be an instance of {@link java.lang.String}. The default value is {@code Accept,Accept-Encoding,Accept-Language,Authorization,Cookie}
+     * so that the requests of different users are never shared.
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String COALESCING_VARY_HEADERS = "jersey.config.client.httpclient.coalescingVaryHeaders";
+
+    /**
+     * Maximum size in bytes of the responses kept in the private in-memory HTTP cache of the connector.
+     * <p>
+     * The value MUST be an instance convertible to {@link java.lang.Integer}. When not set, there is no cache.
+     * The responses to the GET requests are stored and revalidated following their {@code Cache-Control}, {@code Expires}, {@code ETag},
+     * {@code Last-Modified} and {@code Vary} headers. Only the bodies whose {@code Content-Length} fits in the cache are collected in memory,
+     * the other responses are streamed as usual. A stored response is only served to the requests with the same {@code Authorization}
+     * and {@code Cookie} headers, the responses to authorized requests are only stored when {@code public}, {@code s-maxage} or
+     * {@code must-revalidate}. See RFC 9111.
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String HTTP_CACHE_SIZE = "jersey.config.client.httpclient.httpCacheSize";
+
+    /**
+     * Requests compressed responses and decompresses them while they are read.
+     * <p>
+     * The value MUST be an instance convertible to {@link java.lang.Boolean}. The default value is {@code false}.
+     * When enabled, {@code Accept-Encoding: gzip, deflate} is sent unless the request already has an {@code Accept-Encoding} header.
+     * The gzip and deflate responses are decoded while the entity is read and exposed without their
+     * {@code Content-Encoding} and {@code Content-Length} headers. The value can be overridden per request.
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String RESPONSE_DECOMPRESSION = "jersey.config.client.httpclient.responseDecompression";
+
+    /**
+     * Size in bytes from which the request entities are compressed with gzip.
+     * <p>
+     * The value MUST be an instance convertible to {@link java.lang.Integer}. When not set, the entities are not compressed.
+     * The entities are sent with {@code Content-Encoding: gzip} once their size exceeds the threshold, the requests already
+     * having a {@code Content-Encoding} header are sent as is. With the chunked entity processing, the request is only
+     * dispatched once the threshold is exceeded or the entity is flushed or closed. The entities published by the
+     * {@link #BODY_PUBLISHER_REGISTRY}, except {@code byte[]} and {@link CharSequence}, are sent uncompressed.
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String REQUEST_COMPRESSION_THRESHOLD = "jersey.config.client.httpclient.requestCompressionThreshold";
+
+    /**
+     * Enables the hedging of the idempotent requests with a delay derived from the observed latencies.
+     * <p>
+     * The value MUST be an instance convertible to {@link java.lang.Boolean}. The default value is {@code false}.
+     * When the response headers of a GET, HEAD, OPTIONS, TRACE, PUT or DELETE request are not received within the 95th percentile
+     * of the latencies observed for the host, a second attempt is sent and the first response received wins, the other attempt is cancelled.
+     * The requests to a host are only hedged once 100 responses are observed. The requests with a chunked entity are never hedged
+     * since their entity cannot be sent twice.
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String HEDGING = "jersey.config.client.httpclient.hedging";
+
+    /**
+     * Fixed delay in milliseconds after which a second attempt of an idempotent request is sent, see {@link #HEDGING}.
+     * <p>
+     * The value MUST be an instance convertible to {@link java.lang.Integer}. When set, the hedging is enabled with this delay
+     * instead of the delay derived from the observed latencies.
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String HEDGING_DELAY = "jersey.config.client.httpclient.hedgingDelay";
+
+    /**
+     * Limiter of the requests in flight to each host, the limit adapts to the latencies and errors of the host.
+     * <p>
+     * The value MUST be an instance of {@link AdaptiveConcurrencyLimiter}. By default, the requests in flight are not limited.
+     * A request over the limit waits for a permit without blocking a thread or fails with a {@link ConcurrencyLimitExceededException}.
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String CONCURRENCY_LIMITER = "jersey.config.client.httpclient.concurrencyLimiter";
+
+    /**
+     * Total time in milliseconds allowed to a request, from the serialization of its entity to the end of its response body.
+     * <p>
+     * The value MUST be an instance convertible to {@link java.lang.Integer}, it can be set on the client configuration or per request.
+     * By default, there is no deadline. Unlike {@link org.glassfish.jersey.client.ClientProperties#READ_TIMEOUT} which only bounds the wait for
+     * the response headers, the deadline also covers the reading of the body. When it expires, the exchange is cancelled so that the HTTP/2 stream
+     * is reset or the HTTP/1.1 connection is closed, and the invocation or the next read of the entity fails with a {@link java.net.http.HttpTimeoutException}.
+     * The serialization of a buffered entity is not interrupted, the request is then not sent.
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String REQUEST_DEADLINE = "jersey.config.client.httpclient.requestDeadline";
+
+    /**
+     * Maximum time in milliseconds a read of the response body waits for the next bytes.
+     * <p>
+     * The value MUST be an instance convertible to {@link java.lang.Integer}, it can be set on the client configuration or per request.
+     * By default, there is no idle timeout. {@link org.glassfish.jersey.client.ClientProperties#READ_TIMEOUT} only bounds the wait for the response
+     * headers, a server stalling in the middle of the body would otherwise block the reading thread forever. Only the time spent blocked in a read is
+     * measured. When it expires, the exchange is cancelled so that the HTTP/2 stream is reset or the HTTP/1.1 connection is closed, and the read fails
+     * with a {@link java.net.http.HttpTimeoutException}.
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String READ_IDLE_TIMEOUT = "jersey.config.client.httpclient.readIdleTimeout";
+
+    /**
+     * File the body of a successful response is written to, e.g. to download a large artifact.
+     * <p>
+     * The value MUST be an instance of {@link java.nio.file.Path}, {@link java.io.File} or a path as {@link java.lang.String} and is set per request.
+     * The {@link java.net.http.HttpClient} writes the body to the file as it is received, there is no copy through an {@link java.io.InputStream}
+     * on the thread of the caller. The body is written to a temporary file in the same directory which replaces the target once complete, so a
+     * failed download does not leave a truncated target. The response is only returned once the body is downloaded, its entity then reads the file.
+     * The responses with a status other than 2xx are not written to the file, and the body is not requested compressed.
+     * The request is neither served from the HTTP cache, coalesced nor hedged, so the body is never collected in memory nor downloaded twice.
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String DOWNLOAD_FILE = "jersey.config.client.httpclient.downloadFile";
+
+    /**
+     * Subscriber of the lines of the response body, e.g. server-sent events or newline-delimited JSON.
+     * <p>
+     * The value MUST be an instance of {@link java.util.concurrent.Flow.Subscriber} of {@link java.lang.String} and is set per request.
+     * The lines are delivered as the body is received without blocking any thread, the body is only read from the server as fast as the
+     * subscriber requests lines, so thousands of long-lived streams can be consumed with the few threads of the {@link java.net.http.HttpClient}.
+     * The invocation completes as soon as the response headers are received, with an empty entity, and the stream is stopped by cancelling
+     * the subscription. The request is neither cached, coalesced nor hedged and {@link #REQUEST_DEADLINE} only bounds the wait for the headers.
+     * The lines are decoded with the charset of the {@code Content-Type}, UTF-8 by default. A response with a status other than 2xx
+     * is returned with its entity as usual and the subscriber is not subscribed.
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String LINE_SUBSCRIBER = "jersey.config.client.httpclient.lineSubscriber";
+
+    /**
+     * Signal cancelling the exchange of a request, the exchange is cancelled once the signal completes, normally or exceptionally.
+     * <p>
+     * The value MUST be an instance of {@link java.util.concurrent.CompletionStage} and is set per request. The future returned by
+     * {@link org.glassfish.jersey.client.spi.Connector#apply(org.glassfish.jersey.client.ClientRequest, org.glassfish.jersey.client.spi.AsyncConnectorCallback)}
+     * cancels the exchange as well, but the Jersey client runtime does not expose it, so cancelling the future of an
+     * {@link jakarta.ws.rs.client.AsyncInvoker} does not reach the connector. The cancelled exchange resets the HTTP/2 stream or closes the HTTP/1.1
+     * connection, the writing of a streamed entity then fails and the invocation fails with a {@link java.util.concurrent.CancellationException}.
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String CANCELLATION_SIGNAL = "jersey.config.client.httpclient.cancellationSignal";
+
+    /**
+     * Origins to which the connector opens the connections when it is created, so that the first requests do not pay for the connection set-up.
+     * <p>
+     * The value MUST be a comma-separated {@link java.lang.String} of URIs, e.g. {@code https://api.example.com,https://auth.example.com},
+     * or a {@link java.util.Collection} of {@link java.net.URI} or {@link java.lang.String}. By default, there is no warm-up.
+     * The connector is created with the runtime of the Jersey client, i.e. by its first request or by {@code ClientConfig#getClientExecutor()},
+     * and the outcome of the warm-up is then available with {@link HttpClientConnector#getWarmUpResult()}. See {@link ConnectionWarmUp}.
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String WARM_UP_ORIGINS = "jersey.config.client.httpclient.warmUpOrigins";
+
+    /**
+     * Maximum time in milliseconds the creation of the connector waits for the warm-up responses, see {@link #WARM_UP_ORIGINS}.
+     * <p>
+     * The value MUST be an instance convertible to {@link java.lang.Integer}. The default value is {@code 5000}.
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String WARM_UP_TIMEOUT = "jersey.config.client.httpclient.warmUpTimeout";
+
+    /**
+     * Method of the requests sent to warm up the connections, see {@link #WARM_UP_ORIGINS}.
+     * <p>
+     * The value MUST be an instance of {@link java.lang.String}. The default value is {@code HEAD}, {@code OPTIONS} can be used
+     * for the servers not answering to {@code HEAD} on the root path.
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String WARM_UP_METHOD = "jersey.config.client.httpclient.warmUpMethod";
+
+    private HttpClientConnectorProperties() {
+        // Constants only
+    }
+}
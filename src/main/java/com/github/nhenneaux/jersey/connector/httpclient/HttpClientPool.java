@@ -0,0 +1,130 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A fixed set of {@link HttpClient} spreading the requests to a host over several connections.
+ * <p>
+ * An HTTP/2 client multiplexes all the requests to a host over a single connection, served by a single selector thread and bounded by
+ * the maximum number of concurrent streams of the server. Each client of the pool has its own connections and selector thread.
+ * <p>
+ * To build a JAX-RS client with a pool of four clients, you can use the following.
+ * <pre>
+ * {@code
+ * var pool = new HttpClientPool(4, () -> HttpClient.newHttpClient(), HttpClientPool.Selection.LEAST_IN_FLIGHT);
+ * var client = ClientBuilder.newClient(new ClientConfig().connectorProvider((jaxRsClient, config) -> new HttpClientConnector(pool)))
+ * }</pre>
+ */
+public final class HttpClientPool {
+
+    /**
+     * Selection of the client sending a request.
+     */
+    public enum Selection {
+        /**
+         * The clients are used in turn.
+         */
+        ROUND_ROBIN,
+        /**
+         * The client with the fewest requests waiting for a response is used, the ties are broken in turn.
+         */
+        LEAST_IN_FLIGHT
+    }
+
+    private final List<HttpClient> clients;
+    private final Selection selection;
+    private final AtomicIntegerArray inFlight;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public HttpClientPool(List<HttpClient> clients, Selection selection) {
+        if (clients.isEmpty()) {
+            throw new IllegalArgumentException("The pool needs at least one client");
+        }
+        this.clients = List.copyOf(clients);
+        this.selection = Objects.requireNonNull(selection, "selection");
+        this.inFlight = new AtomicIntegerArray(clients.size());
+    }
+
+    public HttpClientPool(int size, Supplier<HttpClient> clientFactory, Selection selection) {
+        this(Stream.generate(clientFactory).limit(checkSize(size)).collect(Collectors.toList()), selection);
+    }
+
+    private static int checkSize(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("The pool size must be positive but was " + size);
+        }
+        return size;
+    }
+
+    /**
+     * @return the clients of the pool
+     */
+    public List<HttpClient> getClients() {
+        return clients;
+    }
+
+    public Selection getSelection() {
+        return selection;
+    }
+
+    /**
+     * @return the number of requests waiting for a response for each client of the pool
+     */
+    public int[] getInFlight() {
+        final int[] snapshot = new int[inFlight.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = inFlight.get(i);
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return the next client according to the selection, without accounting a request for it
+     */
+    HttpClient next() {
+        return clients.get(select());
+    }
+
+    <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        final int index = select();
+        inFlight.incrementAndGet(index);
+        final CompletableFuture<HttpResponse<T>> responseFuture;
+        try {
+            responseFuture = clients.get(index).sendAsync(request, bodyHandler);
+        } catch (RuntimeException e) {
+            inFlight.decrementAndGet(index);
+            throw e;
+        }
+        responseFuture.whenComplete((response, throwable) -> inFlight.decrementAndGet(index));
+        return responseFuture;
+    }
+
+    private int select() {
+        final int size = clients.size();
+        final int start = Math.floorMod(next.getAndIncrement(), size);
+        if (selection == Selection.ROUND_ROBIN || size == 1) {
+            return start;
+        }
+        int selected = start;
+        int fewest = inFlight.get(start);
+        for (int offset = 1; offset < size && fewest > 0; offset++) {
+            final int candidate = (start + offset) % size;
+            final int candidateInFlight = inFlight.get(candidate);
+            if (candidateInFlight < fewest) {
+                selected = candidate;
+                fewest = candidateInFlight;
+            }
+        }
+        return selected;
+    }
+}
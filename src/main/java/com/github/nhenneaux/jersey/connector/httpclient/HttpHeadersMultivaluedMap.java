@@ -0,0 +1,171 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import jakarta.ws.rs.core.MultivaluedMap;
+import org.glassfish.jersey.message.internal.HeaderUtils;
+
+import java.net.http.HttpHeaders;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Case-insensitive {@link MultivaluedMap} view of the immutable {@link HttpHeaders} of a response.
+ * <p>
+ * The headers are read from the JDK map without any copy, they are only copied in a mutable map on the first modification,
+ * e.g. when a response filter adds a header. The value lists returned before such a modification are immutable.
+ */
+final class HttpHeadersMultivaluedMap implements MultivaluedMap<String, String> {
+
+    private final Map<String, List<String>> headers;
+    private MultivaluedMap<String, String> copy;
+
+    HttpHeadersMultivaluedMap(HttpHeaders headers) {
+        // The JDK map is already sorted with a case-insensitive order
+        this.headers = headers.map();
+    }
+
+    private Map<String, List<String>> read() {
+        return copy == null ? headers : copy;
+    }
+
+    private MultivaluedMap<String, String> write() {
+        if (copy == null) {
+            final MultivaluedMap<String, String> mutableHeaders = HeaderUtils.createInbound();
+            headers.forEach((name, values) -> mutableHeaders.addAll(name, values));
+            copy = mutableHeaders;
+        }
+        return copy;
+    }
+
+    @Override
+    public String getFirst(String key) {
+        if (copy != null) {
+            return copy.getFirst(key);
+        }
+        final List<String> values = headers.get(key);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    @Override
+    public void putSingle(String key, String value) {
+        write().putSingle(key, value);
+    }
+
+    @Override
+    public void add(String key, String value) {
+        write().add(key, value);
+    }
+
+    @Override
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public final void addAll(String key, String... newValues) {
+        write().addAll(key, newValues);
+    }
+
+    @Override
+    public void addAll(String key, List<String> valueList) {
+        write().addAll(key, valueList);
+    }
+
+    @Override
+    public void addFirst(String key, String value) {
+        write().addFirst(key, value);
+    }
+
+    @Override
+    public boolean equalsIgnoreValueOrder(MultivaluedMap<String, String> otherMap) {
+        if (copy != null) {
+            return copy.equalsIgnoreValueOrder(otherMap);
+        }
+        if (otherMap == this) {
+            return true;
+        }
+        if (!headers.keySet().equals(otherMap.keySet())) {
+            return false;
+        }
+        for (Entry<String, List<String>> entry : headers.entrySet()) {
+            final List<String> otherValues = otherMap.get(entry.getKey());
+            if (otherValues == null || entry.getValue().size() != otherValues.size() || !otherValues.containsAll(entry.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return read().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return read().isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return read().containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return read().containsValue(value);
+    }
+
+    @Override
+    public List<String> get(Object key) {
+        return read().get(key);
+    }
+
+    @Override
+    public List<String> put(String key, List<String> value) {
+        return write().put(key, value);
+    }
+
+    @Override
+    public List<String> remove(Object key) {
+        return write().remove(key);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends List<String>> m) {
+        write().putAll(m);
+    }
+
+    @Override
+    public void clear() {
+        write().clear();
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return read().keySet();
+    }
+
+    @Override
+    public Collection<List<String>> values() {
+        return read().values();
+    }
+
+    @Override
+    public Set<Entry<String, List<String>>> entrySet() {
+        return read().entrySet();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return read().equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return read().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return read().toString();
+    }
+}
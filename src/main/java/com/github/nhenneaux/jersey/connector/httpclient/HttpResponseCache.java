@@ -0,0 +1,511 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Clock;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+/**
+ * Private in-memory HTTP cache of the responses to the GET requests following RFC 9111.
+ * <p>
+ * A response is stored when its status is cacheable by default, it is not {@code no-store}, it does not vary on all the headers ({@code Vary: *})
+ * and it has either an explicit freshness lifetime ({@code Cache-Control: max-age} or {@code Expires}) or a validator ({@code ETag} or {@code Last-Modified}).
+ * A fresh response is served from the cache, a stale one or a {@code no-cache} one is revalidated with a conditional request and served
+ * from the cache when the origin answers {@code 304 Not Modified}. The variants of a URI selected by the {@code Vary} header are stored together.
+ * No heuristic freshness is used and a stale response is never served.
+ * <p>
+ * The request directives {@code no-store}, {@code no-cache} and {@code max-age} are honoured, a successful unsafe request invalidates the entries of its URI.
+ * The response to a request with an {@code Authorization} header is only stored when it is explicitly shareable ({@code public}, {@code s-maxage}
+ * or {@code must-revalidate}), see RFC 9111 section 3.5. The stored responses are only served to the requests with the same {@code Authorization}
+ * and {@code Cookie} headers as the request they answered, so the response of one user is never served to another one.
+ * <p>
+ * Only the bodies whose {@code Content-Length} fits in the cache are collected in memory, the other responses are streamed to the body handler of the request.
+ * <p>
+ * The size of the bodies and headers kept is bounded, the URIs are evicted with a segmented LRU policy: a URI enters the probation segment,
+ * it is promoted to the protected segment, which holds at most 80% of the size, when it is hit again. The least recently used URI of the probation segment is evicted first,
+ * so that a scan of URIs read once does not evict the URIs read often.
+ */
+final class HttpResponseCache {
+
+    private static final Set<Integer> CACHEABLE_BY_DEFAULT = Set.of(200, 203, 204, 300, 301, 308, 404, 405, 410, 414, 501);
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+    private static final List<String> CREDENTIAL_HEADERS = List.of("authorization", "cookie");
+    private static final Set<String> NOT_UPDATED_BY_REVALIDATION = Set.of("content-length", "content-encoding", "transfer-encoding", "content-range");
+
+    private final long maxSize;
+    private final long maxProtectedSize;
+    private final Clock clock;
+    private final LinkedHashMap<URI, Variants> probation = new LinkedHashMap<>(16, 0.75F, true);
+    private final LinkedHashMap<URI, Variants> protectedSegment = new LinkedHashMap<>(16, 0.75F, true);
+    private long probationSize;
+    private long protectedSize;
+
+    HttpResponseCache(long maxSize) {
+        this(maxSize, Clock.systemUTC());
+    }
+
+    HttpResponseCache(long maxSize, Clock clock) {
+        this.maxSize = maxSize;
+        this.maxProtectedSize = maxSize * 4 / 5;
+        this.clock = clock;
+    }
+
+    /**
+     * @return whether the response to the request can be served from the cache or stored in it
+     */
+    static boolean isCacheable(HttpRequest request) {
+        return "GET".equals(request.method())
+                && request.bodyPublisher().map(HttpRequest.BodyPublisher::contentLength).orElse(0L) == 0L
+                && !CacheControl.of(request.headers()).noStore;
+    }
+
+    /**
+     * @return whether a successful response to the request invalidates the cached responses of its URI
+     */
+    static boolean invalidates(HttpRequest request) {
+        return !SAFE_METHODS.contains(request.method());
+    }
+
+    /**
+     * Serves the response from the cache when it is fresh, revalidates it when it is stale or sends the request.
+     *
+     * @param sender sends the request, or the conditional request, with the given body handler
+     */
+    <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler, BiFunction<HttpRequest, HttpResponse.BodyHandler<CacheableBody<T>>, CompletableFuture<HttpResponse<CacheableBody<T>>>> sender) {
+        final long requestTime = clock.millis();
+        final Entry entry = get(request);
+        final HttpResponse.BodyHandler<CacheableBody<T>> cacheableBodyHandler = cacheableBodyHandler(bodyHandler);
+        if (entry == null) {
+            final CompletableFuture<HttpResponse<CacheableBody<T>>> exchange = sender.apply(request, cacheableBodyHandler);
+            return ExchangeCancellation.propagate(exchange.thenCompose(response -> storeOrStream(request, response, requestTime, bodyHandler)), exchange);
+        }
+        final CacheControl requestCacheControl = CacheControl.of(request.headers());
+        if (entry.isFresh(requestTime, requestCacheControl)) {
+            return entry.replay(request, requestTime, bodyHandler);
+        }
+        if (!entry.hasValidator()) {
+            final CompletableFuture<HttpResponse<CacheableBody<T>>> exchange = sender.apply(request, cacheableBodyHandler);
+            return ExchangeCancellation.propagate(exchange.thenCompose(response -> storeOrStream(request, response, requestTime, bodyHandler)), exchange);
+        }
+        final CompletableFuture<HttpResponse<CacheableBody<T>>> exchange = sender.apply(entry.conditionalRequest(request), cacheableBodyHandler);
+        return ExchangeCancellation.propagate(exchange.thenCompose(response -> {
+            if (response.statusCode() == 304) {
+                final Entry revalidated = entry.revalidated(response, requestTime, clock.millis());
+                put(request.uri(), revalidated);
+                return revalidated.replay(request, clock.millis(), bodyHandler);
+            }
+            return storeOrStream(request, response, requestTime, bodyHandler);
+        }), exchange);
+    }
+
+    /**
+     * @return a body handler collecting the body in memory when the response can be stored and its length fits in the cache, streaming it to the body handler otherwise
+     */
+    private <T> HttpResponse.BodyHandler<CacheableBody<T>> cacheableBodyHandler(HttpResponse.BodyHandler<T> bodyHandler) {
+        return responseInfo -> {
+            if (fitsInCache(responseInfo)) {
+                return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(), CacheableBody::collected);
+            }
+            return HttpResponse.BodySubscribers.mapping(bodyHandler.apply(responseInfo), CacheableBody::streamed);
+        };
+    }
+
+    private boolean fitsInCache(HttpResponse.ResponseInfo responseInfo) {
+        // The body of a 304 Not Modified response is empty, the body of the stored response is replayed
+        if (responseInfo.statusCode() == 304) {
+            return true;
+        }
+        final OptionalLong contentLength = responseInfo.headers().firstValueAsLong("content-length");
+        return CACHEABLE_BY_DEFAULT.contains(responseInfo.statusCode()) && contentLength.isPresent() && contentLength.getAsLong() <= maxSize;
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> storeOrStream(HttpRequest request, HttpResponse<CacheableBody<T>> response, long requestTime, HttpResponse.BodyHandler<T> bodyHandler) {
+        final CacheableBody<T> body = response.body();
+        if (body.collected == null) {
+            return CompletableFuture.completedFuture(ReplayedResponse.of(response, body.streamed));
+        }
+        store(request, response, body.collected, requestTime);
+        return ReplayedResponse.replay(response.statusCode(), response.headers(), response.version(), response.request(), response.sslSession(), body.collected, bodyHandler);
+    }
+
+    synchronized void invalidate(URI uri) {
+        final Variants removedProbation = probation.remove(uri);
+        if (removedProbation != null) {
+            probationSize -= removedProbation.size();
+        }
+        final Variants removedProtected = protectedSegment.remove(uri);
+        if (removedProtected != null) {
+            protectedSize -= removedProtected.size();
+        }
+    }
+
+    synchronized long size() {
+        return probationSize + protectedSize;
+    }
+
+    private void store(HttpRequest request, HttpResponse<?> response, byte[] body, long requestTime) {
+        final HttpHeaders headers = response.headers();
+        final CacheControl responseCacheControl = CacheControl.of(headers);
+        final List<String> vary = varyHeaders(headers);
+        if (!CACHEABLE_BY_DEFAULT.contains(response.statusCode()) || responseCacheControl.noStore || vary.contains("*")) {
+            return;
+        }
+        if (request.headers().firstValue("authorization").isPresent() && !responseCacheControl.storableWithAuthorization) {
+            return;
+        }
+        // The credentials select the stored response like the headers listed in Vary
+        vary.addAll(CREDENTIAL_HEADERS);
+        final long responseTime = clock.millis();
+        final long freshnessLifetime = freshnessLifetime(headers, responseCacheControl);
+        final Entry entry = new Entry(response, body, requestVaryValues(request.headers(), vary), requestTime, responseTime, freshnessLifetime, responseCacheControl.noCache);
+        if (freshnessLifetime > 0 || entry.hasValidator()) {
+            put(request.uri(), entry);
+        }
+    }
+
+    private synchronized Entry get(HttpRequest request) {
+        final URI uri = request.uri();
+        Variants variants = protectedSegment.get(uri);
+        if (variants == null) {
+            variants = probation.remove(uri);
+            if (variants == null) {
+                return null;
+            }
+            // Hit in probation, the URI is promoted to the protected segment
+            probationSize -= variants.size();
+            protectedSegment.put(uri, variants);
+            protectedSize += variants.size();
+            demoteProtected();
+        }
+        return variants.select(request.headers());
+    }
+
+    private synchronized void put(URI uri, Entry entry) {
+        if (entry.size() > maxSize) {
+            return;
+        }
+        final Variants protectedVariants = protectedSegment.get(uri);
+        if (protectedVariants != null) {
+            protectedSize -= protectedVariants.size();
+            protectedVariants.put(entry);
+            protectedSize += protectedVariants.size();
+            demoteProtected();
+        } else {
+            final Variants variants = probation.computeIfAbsent(uri, key -> new Variants());
+            probationSize -= variants.size();
+            variants.put(entry);
+            probationSize += variants.size();
+        }
+        evict();
+    }
+
+    private void demoteProtected() {
+        final Iterator<Map.Entry<URI, Variants>> iterator = protectedSegment.entrySet().iterator();
+        while (protectedSize > maxProtectedSize && iterator.hasNext()) {
+            final Map.Entry<URI, Variants> eldest = iterator.next();
+            iterator.remove();
+            protectedSize -= eldest.getValue().size();
+            probation.put(eldest.getKey(), eldest.getValue());
+            probationSize += eldest.getValue().size();
+        }
+    }
+
+    private void evict() {
+        evict(probation.entrySet().iterator(), true);
+        evict(protectedSegment.entrySet().iterator(), false);
+    }
+
+    private void evict(Iterator<Map.Entry<URI, Variants>> iterator, boolean probationSegment) {
+        while (probationSize + protectedSize > maxSize && iterator.hasNext()) {
+            final long size = iterator.next().getValue().size();
+            iterator.remove();
+            if (probationSegment) {
+                probationSize -= size;
+            } else {
+                protectedSize -= size;
+            }
+        }
+    }
+
+    private static List<String> varyHeaders(HttpHeaders headers) {
+        final List<String> vary = new ArrayList<>();
+        for (String value : headers.allValues("vary")) {
+            for (String name : value.split(",")) {
+                final String trimmed = name.trim().toLowerCase(Locale.ROOT);
+                if (!trimmed.isEmpty()) {
+                    vary.add(trimmed);
+                }
+            }
+        }
+        return vary;
+    }
+
+    private static Map<String, List<String>> requestVaryValues(HttpHeaders requestHeaders, List<String> vary) {
+        final Map<String, List<String>> values = new TreeMap<>();
+        for (String name : vary) {
+            values.put(name, requestHeaders.allValues(name));
+        }
+        return values;
+    }
+
+    /**
+     * @return the freshness lifetime in milliseconds given by {@code max-age} or by {@code Expires} relative to {@code Date}
+     */
+    private static long freshnessLifetime(HttpHeaders headers, CacheControl cacheControl) {
+        if (cacheControl.maxAge >= 0) {
+            return cacheControl.maxAge * 1000;
+        }
+        final Optional<String> expires = headers.firstValue("expires");
+        if (expires.isEmpty()) {
+            return 0;
+        }
+        final OptionalLong expiresMillis = parseDate(expires.get());
+        final OptionalLong dateMillis = headers.firstValue("date").map(HttpResponseCache::parseDate).orElse(OptionalLong.empty());
+        if (expiresMillis.isEmpty() || dateMillis.isEmpty()) {
+            // An invalid Expires date represents a time in the past
+            return 0;
+        }
+        return Math.max(0, expiresMillis.getAsLong() - dateMillis.getAsLong());
+    }
+
+    private static OptionalLong parseDate(String value) {
+        try {
+            return OptionalLong.of(ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli());
+        } catch (DateTimeParseException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    /**
+     * Directives of the {@code Cache-Control} header used by the cache.
+     */
+    private static final class CacheControl {
+        private static final CacheControl NONE = new CacheControl(false, false, -1, false);
+
+        private final boolean noStore;
+        private final boolean noCache;
+        private final long maxAge;
+        private final boolean storableWithAuthorization;
+
+        private CacheControl(boolean noStore, boolean noCache, long maxAge, boolean storableWithAuthorization) {
+            this.noStore = noStore;
+            this.noCache = noCache;
+            this.maxAge = maxAge;
+            this.storableWithAuthorization = storableWithAuthorization;
+        }
+
+        static CacheControl of(HttpHeaders headers) {
+            final List<String> values = headers.allValues("cache-control");
+            if (values.isEmpty()) {
+                return NONE;
+            }
+            boolean noStore = false;
+            boolean noCache = false;
+            long maxAge = -1;
+            boolean storableWithAuthorization = false;
+            for (String value : values) {
+                for (String directive : value.split(",")) {
+                    final String trimmed = directive.trim().toLowerCase(Locale.ROOT);
+                    if (trimmed.equals("no-store")) {
+                        noStore = true;
+                    } else if (trimmed.equals("no-cache") || trimmed.startsWith("no-cache=")) {
+                        noCache = true;
+                    } else if (trimmed.startsWith("max-age=")) {
+                        maxAge = parseSeconds(trimmed.substring("max-age=".length()));
+                    } else if (trimmed.equals("public") || trimmed.equals("must-revalidate") || trimmed.startsWith("s-maxage=")) {
+                        storableWithAuthorization = true;
+                    }
+                }
+            }
+            return new CacheControl(noStore, noCache, maxAge, storableWithAuthorization);
+        }
+
+        private static long parseSeconds(String value) {
+            try {
+                return Long.parseLong(value.replace("\"", ""));
+            } catch (NumberFormatException e) {
+                // An invalid max-age makes the response stale
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Responses of a URI selected by the values of the request headers listed in their {@code Vary} header.
+     */
+    private static final class Variants {
+        private final List<Entry> entries = new ArrayList<>(1);
+
+        Entry select(HttpHeaders requestHeaders) {
+            for (Entry entry : entries) {
+                if (entry.matches(requestHeaders)) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+
+        void put(Entry entry) {
+            entries.removeIf(existing -> existing.varyValues.equals(entry.varyValues));
+            entries.add(entry);
+        }
+
+        long size() {
+            long size = 0;
+            for (Entry entry : entries) {
+                size += entry.size();
+            }
+            return size;
+        }
+    }
+
+    private static final class Entry {
+        private final int statusCode;
+        private final HttpHeaders headers;
+        private final HttpClient.Version version;
+        private final byte[] body;
+        private final Map<String, List<String>> varyValues;
+        private final long responseTime;
+        private final long correctedInitialAge;
+        private final long freshnessLifetime;
+        private final boolean noCache;
+        private final long size;
+
+        private Entry(HttpResponse<?> response, byte[] body, Map<String, List<String>> varyValues, long requestTime, long responseTime, long freshnessLifetime, boolean noCache) {
+            this(response.statusCode(), response.headers(), response.version(), body,
+                    varyValues, requestTime, responseTime, freshnessLifetime, noCache);
+        }
+
+        private Entry(int statusCode, HttpHeaders headers, HttpClient.Version version, byte[] body, Map<String, List<String>> varyValues, long requestTime, long responseTime, long freshnessLifetime, boolean noCache) {
+            this.statusCode = statusCode;
+            this.headers = headers;
+            this.version = version;
+            this.body = body;
+            this.varyValues = varyValues;
+            this.responseTime = responseTime;
+            this.freshnessLifetime = freshnessLifetime;
+            this.noCache = noCache;
+            // Age calculation of RFC 9111 section 4.2.3
+            final long dateValue = headers.firstValue("date").map(HttpResponseCache::parseDate).orElse(OptionalLong.empty()).orElse(responseTime);
+            final long apparentAge = Math.max(0, responseTime - dateValue);
+            final long ageValue = headers.firstValue("age").map(Entry::parseAgeMillis).orElse(0L);
+            final long correctedAgeValue = ageValue + (responseTime - requestTime);
+            this.correctedInitialAge = Math.max(apparentAge, correctedAgeValue);
+            long headersSize = 0;
+            for (Map.Entry<String, List<String>> header : headers.map().entrySet()) {
+                for (String value : header.getValue()) {
+                    headersSize += header.getKey().length() + value.length();
+                }
+            }
+            this.size = body.length + headersSize;
+        }
+
+        private static long parseAgeMillis(String value) {
+            try {
+                return Long.parseLong(value.trim()) * 1000;
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+
+        long size() {
+            return size;
+        }
+
+        long currentAge(long now) {
+            return correctedInitialAge + (now - responseTime);
+        }
+
+        boolean matches(HttpHeaders requestHeaders) {
+            for (Map.Entry<String, List<String>> varyValue : varyValues.entrySet()) {
+                if (!varyValue.getValue().equals(requestHeaders.allValues(varyValue.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean isFresh(long now, CacheControl requestCacheControl) {
+            if (noCache || requestCacheControl.noCache) {
+                return false;
+            }
+            final long currentAge = currentAge(now);
+            if (requestCacheControl.maxAge >= 0 && currentAge > requestCacheControl.maxAge * 1000) {
+                return false;
+            }
+            return currentAge < freshnessLifetime;
+        }
+
+        boolean hasValidator() {
+            return headers.firstValue("etag").isPresent() || headers.firstValue("last-modified").isPresent();
+        }
+
+        HttpRequest conditionalRequest(HttpRequest request) {
+            final HttpRequest.Builder builder = HttpRequest.newBuilder(request, (name, value) -> true);
+            headers.firstValue("etag").ifPresent(etag -> builder.setHeader("If-None-Match", etag));
+            headers.firstValue("last-modified").ifPresent(lastModified -> builder.setHeader("If-Modified-Since", lastModified));
+            return builder.build();
+        }
+
+        /**
+         * @return the entry with the headers updated by the {@code 304 Not Modified} response, see RFC 9111 section 4.3.4
+         */
+        Entry revalidated(HttpResponse<?> notModified, long requestTime, long responseTime) {
+            final Map<String, List<String>> updatedHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            updatedHeaders.putAll(headers.map());
+            notModified.headers().map().forEach((name, values) -> {
+                if (!NOT_UPDATED_BY_REVALIDATION.contains(name.toLowerCase(Locale.ROOT))) {
+                    updatedHeaders.put(name, values);
+                }
+            });
+            final HttpHeaders mergedHeaders = HttpHeaders.of(updatedHeaders, (name, value) -> true);
+            final CacheControl cacheControl = CacheControl.of(mergedHeaders);
+            return new Entry(statusCode, mergedHeaders, version, body, varyValues, requestTime, responseTime, freshnessLifetime(mergedHeaders, cacheControl), cacheControl.noCache);
+        }
+
+        <T> CompletableFuture<HttpResponse<T>> replay(HttpRequest request, long now, HttpResponse.BodyHandler<T> bodyHandler) {
+            final Map<String, List<String>> responseHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            responseHeaders.putAll(headers.map());
+            responseHeaders.put("age", List.of(Long.toString(currentAge(now) / 1000)));
+            return ReplayedResponse.replay(statusCode, HttpHeaders.of(responseHeaders, (name, value) -> true), version, request, Optional.empty(), body, bodyHandler);
+        }
+    }
+
+    /**
+     * Body of a response received through the cache, either collected in memory to be stored or streamed to the body handler of the request.
+     */
+    static final class CacheableBody<T> {
+        private final byte[] collected;
+        private final T streamed;
+
+        private CacheableBody(byte[] collected, T streamed) {
+            this.collected = collected;
+            this.streamed = streamed;
+        }
+
+        private static <T> CacheableBody<T> collected(byte[] body) {
+            return new CacheableBody<>(body == null ? new byte[0] : body, null);
+        }
+
+        private static <T> CacheableBody<T> streamed(T body) {
+            return new CacheableBody<>(null, body);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Response body failing when a read waits for the next bytes longer than the idle timeout.
+ * <p>
+ * Only the time spent blocked in a read is measured, a slow consumer does not trip the timeout since the body is then buffered by the HTTP client.
+ * A single check is scheduled per timeout period while a read is in progress, it is armed again by the next read once no read is in progress and it stops
+ * when the body is closed or expired. The scheduled check only holds a weak reference to the body, so a body dropped without being closed is not kept alive.
+ * When a read is idle for too long, the body is closed, which cancels the exchange and thus resets the HTTP/2 stream or closes the HTTP/1.1 connection,
+ * and the read fails with a {@link HttpTimeoutException}.
+ */
+final class IdleTimeoutInputStream extends FilterInputStream {
+
+    private static final long NOT_READING = Long.MIN_VALUE;
+
+    private final Duration timeout;
+    private final long timeoutNanos;
+    private final AtomicBoolean checking = new AtomicBoolean();
+    private volatile long readingSince = NOT_READING;
+    private volatile boolean expired;
+    private volatile boolean done;
+
+    private IdleTimeoutInputStream(InputStream in, Duration timeout) {
+        super(in);
+        this.timeout = timeout;
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    /**
+     * @return the body failing once a read is idle for longer than the timeout
+     */
+    static IdleTimeoutInputStream of(InputStream body, Duration timeout) {
+        return new IdleTimeoutInputStream(body, timeout);
+    }
+
+    boolean isExpired() {
+        return expired;
+    }
+
+    /**
+     * @return whether a check of the idle time is scheduled
+     */
+    boolean isChecking() {
+        return checking.get();
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkExpired();
+        startReading();
+        try {
+            return endOfStream(super.read());
+        } catch (IOException e) {
+            throw expired ? idleTimeout(e) : e;
+        } finally {
+            readingSince = NOT_READING;
+        }
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        checkExpired();
+        startReading();
+        try {
+            return endOfStream(super.read(b, off, len));
+        } catch (IOException e) {
+            throw expired ? idleTimeout(e) : e;
+        } finally {
+            readingSince = NOT_READING;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        done = true;
+        super.close();
+    }
+
+    /**
+     * The body closed on expiry reports the end of the stream to the pending read, it must not be mistaken for a complete body.
+     */
+    private int endOfStream(int read) throws HttpTimeoutException {
+        if (read == -1) {
+            checkExpired();
+            done = true;
+        }
+        return read;
+    }
+
+    private void checkExpired() throws HttpTimeoutException {
+        if (expired) {
+            throw idleTimeout(null);
+        }
+    }
+
+    private HttpTimeoutException idleTimeout(IOException cause) {
+        final HttpTimeoutException timeoutException = new HttpTimeoutException("No data of the response body was received for " + timeout.toMillis() + " ms");
+        if (cause != null) {
+            timeoutException.initCause(cause);
+        }
+        return timeoutException;
+    }
+
+    private void startReading() {
+        readingSince = System.nanoTime();
+        if (checking.compareAndSet(false, true)) {
+            schedule(timeoutNanos);
+        }
+    }
+
+    private void schedule(long delayNanos) {
+        final WeakReference<IdleTimeoutInputStream> reference = new WeakReference<>(this);
+        CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS).execute(() -> {
+            final IdleTimeoutInputStream body = reference.get();
+            if (body != null) {
+                body.check();
+            }
+        });
+    }
+
+    private void check() {
+        if (done) {
+            checking.set(false);
+            return;
+        }
+        final long since = readingSince;
+        if (since == NOT_READING) {
+            checking.set(false);
+            // A read started while the check was stopping did not arm a new one
+            if (readingSince != NOT_READING && checking.compareAndSet(false, true)) {
+                schedule(timeoutNanos);
+            }
+            return;
+        }
+        final long idleNanos = System.nanoTime() - since;
+        if (idleNanos < timeoutNanos) {
+            schedule(timeoutNanos - idleNanos);
+            return;
+        }
+        expired = true;
+        done = true;
+        checking.set(false);
+        try {
+            in.close();
+        } catch (IOException e) {
+            // The body is discarded
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import org.glassfish.jersey.client.ClientRequest;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Registry of the response latencies of the exchanges sent by {@link HttpClientConnector}, grouped by destination.
+ * <p>
+ * The latency of an exchange spans from the start of the request build to the reception of the response headers.
+ * The registry is a {@link HttpClientConnectorListener.Factory}, it is registered like any listener.
+ * <pre>
+ * {@code
+ * var latencies = new LatencyRegistry();
+ * var client = ClientBuilder.newClient(new ClientConfig()
+ *         .connectorProvider(HttpClientConnector::new)
+ *         .property(HttpClientConnectorProperties.LISTENER_FACTORY, latencies));
+ * ...
+ * latencies.snapshot().forEach((host, snapshot) -> export(host, snapshot.getValueAtPercentile(99.0)));
+ * }</pre>
+ * The exchanges are grouped by host by default. Another key, e.g. the method and the path template, can be computed from the request,
+ * the number of distinct keys must remain bounded since a histogram of about 8 KiB is kept for each.
+ */
+public final class LatencyRegistry implements HttpClientConnectorListener.Factory {
+
+    private final Function<ClientRequest, String> keyFunction;
+    private final Map<String, Destination> destinations = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a registry grouping the exchanges by host.
+     */
+    public LatencyRegistry() {
+        this(clientRequest -> clientRequest.getUri().getHost());
+    }
+
+    /**
+     * Creates a registry grouping the exchanges by the key computed from the request.
+     */
+    public LatencyRegistry(Function<ClientRequest, String> keyFunction) {
+        this.keyFunction = keyFunction;
+    }
+
+    @Override
+    public HttpClientConnectorListener newListener(ClientRequest clientRequest) {
+        return new ExchangeRecorder(destinations.computeIfAbsent(keyFunction.apply(clientRequest), key -> new Destination()));
+    }
+
+    /**
+     * @return the snapshot of the latencies of each destination sorted by key
+     */
+    public Map<String, Snapshot> snapshot() {
+        final Map<String, Snapshot> snapshots = new TreeMap<>();
+        destinations.forEach((key, destination) -> snapshots.put(key, destination.snapshot()));
+        return snapshots;
+    }
+
+    /**
+     * Removes all the destinations and their latencies, the exchanges in flight are not recorded anymore.
+     */
+    public void reset() {
+        destinations.clear();
+    }
+
+    private static final class Destination {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder inFlight = new LongAdder();
+
+        private Snapshot snapshot() {
+            return new Snapshot(histogram.counts(), errors.sum(), inFlight.sum());
+        }
+    }
+
+    private static final class ExchangeRecorder implements HttpClientConnectorListener {
+        private final Destination destination;
+        private long started;
+        private boolean completed;
+
+        private ExchangeRecorder(Destination destination) {
+            this.destination = destination;
+        }
+
+        @Override
+        public void requestBuildStarted(long nanoTime) {
+            started = nanoTime;
+            destination.inFlight.increment();
+        }
+
+        @Override
+        public void responseHeadersReceived(int statusCode, HttpClient.Version version, long nanoTime) {
+            if (complete()) {
+                destination.histogram.record(nanoTime - started);
+                if (statusCode >= 500) {
+                    destination.errors.increment();
+                }
+            }
+        }
+
+        @Override
+        public void failed(Throwable cause, long nanoTime) {
+            if (complete()) {
+                destination.errors.increment();
+            }
+        }
+
+        /**
+         * @return whether the exchange was still in flight, the response future can still fail after the headers are received, e.g. on timeout
+         */
+        private synchronized boolean complete() {
+            if (completed) {
+                return false;
+            }
+            completed = true;
+            destination.inFlight.decrement();
+            return true;
+        }
+    }
+
+    /**
+     * Latencies of a destination at the time of the snapshot.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long errorCount;
+        private final long inFlight;
+
+        private Snapshot(long[] counts, long errorCount, long inFlight) {
+            this.counts = counts;
+            long total = 0;
+            for (long bucketCount : counts) {
+                total += bucketCount;
+            }
+            this.count = total;
+            this.errorCount = errorCount;
+            this.inFlight = inFlight;
+        }
+
+        /**
+         * @return the number of exchanges which received a response
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return the number of exchanges which failed or received a 5xx response
+         */
+        public long getErrorCount() {
+            return errorCount;
+        }
+
+        /**
+         * @return the number of exchanges waiting for a response
+         */
+        public long getInFlight() {
+            return inFlight;
+        }
+
+        /**
+         * @param percentile the percentile between 0 and 100
+         * @return the latency below which the given percentage of the responses were received, within the precision of the histogram, or zero without any response
+         */
+        public Duration getValueAtPercentile(double percentile) {
+            return Duration.ofNanos(LatencyHistogram.valueAtPercentile(counts, percentile));
+        }
+
+        public Duration getP50() {
+            return getValueAtPercentile(50.0);
+        }
+
+        public Duration getP99() {
+            return getValueAtPercentile(99.0);
+        }
+
+        public Duration getP999() {
+            return getValueAtPercentile(99.9);
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{count=" + count + ", errorCount=" + errorCount + ", inFlight=" + inFlight
+                    + ", p50=" + getP50() + ", p99=" + getP99() + ", p999=" + getP999() + '}';
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import org.glassfish.jersey.client.ClientRequest;
+
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Delivers the lines of a successful response body to a {@link Flow.Subscriber}, e.g. server-sent events or newline-delimited JSON.
+ * <p>
+ * The lines are decoded by {@link HttpResponse.BodySubscribers#fromLineSubscriber} as the bytes are received, the body is only requested
+ * from the server as fast as the subscriber requests lines, and no thread is blocked while the stream is idle. The response is handed over
+ * to the caller as soon as its headers are received, with an empty entity, while the lines keep flowing to the subscriber until the end of the
+ * body or until the subscriber cancels its subscription, which cancels the exchange. The responses with a status other than 2xx are streamed as usual
+ * and the subscriber is then not subscribed.
+ */
+final class LineStreaming implements HttpResponse.BodySubscriber<InputStream> {
+
+    private static final Pattern CHARSET = Pattern.compile(";\\s*charset\\s*=\\s*\"?([^;\"\\s]+)", Pattern.CASE_INSENSITIVE);
+
+    private final HttpResponse.BodySubscriber<Void> lines;
+
+    private LineStreaming(HttpResponse.BodySubscriber<Void> lines) {
+        this.lines = lines;
+    }
+
+    /**
+     * @return the subscriber of the lines set with {@link HttpClientConnectorProperties#LINE_SUBSCRIBER} on the request, if any
+     */
+    @SuppressWarnings("unchecked")
+    static Optional<Flow.Subscriber<? super String>> subscriber(ClientRequest clientRequest) {
+        return Optional.ofNullable((Flow.Subscriber<? super String>) clientRequest.getProperty(HttpClientConnectorProperties.LINE_SUBSCRIBER));
+    }
+
+    /**
+     * @return a body handler delivering the lines of the successful responses to the subscriber, the other responses are handled by the fallback
+     */
+    static HttpResponse.BodyHandler<InputStream> handler(Flow.Subscriber<? super String> subscriber, HttpResponse.BodyHandler<InputStream> fallback) {
+        return responseInfo -> {
+            if (responseInfo.statusCode() / 100 != 2) {
+                return fallback.apply(responseInfo);
+            }
+            return new LineStreaming(HttpResponse.BodySubscribers.fromLineSubscriber(subscriber, ignored -> null, charset(responseInfo), null));
+        };
+    }
+
+    /**
+     * @return the charset of the {@code Content-Type} of the response or UTF-8, the charset of the server-sent events and NDJSON, when there is none
+     */
+    static Charset charset(HttpResponse.ResponseInfo responseInfo) {
+        return responseInfo.headers().firstValue("content-type")
+                .map(CHARSET::matcher)
+                .filter(Matcher::find)
+                .map(matcher -> Charset.forName(matcher.group(1)))
+                .orElse(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The entity of the response is empty, the body is consumed by the line subscriber.
+     */
+    @Override
+    public CompletionStage<InputStream> getBody() {
+        return CompletableFuture.completedFuture(InputStream.nullInputStream());
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        lines.onSubscribe(subscription);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> item) {
+        lines.onNext(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        lines.onError(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        lines.onComplete();
+    }
+}
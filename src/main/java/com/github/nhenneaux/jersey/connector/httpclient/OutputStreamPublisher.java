@@ -0,0 +1,247 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Flow;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An output stream publishing the written bytes as chunks of {@link ByteBuffer} to a single {@link Flow.Subscriber}.
+ * <p>
+ * The chunks are emitted on the writing thread when the subscriber signals demand. The writing thread waits while there is no outstanding demand,
+ * the backpressure of the subscriber is thus applied to the entity writer without any intermediate pumping thread.
+ * Once the subscription is cancelled, the written bytes are discarded. Once the publication is aborted, the writes fail so that the entity writer stops.
+ * The signals of the writing thread and of {@link #abort(Throwable)}, which may be called from another thread, are serialized and none follows the terminal one.
+ */
+final class OutputStreamPublisher extends OutputStream implements Flow.Publisher<ByteBuffer> {
+
+    private static final Flow.Subscription NO_OP_SUBSCRIPTION = new Flow.Subscription() {
+        @Override
+        public void request(long n) {
+            // nothing to publish
+        }
+
+        @Override
+        public void cancel() {
+            // nothing to cancel
+        }
+    };
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition stateChanged = lock.newCondition();
+    private final ReentrantLock signalLock = new ReentrantLock();
+    private final int chunkSize;
+
+    private Flow.Subscriber<? super ByteBuffer> subscriber;
+    private boolean subscribed;
+    private long demand;
+    private boolean cancelled;
+    private Throwable failure;
+    private boolean closed;
+    private boolean terminated;
+
+    private byte[] chunk;
+    private int position;
+
+    OutputStreamPublisher(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("The chunk size must be positive but was " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        this.chunk = new byte[chunkSize];
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> newSubscriber) {
+        final boolean alreadySubscribed;
+        lock.lock();
+        try {
+            alreadySubscribed = subscriber != null;
+            if (!alreadySubscribed) {
+                subscriber = newSubscriber;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (alreadySubscribed) {
+            newSubscriber.onSubscribe(NO_OP_SUBSCRIPTION);
+            newSubscriber.onError(new IllegalStateException("The request body can only be published once."));
+            return;
+        }
+        newSubscriber.onSubscribe(new ChunkSubscription());
+        lock.lock();
+        try {
+            subscribed = true;
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        chunk[position++] = (byte) b;
+        if (position == chunkSize) {
+            emitChunk();
+        }
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        ensureOpen();
+        int remaining = length;
+        int currentOffset = offset;
+        while (remaining > 0) {
+            final int copied = Math.min(remaining, chunkSize - position);
+            System.arraycopy(bytes, currentOffset, chunk, position, copied);
+            position += copied;
+            currentOffset += copied;
+            remaining -= copied;
+            if (position == chunkSize) {
+                emitChunk();
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        if (position > 0) {
+            emitChunk();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        if (position > 0) {
+            emitChunk();
+        }
+        closed = true;
+        if (awaitSubscriber(false)) {
+            signal(() -> subscriber.onComplete(), true);
+        }
+    }
+
+    /**
+     * Stops the publication, the subscriber is notified with an error if the subscription is still active and the pending writes are released.
+     */
+    void abort(Throwable cause) {
+        final boolean notify;
+        lock.lock();
+        try {
+            notify = subscribed && !cancelled && failure == null;
+            if (failure == null) {
+                failure = cause;
+            }
+            cancelled = true;
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (notify) {
+            signal(() -> subscriber.onError(cause), true);
+        }
+    }
+
+    /**
+     * Releases the pending writes and discards the following ones, e.g. when the exchange is already completed.
+     */
+    void cancel() {
+        lock.lock();
+        try {
+            cancelled = true;
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("The request body stream is already closed.");
+        }
+    }
+
+    private void emitChunk() throws IOException {
+        if (awaitSubscriber(true)) {
+            final ByteBuffer buffer = ByteBuffer.wrap(chunk, 0, position);
+            chunk = new byte[chunkSize];
+            position = 0;
+            signal(() -> subscriber.onNext(buffer), false);
+        } else {
+            position = 0;
+        }
+    }
+
+    /**
+     * Signals the subscriber unless a terminal signal was already sent, one signal at a time.
+     */
+    private void signal(Runnable signal, boolean terminal) {
+        signalLock.lock();
+        try {
+            if (!terminated) {
+                terminated = terminal;
+                signal.run();
+            }
+        } finally {
+            signalLock.unlock();
+        }
+    }
+
+    /**
+     * @return {@code true} when the subscriber can be signaled or {@code false} when the publication was cancelled
+     * @throws IOException when the publication was aborted
+     */
+    private boolean awaitSubscriber(boolean withDemand) throws IOException {
+        lock.lock();
+        try {
+            while (!cancelled && (!subscribed || (withDemand && demand == 0))) {
+                stateChanged.await();
+            }
+            if (failure != null) {
+                throw new IOException("The request body publication was aborted.", failure);
+            }
+            if (cancelled) {
+                return false;
+            }
+            if (withDemand) {
+                demand--;
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("The request body writing was interrupted while waiting for the subscriber demand.");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private class ChunkSubscription implements Flow.Subscription {
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                abort(new IllegalArgumentException("The requested number of chunks must be positive but was " + n));
+                return;
+            }
+            lock.lock();
+            try {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                stateChanged.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            OutputStreamPublisher.this.cancel();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import javax.net.ssl.SSLSession;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+/**
+ * Response whose body was received once in memory and is published again to the body handler of a request, like the HTTP client does.
+ * Each request thus reads its own copy of the body.
+ */
+final class ReplayedResponse<T> implements HttpResponse<T> {
+    private final int statusCode;
+    private final HttpHeaders headers;
+    private final HttpClient.Version version;
+    private final HttpRequest request;
+    private final Optional<SSLSession> sslSession;
+    private final T body;
+
+    private ReplayedResponse(int statusCode, HttpHeaders headers, HttpClient.Version version, HttpRequest request, Optional<SSLSession> sslSession, T body) {
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.version = version;
+        this.request = request;
+        this.sslSession = sslSession;
+        this.body = body;
+    }
+
+    /**
+     * @return the response with the given body, e.g. the body streamed to the handler of the request instead of being received in memory
+     */
+    static <T> HttpResponse<T> of(HttpResponse<?> response, T body) {
+        return new ReplayedResponse<>(response.statusCode(), response.headers(), response.version(), response.request(), response.sslSession(), body);
+    }
+
+    static <T> CompletableFuture<HttpResponse<T>> replay(HttpResponse<byte[]> response, HttpResponse.BodyHandler<T> bodyHandler) {
+        return replay(response.statusCode(), response.headers(), response.version(), response.request(), response.sslSession(), response.body(), bodyHandler);
+    }
+
+    static <T> CompletableFuture<HttpResponse<T>> replay(int statusCode, HttpHeaders headers, HttpClient.Version version, HttpRequest request, Optional<SSLSession> sslSession, byte[] body, HttpResponse.BodyHandler<T> bodyHandler) {
+        final HttpResponse.BodySubscriber<T> bodySubscriber = bodyHandler.apply(new HttpResponse.ResponseInfo() {
+            @Override
+            public int statusCode() {
+                return statusCode;
+            }
+
+            @Override
+            public HttpHeaders headers() {
+                return headers;
+            }
+
+            @Override
+            public HttpClient.Version version() {
+                return version;
+            }
+        });
+        bodySubscriber.onSubscribe(new Flow.Subscription() {
+            private boolean published;
+
+            @Override
+            public void request(long n) {
+                // A subscriber requesting more while receiving the body is already served
+                if (published) {
+                    return;
+                }
+                published = true;
+                if (body != null && body.length > 0) {
+                    bodySubscriber.onNext(List.of(ByteBuffer.wrap(body).asReadOnlyBuffer()));
+                }
+                bodySubscriber.onComplete();
+            }
+
+            @Override
+            public void cancel() {
+                published = true;
+            }
+        });
+        return bodySubscriber.getBody().toCompletableFuture().thenApply(replayedBody -> new ReplayedResponse<>(statusCode, headers, version, request, sslSession, replayedBody));
+    }
+
+    @Override
+    public int statusCode() {
+        return statusCode;
+    }
+
+    @Override
+    public HttpRequest request() {
+        return request;
+    }
+
+    @Override
+    public Optional<HttpResponse<T>> previousResponse() {
+        return Optional.empty();
+    }
+
+    @Override
+    public HttpHeaders headers() {
+        return headers;
+    }
+
+    @Override
+    public T body() {
+        return body;
+    }
+
+    @Override
+    public Optional<SSLSession> sslSession() {
+        return sslSession;
+    }
+
+    @Override
+    public URI uri() {
+        return request.uri();
+    }
+
+    @Override
+    public HttpClient.Version version() {
+        return version;
+    }
+}
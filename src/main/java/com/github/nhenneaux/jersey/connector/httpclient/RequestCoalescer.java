@@ -0,0 +1,151 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Shares a single exchange between the identical GET and HEAD requests sent concurrently.
+ * <p>
+ * The requests are identical when they have the same method, URI, values of the vary headers and values of the conditional and range headers,
+ * so a plain request never receives the {@code 304} or {@code 206} response of a conditional or ranged request, e.g. a revalidation of the HTTP cache. The first request is sent
+ * with its body collected in memory, the other requests wait for its response. Each request then gets its own copy of the body
+ * published to its own body handler, so the body can be read independently by each caller.
+ * A request sent once the shared response is received starts a new exchange, the responses are not cached.
+ * The shared exchange is only cancelled once every waiting request is cancelled.
+ */
+final class RequestCoalescer {
+
+    private static final List<String> CONDITIONAL_HEADERS = List.of("If-None-Match", "If-Modified-Since", "If-Match", "If-Unmodified-Since", "Range", "If-Range");
+
+    private final List<String> varyHeaders;
+    private final Map<List<Object>, SharedExchange> exchanges = new ConcurrentHashMap<>();
+
+    RequestCoalescer(List<String> varyHeaders) {
+        this.varyHeaders = List.copyOf(varyHeaders);
+    }
+
+    /**
+     * @return whether the request can share the exchange of an identical request, only the GET and HEAD requests without body are shared
+     */
+    static boolean isCoalescable(HttpRequest request) {
+        final String method = request.method();
+        return ("GET".equals(method) || "HEAD".equals(method))
+                && request.bodyPublisher().map(HttpRequest.BodyPublisher::contentLength).orElse(0L) == 0L;
+    }
+
+    /**
+     * Sends the request or joins the exchange of an identical request in flight.
+     *
+     * @param sender sends the request when there is no identical request in flight
+     */
+    <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler, Function<HttpRequest, CompletableFuture<HttpResponse<byte[]>>> sender) {
+        final List<Object> key = key(request);
+        while (true) {
+            final SharedExchange exchange = new SharedExchange();
+            final SharedExchange inFlight = exchanges.putIfAbsent(key, exchange);
+            if (inFlight == null) {
+                exchange.join();
+                exchange.response.whenComplete((response, throwable) -> exchanges.remove(key, exchange));
+                exchange.send(request, sender);
+                return exchange.replay(bodyHandler);
+            }
+            if (inFlight.join()) {
+                return inFlight.replay(bodyHandler);
+            }
+            // Every waiter of the exchange in flight cancelled, it is being cancelled as well
+            exchanges.remove(key, inFlight);
+        }
+    }
+
+    int inFlight() {
+        return exchanges.size();
+    }
+
+    /**
+     * Exchange shared by the waiters of identical requests, it is cancelled once every waiter cancelled its response.
+     */
+    private static final class SharedExchange {
+        private static final int ABANDONED = -1;
+
+        private final CompletableFuture<HttpResponse<byte[]>> response = new CompletableFuture<>();
+        private final AtomicInteger waiters = new AtomicInteger();
+        private volatile Future<?> sent;
+
+        /**
+         * @return {@code false} when the exchange is abandoned by all its waiters and cannot be joined anymore
+         */
+        private boolean join() {
+            while (true) {
+                final int current = waiters.get();
+                if (current == ABANDONED) {
+                    return false;
+                }
+                if (waiters.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private void send(HttpRequest request, Function<HttpRequest, CompletableFuture<HttpResponse<byte[]>>> sender) {
+            try {
+                final CompletableFuture<HttpResponse<byte[]>> exchange = sender.apply(request);
+                sent = exchange;
+                exchange.whenComplete((httpResponse, throwable) -> {
+                    if (throwable == null) {
+                        response.complete(httpResponse);
+                    } else {
+                        response.completeExceptionally(throwable);
+                    }
+                });
+                if (waiters.get() == ABANDONED) {
+                    exchange.cancel(true);
+                }
+            } catch (RuntimeException e) {
+                response.completeExceptionally(e);
+            }
+        }
+
+        private <T> CompletableFuture<HttpResponse<T>> replay(HttpResponse.BodyHandler<T> bodyHandler) {
+            final CompletableFuture<HttpResponse<T>> replayed = response.thenCompose(httpResponse -> ReplayedResponse.replay(httpResponse, bodyHandler));
+            replayed.whenComplete((httpResponse, throwable) -> {
+                if (replayed.isCancelled()) {
+                    leave();
+                }
+            });
+            return replayed;
+        }
+
+        private void leave() {
+            if (waiters.decrementAndGet() == 0 && waiters.compareAndSet(0, ABANDONED)) {
+                response.cancel(true);
+                final Future<?> exchange = sent;
+                if (exchange != null) {
+                    exchange.cancel(true);
+                }
+            }
+        }
+    }
+
+    private List<Object> key(HttpRequest request) {
+        final HttpHeaders headers = request.headers();
+        final List<Object> key = new ArrayList<>(2 + varyHeaders.size() + CONDITIONAL_HEADERS.size());
+        key.add(request.method());
+        key.add(request.uri());
+        for (String varyHeader : varyHeaders) {
+            key.add(headers.allValues(varyHeader));
+        }
+        for (String conditionalHeader : CONDITIONAL_HEADERS) {
+            key.add(headers.allValues(conditionalHeader));
+        }
+        return key;
+    }
+}
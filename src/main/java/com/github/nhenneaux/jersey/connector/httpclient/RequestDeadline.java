@@ -0,0 +1,188 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Total time allowed to one request, from the serialization of its entity to the end of its response body.
+ * <p>
+ * A single timer is armed when the request is built. When it expires before the response headers, the exchange is cancelled, which resets the HTTP/2 stream
+ * or closes the HTTP/1.1 connection, and the response fails with a {@link HttpTimeoutException}. When it expires while the body is read, the body is
+ * closed, which also cancels the exchange, and the next read fails with a {@link HttpTimeoutException}. The timer is cancelled once the body is consumed or closed.
+ */
+final class RequestDeadline {
+
+    private final Duration timeout;
+    private final CompletableFuture<Void> timer = new CompletableFuture<>();
+    private volatile CompletableFuture<?> exchange;
+    private volatile CompletableFuture<?> result;
+    private volatile InputStream body;
+    private volatile boolean expired;
+
+    private RequestDeadline(Duration timeout) {
+        this.timeout = timeout;
+        timer.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS).whenComplete((ignored, throwable) -> {
+            if (throwable instanceof TimeoutException) {
+                expire();
+            }
+        });
+    }
+
+    static RequestDeadline start(Duration timeout) {
+        return new RequestDeadline(timeout);
+    }
+
+    Duration timeout() {
+        return timeout;
+    }
+
+    boolean isExpired() {
+        return expired;
+    }
+
+    HttpTimeoutException timeoutException() {
+        return new HttpTimeoutException("The request deadline of " + timeout.toMillis() + " ms expired");
+    }
+
+    /**
+     * @return a sender failing the exchange with a {@link HttpTimeoutException} and cancelling it when the deadline expires, the request is not sent when
+     * the deadline already expired while its entity was serialized
+     */
+    Function<HttpRequest, CompletableFuture<HttpResponse<InputStream>>> sender(Function<HttpRequest, CompletableFuture<HttpResponse<InputStream>>> sender) {
+        return request -> {
+            if (expired) {
+                return CompletableFuture.failedFuture(timeoutException());
+            }
+            final CompletableFuture<HttpResponse<InputStream>> httpCallFuture = sender.apply(request);
+            final CompletableFuture<HttpResponse<InputStream>> result = new CompletableFuture<>();
+            httpCallFuture.whenComplete((response, throwable) -> {
+                if (throwable != null) {
+                    complete();
+                    result.completeExceptionally(expired ? timeoutException() : throwable);
+                } else if (!result.complete(response)) {
+                    // The deadline expired while the response was handed over, the body is released right away
+                    closeQuietly(response.body());
+                }
+            });
+            result.whenComplete((response, throwable) -> {
+                if (result.isCancelled()) {
+                    httpCallFuture.cancel(true);
+                }
+            });
+            this.exchange = httpCallFuture;
+            this.result = result;
+            if (expired) {
+                expire();
+            }
+            return result;
+        };
+    }
+
+    /**
+     * @return the body failing with a {@link HttpTimeoutException} once the deadline expires
+     */
+    InputStream entityStream(InputStream entityStream) {
+        final DeadlineInputStream deadlineInputStream = new DeadlineInputStream(entityStream);
+        body = deadlineInputStream;
+        if (expired) {
+            expire();
+        }
+        return deadlineInputStream;
+    }
+
+    /**
+     * Cancels the timer, the request is complete.
+     */
+    void complete() {
+        timer.complete(null);
+    }
+
+    private void expire() {
+        expired = true;
+        final CompletableFuture<?> pendingResult = result;
+        if (pendingResult != null && !pendingResult.isDone()) {
+            // The exchange is cancelled before the caller is notified so that the connection is released once the invocation fails
+            exchange.cancel(true);
+            pendingResult.completeExceptionally(timeoutException());
+        }
+        final InputStream pendingBody = body;
+        if (pendingBody != null) {
+            closeQuietly(pendingBody);
+        }
+    }
+
+    private static void closeQuietly(InputStream inputStream) {
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            // The body is discarded
+        }
+    }
+
+    private final class DeadlineInputStream extends FilterInputStream {
+
+        private DeadlineInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkExpired();
+            try {
+                return endOfStream(super.read());
+            } catch (IOException e) {
+                throw expired ? timeoutWhileReading(e) : e;
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            checkExpired();
+            try {
+                return endOfStream(super.read(b, off, len));
+            } catch (IOException e) {
+                throw expired ? timeoutWhileReading(e) : e;
+            }
+        }
+
+        /**
+         * The body closed on expiry can report the end of the stream to a pending read, it must not be mistaken for a complete body.
+         */
+        private int endOfStream(int read) throws HttpTimeoutException {
+            if (read == -1) {
+                checkExpired();
+                complete();
+            }
+            return read;
+        }
+
+        private void checkExpired() throws HttpTimeoutException {
+            if (expired) {
+                throw timeoutWhileReading(null);
+            }
+        }
+
+        private HttpTimeoutException timeoutWhileReading(IOException cause) {
+            final HttpTimeoutException timeoutException = new HttpTimeoutException("The request deadline of " + timeout.toMillis() + " ms expired while reading the response body");
+            if (cause != null) {
+                timeoutException.initCause(cause);
+            }
+            return timeoutException;
+        }
+
+        @Override
+        public void close() throws IOException {
+            complete();
+            super.close();
+        }
+    }
+}
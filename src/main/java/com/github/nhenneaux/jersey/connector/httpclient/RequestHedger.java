@@ -0,0 +1,181 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * Sends a second attempt of an idempotent request when the first one has not received the response headers within a delay.
+ * <p>
+ * The first attempt receiving the response headers wins, its body is handed to the body handler of the caller while the body
+ * of the other attempt is discarded and the other attempt is cancelled. The delay is either fixed or the 95th percentile of
+ * the time to receive the response headers observed for the host, there is no hedging until enough responses are observed.
+ * Only the requests with a body publisher of known length can be hedged since they can be subscribed several times, the
+ * streamed chunked bodies are sent once.
+ */
+final class RequestHedger {
+
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE", "PUT", "DELETE");
+    private static final double PERCENTILE = 95.0;
+    static final int MIN_SAMPLES = 100;
+    private static final int REFRESH_INTERVAL = 64;
+
+    private final Duration fixedDelay;
+    private final Map<String, Host> hosts = new ConcurrentHashMap<>();
+    private final AtomicLong hedgedAttempts = new AtomicLong();
+
+    private RequestHedger(Duration fixedDelay) {
+        this.fixedDelay = fixedDelay;
+    }
+
+    static RequestHedger fixed(Duration delay) {
+        return new RequestHedger(delay);
+    }
+
+    /**
+     * @return a hedger deriving the delay from the latencies observed for each host
+     */
+    static RequestHedger adaptive() {
+        return new RequestHedger(null);
+    }
+
+    /**
+     * @return whether the request is idempotent and has a body which can be published again
+     */
+    static boolean isHedgeable(HttpRequest request) {
+        return IDEMPOTENT_METHODS.contains(request.method())
+                && request.bodyPublisher().map(HttpRequest.BodyPublisher::contentLength).orElse(0L) >= 0;
+    }
+
+    /**
+     * Sends the request and a second attempt when the first one is slower than the hedging delay.
+     *
+     * @param sender sends one attempt of the request
+     */
+    <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler, BiFunction<HttpRequest, HttpResponse.BodyHandler<T>, CompletableFuture<HttpResponse<T>>> sender) {
+        final Host host = fixedDelay == null ? hosts.computeIfAbsent(String.valueOf(request.uri().getHost()), key -> new Host()) : null;
+        final long delayNanos = host == null ? fixedDelay.toNanos() : host.delayNanos;
+        final Hedge<T> hedge = new Hedge<>(bodyHandler, sender, host);
+        hedge.attempt(request);
+        if (delayNanos >= 0 && !hedge.result.isDone()) {
+            final Executor delayedExecutor = CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS);
+            delayedExecutor.execute(() -> {
+                if (!hedge.result.isDone() && !hedge.claimed.get()) {
+                    hedgedAttempts.incrementAndGet();
+                    hedge.attempt(request);
+                }
+            });
+        }
+        return hedge.result;
+    }
+
+    /**
+     * @return the number of second attempts sent
+     */
+    long hedgedAttempts() {
+        return hedgedAttempts.get();
+    }
+
+    /**
+     * @return the current hedging delay of the host or a negative value when the requests to the host are not hedged yet
+     */
+    long delayNanos(String host) {
+        if (fixedDelay != null) {
+            return fixedDelay.toNanos();
+        }
+        final Host observed = hosts.get(host);
+        return observed == null ? -1 : observed.delayNanos;
+    }
+
+    private static final class Host {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final AtomicLong count = new AtomicLong();
+        private volatile long delayNanos = -1;
+
+        private void record(long nanos) {
+            histogram.record(nanos);
+            final long recorded = count.incrementAndGet();
+            if (recorded >= MIN_SAMPLES && (recorded == MIN_SAMPLES || recorded % REFRESH_INTERVAL == 0)) {
+                delayNanos = LatencyHistogram.valueAtPercentile(histogram.counts(), PERCENTILE);
+            }
+        }
+    }
+
+    private static final class Hedge<T> {
+        private final HttpResponse.BodyHandler<T> bodyHandler;
+        private final BiFunction<HttpRequest, HttpResponse.BodyHandler<T>, CompletableFuture<HttpResponse<T>>> sender;
+        private final Host host;
+        private final CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final Set<CompletableFuture<HttpResponse<T>>> attempts = ConcurrentHashMap.newKeySet();
+
+        private Hedge(HttpResponse.BodyHandler<T> bodyHandler, BiFunction<HttpRequest, HttpResponse.BodyHandler<T>, CompletableFuture<HttpResponse<T>>> sender, Host host) {
+            this.bodyHandler = bodyHandler;
+            this.sender = sender;
+            this.host = host;
+            // The loser is cancelled once the result is known, the whole exchange is cancelled when the caller cancels the result
+            result.whenComplete((response, throwable) -> attempts.forEach(attempt -> attempt.cancel(true)));
+        }
+
+        private void attempt(HttpRequest request) {
+            pending.incrementAndGet();
+            final long started = System.nanoTime();
+            final AtomicBoolean winner = new AtomicBoolean();
+            final HttpResponse.BodyHandler<T> attemptHandler = responseInfo -> {
+                if (claimed.compareAndSet(false, true)) {
+                    winner.set(true);
+                    if (host != null) {
+                        host.record(System.nanoTime() - started);
+                    }
+                    return bodyHandler.apply(responseInfo);
+                }
+                return HttpResponse.BodySubscribers.replacing(null);
+            };
+            final CompletableFuture<HttpResponse<T>> attempt;
+            try {
+                attempt = sender.apply(request, attemptHandler);
+            } catch (RuntimeException e) {
+                failed(e);
+                return;
+            }
+            attempt.whenComplete((response, throwable) -> {
+                attempts.remove(attempt);
+                if (winner.get()) {
+                    if (throwable == null) {
+                        result.complete(response);
+                    } else {
+                        result.completeExceptionally(throwable);
+                    }
+                } else if (throwable != null) {
+                    failed(throwable);
+                }
+            });
+            if (!attempt.isDone()) {
+                attempts.add(attempt);
+                if (result.isDone()) {
+                    attempt.cancel(true);
+                }
+            }
+        }
+
+        /**
+         * Fails the result once no other attempt can still win.
+         */
+        private void failed(Throwable throwable) {
+            if (pending.decrementAndGet() == 0 && !claimed.get()) {
+                result.completeExceptionally(throwable);
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of fixed size byte segments used to buffer request entities.
+ * A segment is allocated when the pool is empty and dropped when the pool is full.
+ */
+final class SegmentPool {
+
+    static final int SEGMENT_SIZE = 64 * 1024;
+
+    private final Queue<byte[]> segments = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledSegments = new AtomicInteger();
+    private final int capacity;
+
+    SegmentPool(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The pool capacity must be positive but was " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    byte[] acquire() {
+        final byte[] segment = segments.poll();
+        if (segment == null) {
+            return new byte[SEGMENT_SIZE];
+        }
+        pooledSegments.decrementAndGet();
+        return segment;
+    }
+
+    void release(byte[] segment) {
+        if (pooledSegments.incrementAndGet() <= capacity) {
+            segments.offer(segment);
+        } else {
+            pooledSegments.decrementAndGet();
+        }
+    }
+
+    int size() {
+        return pooledSegments.get();
+    }
+}
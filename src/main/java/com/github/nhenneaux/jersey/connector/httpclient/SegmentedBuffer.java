@@ -0,0 +1,186 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import java.io.OutputStream;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Output stream buffering the written bytes in a list of segments instead of a single growing array.
+ * <p>
+ * The buffered content is published as a sequence of {@link ByteBuffer} wrapping the segments with the exact content length,
+ * there is no final copy of the content and the segments are never large enough to be humongous allocations.
+ * The segments are taken from a {@link SegmentPool} when one is given and returned to it by {@link #release()}.
+ */
+final class SegmentedBuffer extends OutputStream {
+
+    static final int MIN_SEGMENT_SIZE = 256;
+    static final int MAX_SEGMENT_SIZE = SegmentPool.SEGMENT_SIZE;
+    private static final int RELEASED = 1 << 30;
+
+    private final SegmentPool pool;
+    private final List<byte[]> segments = new ArrayList<>();
+    /**
+     * The number of active subscriptions with the {@link #RELEASED} bit, updated atomically so the segments are returned exactly once.
+     */
+    private final AtomicInteger state = new AtomicInteger();
+    private byte[] current;
+    private int position;
+    private long size;
+
+    SegmentedBuffer(int sizeHint, SegmentPool pool) {
+        this.pool = pool;
+        this.current = pool == null ? new byte[Math.max(MIN_SEGMENT_SIZE, Math.min(sizeHint, MAX_SEGMENT_SIZE))] : pool.acquire();
+        segments.add(current);
+    }
+
+    @Override
+    public void write(int b) {
+        if (position == current.length) {
+            nextSegment();
+        }
+        current[position++] = (byte) b;
+        size++;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        int remaining = length;
+        int currentOffset = offset;
+        while (remaining > 0) {
+            if (position == current.length) {
+                nextSegment();
+            }
+            final int copied = Math.min(remaining, current.length - position);
+            System.arraycopy(bytes, currentOffset, current, position, copied);
+            position += copied;
+            currentOffset += copied;
+            remaining -= copied;
+        }
+        size += length;
+    }
+
+    private void nextSegment() {
+        current = pool == null ? new byte[Math.min(current.length * 2, MAX_SEGMENT_SIZE)] : pool.acquire();
+        segments.add(current);
+        position = 0;
+    }
+
+    long size() {
+        return size;
+    }
+
+    /**
+     * @return a body publisher with the exact content length, it can be subscribed several times, e.g. when the request is retried.
+     */
+    HttpRequest.BodyPublisher toBodyPublisher() {
+        if (size == 0) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        return HttpRequest.BodyPublishers.fromPublisher(this::subscribe, size);
+    }
+
+    private void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        final SegmentSubscription subscription = new SegmentSubscription(subscriber);
+        final int previous = state.getAndUpdate(current -> (current & RELEASED) == 0 ? current + 1 : current);
+        if ((previous & RELEASED) != 0) {
+            subscription.done.set(true);
+            subscriber.onSubscribe(subscription);
+            subscriber.onError(new IllegalStateException("The request body buffer is already released."));
+            return;
+        }
+        subscriber.onSubscribe(subscription);
+    }
+
+    /**
+     * Returns the segments to the pool once no subscription is publishing them anymore.
+     */
+    void release() {
+        final int previous = state.getAndUpdate(current -> current | RELEASED);
+        if (previous == 0) {
+            returnSegments();
+        }
+    }
+
+    private void unsubscribe() {
+        if (state.decrementAndGet() == RELEASED) {
+            returnSegments();
+        }
+    }
+
+    private void returnSegments() {
+        if (pool == null) {
+            return;
+        }
+        synchronized (segments) {
+            segments.forEach(pool::release);
+            segments.clear();
+        }
+    }
+
+    private ByteBuffer segment(int index) {
+        final byte[] segment = segments.get(index);
+        return ByteBuffer.wrap(segment, 0, index == segments.size() - 1 ? position : segment.length);
+    }
+
+    private final class SegmentSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final int segmentCount = segments.size();
+        private final AtomicBoolean done = new AtomicBoolean();
+        private int index;
+
+        private SegmentSubscription(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                if (finish()) {
+                    subscriber.onError(new IllegalArgumentException("The requested number of segments must be positive but was " + n));
+                }
+                return;
+            }
+            demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            finish();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                while (!done.get() && demand.get() > 0 && index < segmentCount) {
+                    demand.decrementAndGet();
+                    subscriber.onNext(segment(index++));
+                }
+                if (index == segmentCount && finish()) {
+                    subscriber.onComplete();
+                }
+            } while (wip.decrementAndGet() != 0);
+        }
+
+        /**
+         * @return whether this call ended the subscription, only the first of the concurrent calls does
+         */
+        private boolean finish() {
+            if (done.compareAndSet(false, true)) {
+                unsubscribe();
+                return true;
+            }
+            return false;
+        }
+    }
+}
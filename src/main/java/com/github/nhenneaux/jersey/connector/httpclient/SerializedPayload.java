@@ -0,0 +1,54 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Entity already serialized by the application, e.g. a JSON document kept in a cache, sent as is by {@link HttpClientConnector}.
+ * <p>
+ * The bytes are neither copied nor processed by the Jersey message body writers, see {@link BodyPublisherRegistry}.
+ * The {@code Content-Type} of the request describes the payload, it is given by the {@link jakarta.ws.rs.client.Entity} as for any entity.
+ * The payload can be sent many times, the bytes MUST NOT be modified while it is used.
+ */
+public final class SerializedPayload {
+
+    private final ByteBuffer[] buffers;
+    private final long contentLength;
+
+    private SerializedPayload(ByteBuffer[] buffers) {
+        this.buffers = buffers;
+        this.contentLength = Arrays.stream(buffers).mapToLong(ByteBuffer::remaining).sum();
+    }
+
+    public static SerializedPayload of(byte[] bytes) {
+        return of(bytes, 0, bytes.length);
+    }
+
+    public static SerializedPayload of(byte[] bytes, int offset, int length) {
+        return new SerializedPayload(new ByteBuffer[]{ByteBuffer.wrap(bytes, offset, length).slice()});
+    }
+
+    /**
+     * @return the payload made of the remaining bytes of the buffers, the positions of the given buffers are not modified
+     */
+    public static SerializedPayload of(ByteBuffer... buffers) {
+        return new SerializedPayload(Arrays.stream(buffers).map(ByteBuffer::slice).toArray(ByteBuffer[]::new));
+    }
+
+    /**
+     * @return the number of bytes of the payload
+     */
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    HttpRequest.BodyPublisher bodyPublisher() {
+        return ByteBuffersPublisher.of(buffers);
+    }
+
+    @Override
+    public String toString() {
+        return "SerializedPayload{contentLength=" + contentLength + '}';
+    }
+}
@@ -0,0 +1,165 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final HttpRequest REQUEST = HttpRequest.newBuilder(URI.create("https://example.com/item")).build();
+
+    private final List<CompletableFuture<HttpResponse<String>>> sent = new ArrayList<>();
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    @Test
+    void shouldRejectRequestOverLimit() {
+        // Given
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 10, 0);
+        limiter.sendAsync(REQUEST, this::send);
+        limiter.sendAsync(REQUEST, this::send);
+
+        // When
+        final CompletableFuture<HttpResponse<String>> rejected = limiter.sendAsync(REQUEST, this::send);
+
+        // Then
+        final ExecutionException executionException = assertThrows(ExecutionException.class, rejected::get);
+        final ConcurrencyLimitExceededException exception = assertInstanceOf(ConcurrencyLimitExceededException.class, executionException.getCause());
+        assertEquals("example.com", exception.getDestination());
+        assertEquals(2, exception.getLimit());
+        assertEquals(2, sent.size());
+        final AdaptiveConcurrencyLimiter.Snapshot snapshot = limiter.snapshot().get("example.com");
+        assertEquals(2, snapshot.getInFlight());
+        assertEquals(1, snapshot.getRejectedCount());
+    }
+
+    @Test
+    void shouldSendQueuedRequestOnceRequestCompletes() {
+        // Given
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 10, 2);
+        limiter.sendAsync(REQUEST, this::send);
+        final CompletableFuture<HttpResponse<String>> cancelled = limiter.sendAsync(REQUEST, this::send);
+        final CompletableFuture<HttpResponse<String>> queued = limiter.sendAsync(REQUEST, this::send);
+        assertEquals(2, limiter.snapshot().get("example.com").getQueued());
+
+        // When
+        cancelled.cancel(true);
+        sent.get(0).complete(response(200));
+
+        // Then
+        assertEquals(2, sent.size());
+        assertFalse(queued.isDone());
+        sent.get(1).complete(response(200));
+        assertTrue(queued.isDone());
+        assertEquals(0, limiter.snapshot().get("example.com").getInFlight());
+    }
+
+    @Test
+    void shouldDecreaseLimitOncePerWindowOnErrors() {
+        // Given
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 100, 0, nanoTime::get);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            limiter.sendAsync(REQUEST, this::send);
+        }
+        nanoTime.addAndGet(1_000);
+        sent.get(0).complete(response(503));
+        sent.get(1).complete(response(429));
+        sent.get(2).cancel(true);
+        sent.get(3).complete(response(404));
+        limiter.sendAsync(REQUEST, this::send);
+        sent.get(4).completeExceptionally(new IOException("connection reset"));
+        final int limitAfterFirstWindow = limiter.snapshot().get("example.com").getLimit();
+        sent.get(5).completeExceptionally(new IOException("connection reset"));
+
+        // Then
+        final AdaptiveConcurrencyLimiter.Snapshot snapshot = limiter.snapshot().get("example.com");
+        assertEquals(18, limitAfterFirstWindow);
+        assertEquals(16, snapshot.getLimit());
+        assertEquals(0, snapshot.getInFlight());
+    }
+
+    @Test
+    void shouldIncreaseLimitWhenBusyAndDecreaseItWhenLatencyIsRaised() {
+        // Given
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 100, 0, nanoTime::get);
+
+        // When
+        sendRounds(limiter, 50, TimeUnit.MILLISECONDS.toNanos(10));
+        final int limitAfterFastResponses = limiter.snapshot().get("example.com").getLimit();
+        sendRounds(limiter, 3, TimeUnit.MILLISECONDS.toNanos(100));
+
+        // Then
+        assertTrue(limitAfterFastResponses > 20, "Limit " + limitAfterFastResponses);
+        assertTrue(limiter.snapshot().get("example.com").getLimit() < limitAfterFastResponses * 0.8);
+    }
+
+    @Test
+    void shouldAdoptLastingLatencyAsBaseline() {
+        // Given
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 10, 0, nanoTime::get);
+        sendRounds(limiter, 1, TimeUnit.MILLISECONDS.toNanos(10));
+
+        // When
+        sendRounds(limiter, 200, TimeUnit.MILLISECONDS.toNanos(30));
+
+        // Then
+        final AdaptiveConcurrencyLimiter.Snapshot snapshot = limiter.snapshot().get("example.com");
+        assertEquals(10, snapshot.getLimit());
+        assertTrue(snapshot.getLatency().toMillis() >= 20, snapshot.toString());
+    }
+
+    /**
+     * Sends as many requests as the current limit and completes them after the latency.
+     */
+    private void sendRounds(AdaptiveConcurrencyLimiter limiter, int rounds, long latency) {
+        for (int round = 0; round < rounds; round++) {
+            final int first = sent.size();
+            final int limit = Optional.ofNullable(limiter.snapshot().get("example.com")).map(AdaptiveConcurrencyLimiter.Snapshot::getLimit).orElse(4);
+            for (int i = 0; i < limit; i++) {
+                limiter.sendAsync(REQUEST, this::send);
+            }
+            nanoTime.addAndGet(latency);
+            for (int i = first; i < sent.size(); i++) {
+                sent.get(i).complete(response(200));
+            }
+        }
+    }
+
+    @Test
+    void shouldValidateLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(0, 10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(10, 5, 0));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(1, 5, -1));
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(HttpRequest request) {
+        final CompletableFuture<HttpResponse<String>> future = new CompletableFuture<>();
+        sent.add(future);
+        return future;
+    }
+
+    private static HttpResponse<String> response(int statusCode) {
+        @SuppressWarnings("unchecked") final HttpResponse<String> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(statusCode);
+        return response;
+    }
+}
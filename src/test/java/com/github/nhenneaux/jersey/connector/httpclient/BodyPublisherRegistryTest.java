@@ -0,0 +1,147 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import jakarta.ws.rs.core.MediaType;
+import org.glassfish.jersey.client.ClientRequest;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BodyPublisherRegistryTest {
+
+    private static final String EURO_PRICE = "10\u20ac";
+    private static final byte[] CONTENT = "{\"price\":\"10\u20ac\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void shouldEncodeCharSequenceWithCharsetOfContentType() {
+        // Given
+        final BodyPublisherRegistry registry = new BodyPublisherRegistry();
+        final ClientRequest clientRequest = request(new MediaType("text", "plain", Map.of(MediaType.CHARSET_PARAMETER, "ISO-8859-15")));
+
+        // When
+        final HttpRequest.BodyPublisher bodyPublisher = registry.newPublisher(new StringBuilder(EURO_PRICE), clientRequest);
+
+        // Then
+        assertArrayEquals(EURO_PRICE.getBytes(Charset.forName("ISO-8859-15")), publishedBytes(bodyPublisher));
+        assertEquals(3, bodyPublisher.contentLength());
+        assertArrayEquals(EURO_PRICE.getBytes(StandardCharsets.UTF_8), publishedBytes(registry.newPublisher(EURO_PRICE, request(MediaType.TEXT_PLAIN_TYPE))));
+    }
+
+    @Test
+    void shouldPublishBuiltInTypesWithLength() throws Exception {
+        // Given
+        final BodyPublisherRegistry registry = new BodyPublisherRegistry();
+        final ClientRequest clientRequest = request(MediaType.APPLICATION_JSON_TYPE);
+        final Path file = Files.write(Files.createTempFile("body", ".json"), CONTENT);
+
+        try {
+            // When Then
+            for (Object entity : List.of(CONTENT, ByteBuffer.wrap(CONTENT), new ByteBuffer[]{ByteBuffer.wrap(CONTENT, 0, 4), ByteBuffer.wrap(CONTENT, 4, CONTENT.length - 4)},
+                    file, file.toFile(), SerializedPayload.of(CONTENT), HttpRequest.BodyPublishers.ofByteArray(CONTENT))) {
+                final HttpRequest.BodyPublisher bodyPublisher = registry.newPublisher(entity, clientRequest);
+                assertEquals(CONTENT.length, bodyPublisher.contentLength(), entity.getClass().getName());
+                assertArrayEquals(CONTENT, publishedBytes(bodyPublisher), entity.getClass().getName());
+            }
+            final HttpRequest.BodyPublisher streamPublisher = registry.newPublisher(new ByteArrayInputStream(CONTENT), clientRequest);
+            assertEquals(-1, streamPublisher.contentLength());
+            assertArrayEquals(CONTENT, publishedBytes(streamPublisher));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void shouldFailToPublishInputStreamTwice() {
+        // Given
+        final BodyPublisherRegistry registry = new BodyPublisherRegistry();
+        final HttpRequest.BodyPublisher bodyPublisher = registry.newPublisher(new ByteArrayInputStream(CONTENT), request(MediaType.APPLICATION_JSON_TYPE));
+        assertArrayEquals(CONTENT, publishedBytes(bodyPublisher));
+
+        // When the HTTP client resends the request
+        final OutputStreamPublisherTest.RecordingSubscriber subscriber = new OutputStreamPublisherTest.RecordingSubscriber(Long.MAX_VALUE);
+        bodyPublisher.subscribe(subscriber);
+
+        // Then
+        assertInstanceOf(IllegalStateException.class, subscriber.error.get());
+        assertTrue(subscriber.items.isEmpty());
+    }
+
+    @Test
+    void shouldPreferLatestRegistration() {
+        // Given
+        final HttpRequest.BodyPublisher custom = HttpRequest.BodyPublishers.ofString("custom");
+        final BodyPublisherRegistry registry = new BodyPublisherRegistry()
+                .register(String.class, (text, request) -> custom);
+
+        // When
+        final HttpRequest.BodyPublisher bodyPublisher = registry.newPublisher("text", request(MediaType.TEXT_PLAIN_TYPE));
+
+        // Then
+        assertSame(custom, bodyPublisher);
+        assertEquals(4, registry.newPublisher(new StringBuilder("text"), request(MediaType.TEXT_PLAIN_TYPE)).contentLength());
+    }
+
+    @Test
+    void shouldLeaveOtherTypesToMessageBodyWriters() {
+        // Given
+        final BodyPublisherRegistry registry = new BodyPublisherRegistry()
+                .register(DummyRestService.Data.class, (data, request) -> null);
+
+        // When Then
+        assertNull(registry.newPublisher(new Object(), request(MediaType.APPLICATION_JSON_TYPE)));
+        assertNull(registry.newPublisher(new DummyRestService.Data("data"), request(MediaType.APPLICATION_JSON_TYPE)));
+    }
+
+    @Test
+    void shouldFailWhenFileDoesNotExist() {
+        // Given
+        final BodyPublisherRegistry registry = new BodyPublisherRegistry();
+        final Path missing = Path.of("missing-" + System.nanoTime() + ".json");
+        final ClientRequest clientRequest = request(MediaType.APPLICATION_JSON_TYPE);
+
+        // When
+        final UncheckedIOException exception = assertThrows(UncheckedIOException.class, () -> registry.newPublisher(missing, clientRequest));
+
+        // Then
+        assertTrue(exception.getMessage().contains(missing.toString()));
+    }
+
+    private static ClientRequest request(MediaType mediaType) {
+        final ClientRequest clientRequest = mock(ClientRequest.class);
+        when(clientRequest.getMediaType()).thenReturn(mediaType);
+        return clientRequest;
+    }
+
+    static byte[] publishedBytes(HttpRequest.BodyPublisher bodyPublisher) {
+        final OutputStreamPublisherTest.RecordingSubscriber subscriber = new OutputStreamPublisherTest.RecordingSubscriber(Long.MAX_VALUE);
+        bodyPublisher.subscribe(subscriber);
+        assertTrue(subscriber.completed.get());
+        final List<ByteBuffer> items = subscriber.items;
+        final byte[] published = new byte[items.stream().mapToInt(ByteBuffer::remaining).sum()];
+        int position = 0;
+        for (ByteBuffer item : items) {
+            final int length = item.remaining();
+            item.get(published, position, length);
+            position += length;
+        }
+        return published;
+    }
+}
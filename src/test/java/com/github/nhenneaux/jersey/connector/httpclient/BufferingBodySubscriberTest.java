@@ -0,0 +1,138 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BufferingBodySubscriberTest {
+
+    @Test
+    void shouldCompleteBodyOnceFullyReceived() throws IOException, ExecutionException, InterruptedException {
+        // Given
+        final HttpResponse.BodySubscriber<InputStream> subscriber = BufferingBodySubscriber.handler(16).apply(responseInfo(Map.of()));
+        final AtomicLong demand = subscribe(subscriber);
+
+        // When
+        subscriber.onNext(List.of(buffer("0123"), buffer("4567")));
+        final boolean completedBeforeEnd = subscriber.getBody().toCompletableFuture().isDone();
+        subscriber.onNext(List.of(buffer("89")));
+        subscriber.onComplete();
+
+        // Then
+        assertFalse(completedBeforeEnd);
+        assertEquals(3, demand.get());
+        try (InputStream body = subscriber.getBody().toCompletableFuture().get()) {
+            assertEquals("0123456789", new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void shouldStreamWhenLargerThanLimit() throws IOException, ExecutionException, InterruptedException {
+        // Given
+        final HttpResponse.BodySubscriber<InputStream> subscriber = BufferingBodySubscriber.handler(6).apply(responseInfo(Map.of()));
+        final AtomicLong demand = subscribe(subscriber);
+
+        // When
+        subscriber.onNext(List.of(buffer("0123")));
+        subscriber.onNext(List.of(buffer("4567")));
+
+        // Then
+        final CompletableFuture<InputStream> body = subscriber.getBody().toCompletableFuture();
+        assertTrue(body.isDone());
+        try (InputStream inputStream = body.get()) {
+            assertEquals("01234567", new String(inputStream.readNBytes(8), StandardCharsets.UTF_8));
+            assertEquals(3, demand.get());
+            subscriber.onNext(List.of(buffer("89")));
+            subscriber.onComplete();
+            assertEquals("89", new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void shouldStreamWhenContentLengthLargerThanLimit() {
+        final HttpResponse.BodySubscriber<InputStream> subscriber = BufferingBodySubscriber.handler(6).apply(responseInfo(Map.of("content-length", List.of("7"))));
+
+        assertFalse(subscriber instanceof BufferingBodySubscriber);
+    }
+
+    @Test
+    void shouldFailBodyOnError() {
+        // Given
+        final HttpResponse.BodySubscriber<InputStream> subscriber = BufferingBodySubscriber.handler(16).apply(responseInfo(Map.of()));
+        subscribe(subscriber);
+        final IOException ioException = new IOException(UUID.randomUUID().toString());
+
+        // When
+        subscriber.onError(ioException);
+
+        // Then
+        final ExecutionException executionException = assertThrows(ExecutionException.class, () -> subscriber.getBody().toCompletableFuture().get());
+        assertSame(ioException, executionException.getCause());
+    }
+
+    @Test
+    void shouldBufferWhenContentLengthWithinLimit() {
+        final HttpResponse.BodySubscriber<InputStream> subscriber = BufferingBodySubscriber.handler(6).apply(responseInfo(Map.of("content-length", List.of("6"))));
+
+        assertInstanceOf(BufferingBodySubscriber.class, subscriber);
+    }
+
+    private static AtomicLong subscribe(HttpResponse.BodySubscriber<InputStream> subscriber) {
+        final AtomicLong demand = new AtomicLong();
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                demand.addAndGet(n);
+            }
+
+            @Override
+            public void cancel() {
+                // nothing to cancel
+            }
+        });
+        return demand;
+    }
+
+    private static ByteBuffer buffer(String content) {
+        return ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static HttpResponse.ResponseInfo responseInfo(Map<String, List<String>> headers) {
+        return new HttpResponse.ResponseInfo() {
+            @Override
+            public int statusCode() {
+                return 200;
+            }
+
+            @Override
+            public HttpHeaders headers() {
+                return HttpHeaders.of(headers, (name, value) -> true);
+            }
+
+            @Override
+            public HttpClient.Version version() {
+                return HttpClient.Version.HTTP_1_1;
+            }
+        };
+    }
+}
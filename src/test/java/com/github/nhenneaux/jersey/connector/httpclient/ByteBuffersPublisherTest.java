@@ -0,0 +1,64 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ByteBuffersPublisherTest {
+
+    @Test
+    void shouldPublishRemainingBytesOnDemandWithoutModifyingBuffers() {
+        // Given
+        final ByteBuffer first = ByteBuffer.wrap("--0123".getBytes(StandardCharsets.UTF_8)).position(2);
+        final ByteBuffer second = ByteBuffer.allocateDirect(4).put("4567".getBytes(StandardCharsets.UTF_8)).flip();
+        final HttpRequest.BodyPublisher bodyPublisher = ByteBuffersPublisher.of(first, second);
+        final OutputStreamPublisherTest.RecordingSubscriber subscriber = new OutputStreamPublisherTest.RecordingSubscriber(1);
+
+        // When
+        bodyPublisher.subscribe(subscriber);
+
+        // Then
+        assertEquals(8, bodyPublisher.contentLength());
+        assertEquals(List.of("0123"), subscriber.chunks());
+        assertFalse(subscriber.completed.get());
+        subscriber.subscription.get().request(1);
+        assertEquals(List.of("0123", "4567"), subscriber.chunks());
+        assertTrue(subscriber.completed.get());
+        assertEquals(2, first.position());
+        assertEquals(0, second.position());
+    }
+
+    @Test
+    void shouldPublishAgainToEachSubscriber() {
+        // Given
+        final HttpRequest.BodyPublisher bodyPublisher = ByteBuffersPublisher.of(ByteBuffer.wrap("0123".getBytes(StandardCharsets.UTF_8)));
+
+        // When Then
+        assertArrayEquals("0123".getBytes(StandardCharsets.UTF_8), BodyPublisherRegistryTest.publishedBytes(bodyPublisher));
+        assertArrayEquals("0123".getBytes(StandardCharsets.UTF_8), BodyPublisherRegistryTest.publishedBytes(bodyPublisher));
+    }
+
+    @Test
+    void shouldRejectNonPositiveDemand() {
+        // Given
+        final HttpRequest.BodyPublisher bodyPublisher = ByteBuffersPublisher.of(ByteBuffer.wrap(new byte[]{1}));
+        final OutputStreamPublisherTest.RecordingSubscriber subscriber = new OutputStreamPublisherTest.RecordingSubscriber(0);
+        bodyPublisher.subscribe(subscriber);
+
+        // When
+        subscriber.subscription.get().request(0);
+
+        // Then
+        assertInstanceOf(IllegalArgumentException.class, subscriber.error.get());
+        assertEquals(List.of(), subscriber.items);
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompressingOutputStreamTest {
+
+    private final ByteArrayOutputStream target = new ByteArrayOutputStream();
+    private final List<Boolean> decisions = new ArrayList<>();
+
+    @Test
+    void shouldCompressEntityExceedingThreshold() throws IOException {
+        // Given
+        final byte[] entity = "compressible ".repeat(1000).getBytes(StandardCharsets.UTF_8);
+
+        // When
+        try (CompressingOutputStream outputStream = newStream(100)) {
+            for (int offset = 0; offset < entity.length; offset += 7) {
+                outputStream.write(entity, offset, Math.min(7, entity.length - offset));
+            }
+        }
+
+        // Then
+        assertEquals(List.of(true), decisions);
+        try (InputStream decoded = ContentCoding.decode("gzip", new ByteArrayInputStream(target.toByteArray()))) {
+            assertArrayEquals(entity, decoded.readAllBytes());
+        }
+    }
+
+    @Test
+    void shouldSendSmallEntityAsIs() throws IOException {
+        // Given
+        final byte[] entity = "small".getBytes(StandardCharsets.UTF_8);
+
+        // When
+        try (CompressingOutputStream outputStream = newStream(100)) {
+            outputStream.write(entity);
+            outputStream.write('!');
+        }
+
+        // Then
+        assertEquals(List.of(false), decisions);
+        assertEquals("small!", target.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldSendEntityAsIsWhenFlushedBeforeThreshold() throws IOException {
+        // Given
+        final CompressingOutputStream outputStream = newStream(100);
+        outputStream.write("first".getBytes(StandardCharsets.UTF_8));
+
+        // When
+        outputStream.flush();
+        outputStream.write(new byte[500]);
+        outputStream.close();
+
+        // Then
+        assertEquals(List.of(false), decisions);
+        assertEquals(505, target.size());
+    }
+
+    private CompressingOutputStream newStream(int threshold) {
+        return new CompressingOutputStream(threshold, compressed -> {
+            decisions.add(compressed);
+            return target;
+        });
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConnectionWarmUpTest {
+
+    private static final URI FIRST = URI.create("https://first.example.com");
+    private static final URI SECOND = URI.create("https://second.example.com");
+
+    @Test
+    void shouldParseOrigins() {
+        assertEquals(List.of(FIRST, SECOND), ConnectionWarmUp.parseOrigins("https://first.example.com, https://second.example.com,"));
+        assertEquals(List.of(FIRST, SECOND), ConnectionWarmUp.parseOrigins(List.of(FIRST, SECOND.toString())));
+    }
+
+    @Test
+    void shouldSendWarmUpRequestToEachOriginWithEachClient() {
+        // Given
+        final HttpClient first = mock(HttpClient.class);
+        final HttpClient second = mock(HttpClient.class);
+        when(first.<Void>sendAsync(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(second.<Void>sendAsync(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        final ConnectionWarmUp.Result result = ConnectionWarmUp.warmUp(List.of(first, second), List.of(FIRST, SECOND), "OPTIONS", Duration.ofSeconds(1));
+
+        // Then
+        assertTrue(result.isSucceeded());
+        assertEquals(List.of(FIRST, SECOND), result.getOrigins());
+        verify(first).sendAsync(argThat(request -> request.uri().equals(FIRST) && request.method().equals("OPTIONS")), any());
+        verify(second).sendAsync(argThat((HttpRequest request) -> request.uri().equals(SECOND)), any());
+    }
+
+    @Test
+    void shouldReportFailedAndPendingOrigins() {
+        // Given
+        final HttpClient client = mock(HttpClient.class);
+        final ConnectException refused = new ConnectException("refused");
+        final CompletableFuture<HttpResponse<Void>> pending = new CompletableFuture<>();
+        when(client.<Void>sendAsync(any(), any())).thenReturn(CompletableFuture.failedFuture(refused), pending);
+
+        // When
+        final ConnectionWarmUp.Result result = ConnectionWarmUp.warmUp(List.of(client), List.of(FIRST, SECOND), "HEAD", Duration.ofMillis(50));
+
+        // Then the pending exchange is cancelled once the deadline is reached
+        assertFalse(result.isSucceeded());
+        assertSame(refused, result.getFailures().get(FIRST));
+        assertInstanceOf(HttpTimeoutException.class, result.getFailures().get(SECOND));
+        assertTrue(pending.isCancelled());
+        assertTrue(result.getDuration().compareTo(Duration.ofMillis(50)) >= 0);
+    }
+}
@@ -0,0 +1,108 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import jakarta.ws.rs.core.Configuration;
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.ClientRequest;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConnectorSettingsTest {
+
+    @Test
+    void shouldComputeSettingsOncePerConfiguration() {
+        // Given
+        final HttpClientConnector connector = new HttpClientConnector(mock(HttpClient.class));
+        final Configuration configuration = configuration(Map.of(
+                ClientProperties.READ_TIMEOUT, 1_000,
+                ClientProperties.REQUEST_ENTITY_PROCESSING, "CHUNKED",
+                ClientProperties.CHUNKED_ENCODING_SIZE, 512));
+        final ClientRequest clientRequest = mock(ClientRequest.class);
+        when(clientRequest.getConfiguration()).thenReturn(configuration);
+
+        // When
+        final ConnectorSettings settings = connector.settings(clientRequest);
+
+        // Then
+        assertSame(settings, connector.settings(clientRequest));
+        assertEquals(Optional.of(Duration.ofSeconds(1)), settings.readTimeout());
+        assertTrue(settings.chunked());
+        assertEquals(512, settings.chunkSize());
+    }
+
+    @Test
+    void shouldConvertStringValues() {
+        // Given
+        final HttpClientConnector connector = new HttpClientConnector(mock(HttpClient.class));
+        final Configuration configuration = configuration(Map.of(
+                ClientProperties.READ_TIMEOUT, "1000",
+                ClientProperties.CHUNKED_ENCODING_SIZE, "512"));
+        final ClientRequest clientRequest = mock(ClientRequest.class);
+        when(clientRequest.getConfiguration()).thenReturn(configuration);
+
+        // When
+        final ConnectorSettings settings = connector.settings(clientRequest);
+
+        // Then
+        assertEquals(Optional.of(Duration.ofSeconds(1)), settings.readTimeout());
+        assertEquals(512, settings.chunkSize());
+        assertEquals(Optional.of(Duration.ofSeconds(1)), ConnectorSettings.getDurationTimeout(configuration, ClientProperties.READ_TIMEOUT));
+    }
+
+    @Test
+    void shouldComputeSettingsAgainForAnotherConfiguration() {
+        // Given
+        final HttpClientConnector connector = new HttpClientConnector(mock(HttpClient.class));
+        final Configuration configuration = configuration(Map.of());
+        final Configuration otherConfiguration = configuration(Map.of(ClientProperties.REQUEST_ENTITY_PROCESSING, "CHUNKED"));
+        final ClientRequest clientRequest = mock(ClientRequest.class);
+        when(clientRequest.getConfiguration()).thenReturn(configuration);
+        final ConnectorSettings settings = connector.settings(clientRequest);
+
+        // When
+        when(clientRequest.getConfiguration()).thenReturn(otherConfiguration);
+
+        // Then
+        final ConnectorSettings otherSettings = connector.settings(clientRequest);
+        assertNotSame(settings, otherSettings);
+        assertFalse(settings.chunked());
+        assertTrue(otherSettings.chunked());
+        assertEquals(ClientProperties.DEFAULT_CHUNK_SIZE, settings.chunkSize());
+        assertEquals(Optional.empty(), settings.readTimeout());
+    }
+
+    @Test
+    void shouldLetRequestOverrideConfiguration() {
+        // Given
+        final ConnectorSettings settings = ConnectorSettings.of(configuration(Map.of(
+                HttpClientConnectorProperties.LAZY_RESPONSE_HEADERS, true,
+                HttpClientConnectorProperties.ASYNC_BODY_BUFFER_SIZE, "1024")));
+        final ClientRequest clientRequest = mock(ClientRequest.class);
+
+        // Then
+        assertTrue(settings.lazyResponseHeaders(clientRequest));
+        assertEquals(1024, settings.asyncBodyBufferSize(clientRequest));
+
+        when(clientRequest.getProperty(HttpClientConnectorProperties.ASYNC_BODY_BUFFER_SIZE)).thenReturn(16);
+        when(clientRequest.resolveProperty(HttpClientConnectorProperties.ASYNC_BODY_BUFFER_SIZE, Integer.class)).thenReturn(16);
+        assertEquals(16, settings.asyncBodyBufferSize(clientRequest));
+    }
+
+    private static Configuration configuration(Map<String, Object> properties) {
+        final Configuration configuration = mock(Configuration.class);
+        when(configuration.getProperties()).thenReturn(properties);
+        properties.forEach((name, value) -> when(configuration.getProperty(name)).thenReturn(value));
+        return configuration;
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpHeaders;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContentCodingTest {
+
+    @Test
+    void shouldDecodeGzipAndDeflate() throws IOException {
+        // Given
+        final byte[] entity = "compressed entity ".repeat(100).getBytes(StandardCharsets.UTF_8);
+        final ByteArrayOutputStream deflated = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(deflated)) {
+            deflaterOutputStream.write(entity);
+        }
+
+        // When
+        final byte[] gunzipped;
+        try (InputStream decoded = ContentCoding.decode("gzip", new ByteArrayInputStream(ContentCoding.gzip(entity)))) {
+            gunzipped = decoded.readAllBytes();
+        }
+        final byte[] inflated;
+        try (InputStream decoded = ContentCoding.decode("deflate", new ByteArrayInputStream(deflated.toByteArray()))) {
+            inflated = decoded.readAllBytes();
+        }
+
+        // Then
+        assertEquals(new String(entity, StandardCharsets.UTF_8), new String(gunzipped, StandardCharsets.UTF_8));
+        assertEquals(new String(entity, StandardCharsets.UTF_8), new String(inflated, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldNotReadBeforeFirstRead() throws IOException {
+        // Given
+        final ByteArrayInputStream encoded = new ByteArrayInputStream(ContentCoding.gzip(new byte[]{1, 2, 3}));
+
+        // When
+        final InputStream decoded = ContentCoding.decode("gzip", encoded);
+
+        // Then
+        assertEquals(0, decoded.available());
+        assertEquals(23, encoded.available());
+        assertEquals(1, decoded.read());
+    }
+
+    @Test
+    void shouldRemoveCodingAndLengthOfDecodedResponse() {
+        // Given
+        final HttpHeaders headers = HttpHeaders.of(Map.of(
+                "content-encoding", List.of("GZIP"),
+                "content-length", List.of("42"),
+                "content-type", List.of("application/json")), (name, value) -> true);
+
+        // When
+        final Optional<String> encoding = ContentCoding.decodableEncoding(headers);
+        final HttpHeaders decodedHeaders = ContentCoding.decodedHeaders(headers);
+
+        // Then
+        assertEquals(Optional.of("gzip"), encoding);
+        assertEquals(Map.of("content-type", List.of("application/json")), decodedHeaders.map());
+        assertFalse(ContentCoding.decodableEncoding(HttpHeaders.of(Map.of("content-encoding", List.of("br")), (name, value) -> true)).isPresent());
+        assertTrue(ContentCoding.decodableEncoding(HttpHeaders.of(Map.of("content-encoding", List.of("x-gzip")), (name, value) -> true)).isPresent());
+    }
+}
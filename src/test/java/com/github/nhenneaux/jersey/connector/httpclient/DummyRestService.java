@@ -8,12 +8,18 @@ import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Path("/")
 public class DummyRestService {
 
+    private static final AtomicInteger CACHEABLE_BODY_COUNT = new AtomicInteger();
+
     @HEAD
     @Path("ping")
     public void ping() {
@@ -27,6 +33,52 @@ public class DummyRestService {
         return sleepTimeInMilliseconds;
     }
 
+    @GET
+    @Path("stallingBody")
+    @Produces(MediaType.APPLICATION_OCTET_STREAM)
+    public StreamingOutput stallingBody(@QueryParam("stallTimeInMilliseconds") long stallTimeInMilliseconds) {
+        return output -> {
+            output.write(new byte[]{1, 2, 3});
+            output.flush();
+            try {
+                TimeUnit.MILLISECONDS.sleep(stallTimeInMilliseconds);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            output.write(new byte[]{4, 5, 6});
+        };
+    }
+
+    @GET
+    @Path("cacheableBody")
+    @Produces(MediaType.APPLICATION_OCTET_STREAM)
+    public Response cacheableBody(@QueryParam("sleepTimeInMilliseconds") long sleepTimeInMilliseconds) throws InterruptedException {
+        CACHEABLE_BODY_COUNT.incrementAndGet();
+        TimeUnit.MILLISECONDS.sleep(sleepTimeInMilliseconds);
+        return Response.ok(new byte[]{1, 2, 3, 4, 5, 6})
+                .header("Cache-Control", "max-age=60")
+                .build();
+    }
+
+    @GET
+    @Path("cacheableBodyCount")
+    public int cacheableBodyCount() {
+        return CACHEABLE_BODY_COUNT.get();
+    }
+
+    @GET
+    @Path("lines")
+    @Produces("application/x-ndjson")
+    public StreamingOutput lines(@QueryParam("count") int count) {
+        return output -> {
+            for (int i = 0; i < count; i++) {
+                output.write(("{\"id\":" + i + "}\n").getBytes(StandardCharsets.UTF_8));
+                output.flush();
+            }
+        };
+    }
+
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
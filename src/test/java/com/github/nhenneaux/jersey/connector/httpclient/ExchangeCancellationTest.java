@@ -0,0 +1,80 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExchangeCancellationTest {
+
+    private static final HttpRequest REQUEST = HttpRequest.newBuilder(URI.create("https://localhost/cancel")).build();
+
+    @Test
+    void shouldCancelExchangeWhenResultIsCancelled() {
+        // Given
+        final ExchangeCancellation cancellation = new ExchangeCancellation();
+        final CompletableFuture<HttpResponse<InputStream>> exchange = new CompletableFuture<>();
+        final CompletableFuture<HttpResponse<InputStream>> sent = cancellation.sender(request -> exchange).apply(REQUEST);
+        final CompletableFuture<Integer> result = cancellation.bind(sent.thenApply(HttpResponse::statusCode));
+
+        // When
+        result.cancel(true);
+
+        // Then
+        assertTrue(exchange.isCancelled());
+    }
+
+    @Test
+    void shouldNotSendOnceCancelled() {
+        // Given
+        final ExchangeCancellation cancellation = new ExchangeCancellation();
+        final AtomicBoolean sent = new AtomicBoolean();
+        cancellation.cancel();
+
+        // When
+        final CompletableFuture<HttpResponse<InputStream>> response = cancellation.sender(request -> {
+            sent.set(true);
+            return new CompletableFuture<>();
+        }).apply(REQUEST);
+
+        // Then
+        assertFalse(sent.get());
+        assertTrue(response.isCompletedExceptionally());
+        assertThrows(CancellationException.class, response::get);
+    }
+
+    @Test
+    void shouldPropagateCancellationToSource() {
+        // Given
+        final CompletableFuture<String> source = new CompletableFuture<>();
+        final CompletableFuture<Integer> derived = ExchangeCancellation.propagate(source.thenApply(String::length), source);
+
+        // When
+        derived.cancel(true);
+
+        // Then
+        assertTrue(source.isCancelled());
+    }
+
+    @Test
+    void shouldNotCancelSourceWhenDerivedFails() {
+        // Given
+        final CompletableFuture<String> source = new CompletableFuture<>();
+        final CompletableFuture<Integer> derived = ExchangeCancellation.propagate(source.thenApply(String::length), source);
+
+        // When
+        derived.completeExceptionally(new IllegalStateException());
+
+        // Then
+        assertFalse(source.isCancelled());
+    }
+}
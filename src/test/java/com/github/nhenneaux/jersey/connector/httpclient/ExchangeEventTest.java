@@ -0,0 +1,90 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ExchangeEventTest {
+
+    @Test
+    void shouldNotCreateEventWhenDisabled() {
+        assertNull(ExchangeEvent.newEventIfEnabled());
+    }
+
+    @Test
+    void shouldRecordExchange() throws IOException {
+        // Given
+        final HttpClient httpClient = mock(HttpClient.class);
+        final HttpResponse.ResponseInfo responseInfo = mock(HttpResponse.ResponseInfo.class);
+        when(responseInfo.statusCode()).thenReturn(201);
+        when(responseInfo.version()).thenReturn(HttpClient.Version.HTTP_2);
+        @SuppressWarnings("unchecked") final HttpResponse<InputStream> httpResponse = mock(HttpResponse.class);
+        when(httpResponse.statusCode()).thenReturn(201);
+        when(httpResponse.headers()).thenReturn(HttpHeaders.of(Map.of("content-length", List.of("4")), (name, value) -> true));
+        when(httpResponse.body()).thenReturn(new ByteArrayInputStream(new byte[]{1, 2, 3, 4}));
+        when(httpClient.<InputStream>sendAsync(any(), any())).thenAnswer(invocation -> {
+            final HttpResponse.BodyHandler<InputStream> bodyHandler = invocation.getArgument(1);
+            bodyHandler.apply(responseInfo);
+            return CompletableFuture.completedFuture(httpResponse);
+        });
+        final HttpClientConnector connector = new HttpClientConnector(httpClient);
+        final ClientRequest clientRequest = mock(ClientRequest.class);
+        when(clientRequest.getUri()).thenReturn(URI.create("https://example.com/post"));
+        when(clientRequest.getMethod()).thenReturn("POST");
+        when(clientRequest.getEntity()).thenReturn("payload");
+        when(clientRequest.getRequestHeaders()).thenReturn(new MultivaluedHashMap<>());
+        final Path recordingFile = Files.createTempFile("exchange", ".jfr");
+
+        // When
+        try (Recording recording = new Recording()) {
+            recording.enable(ExchangeEvent.NAME);
+            recording.start();
+            final ClientResponse response = connector.apply(clientRequest);
+            try (InputStream entityStream = response.getEntityStream()) {
+                entityStream.readAllBytes();
+            }
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        // Then
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+        Files.delete(recordingFile);
+        assertEquals(1, events.size());
+        final RecordedEvent event = events.get(0);
+        assertEquals("POST", event.getString("method"));
+        assertEquals("example.com", event.getString("host"));
+        assertEquals("HTTP_2", event.getString("version"));
+        assertEquals(201, event.getInt("status"));
+        assertEquals(7L, event.getLong("requestSize"));
+        assertEquals(4L, event.getLong("responseSize"));
+        assertFalse(event.getBoolean("chunked"));
+        assertNull(event.getString("failure"));
+        assertTrue(event.getDuration().toNanos() >= event.getDuration("timeToFirstByte").toNanos());
+    }
+}
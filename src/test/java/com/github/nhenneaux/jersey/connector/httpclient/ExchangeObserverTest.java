@@ -0,0 +1,138 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class ExchangeObserverTest {
+
+    @Test
+    void shouldNotifyPhasesOfExchange() throws IOException {
+        // Given
+        final byte[] body = {1, 2, 3};
+        final HttpClient httpClient = mock(HttpClient.class);
+        final HttpResponse.ResponseInfo responseInfo = mock(HttpResponse.ResponseInfo.class);
+        when(responseInfo.statusCode()).thenReturn(200);
+        when(responseInfo.version()).thenReturn(HttpClient.Version.HTTP_2);
+        @SuppressWarnings("unchecked") final HttpResponse<InputStream> httpResponse = mock(HttpResponse.class);
+        when(httpResponse.statusCode()).thenReturn(200);
+        when(httpResponse.headers()).thenReturn(HttpHeaders.of(Map.of("content-length", List.of("3")), (name, value) -> true));
+        when(httpResponse.body()).thenReturn(new ByteArrayInputStream(body));
+        when(httpClient.<InputStream>sendAsync(any(), any())).thenAnswer(invocation -> {
+            final HttpResponse.BodyHandler<InputStream> bodyHandler = invocation.getArgument(1);
+            bodyHandler.apply(responseInfo);
+            return CompletableFuture.completedFuture(httpResponse);
+        });
+        final HttpClientConnectorListener listener = mock(HttpClientConnectorListener.class);
+        final HttpClientConnector connector = new HttpClientConnector(httpClient, request -> listener);
+
+        // When
+        final ClientResponse response = connector.apply(getRequest());
+        try (InputStream entityStream = response.getEntityStream()) {
+            assertArrayEquals(body, entityStream.readAllBytes());
+        }
+
+        // Then
+        final InOrder inOrder = inOrder(listener);
+        inOrder.verify(listener).requestBuildStarted(anyLong());
+        inOrder.verify(listener).sendDispatched(any(HttpRequest.class), anyLong());
+        inOrder.verify(listener).responseHeadersReceived(eq(200), eq(HttpClient.Version.HTTP_2), anyLong());
+        inOrder.verify(listener).bodyConsumed(eq(3L), anyLong());
+        inOrder.verify(listener).bodyClosed(eq(3L), anyLong());
+        verifyNoMoreInteractions(listener);
+    }
+
+    @Test
+    void shouldNotifyBodyReadFailure() throws IOException {
+        // Given
+        final HttpClient httpClient = mock(HttpClient.class);
+        final IOException ioException = new IOException("connection reset");
+        final InputStream truncatedBody = new SequenceInputStream(new ByteArrayInputStream(new byte[]{1, 2}), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw ioException;
+            }
+        });
+        @SuppressWarnings("unchecked") final HttpResponse<InputStream> httpResponse = mock(HttpResponse.class);
+        when(httpResponse.statusCode()).thenReturn(200);
+        when(httpResponse.headers()).thenReturn(HttpHeaders.of(Map.of("content-length", List.of("3")), (name, value) -> true));
+        when(httpResponse.body()).thenReturn(truncatedBody);
+        when(httpClient.<InputStream>sendAsync(any(), any())).thenReturn(CompletableFuture.completedFuture(httpResponse));
+        final HttpClientConnectorListener listener = mock(HttpClientConnectorListener.class);
+        final HttpClientConnector connector = new HttpClientConnector(httpClient, request -> listener);
+        final ClientResponse response = connector.apply(getRequest());
+
+        // When
+        try (InputStream entityStream = response.getEntityStream()) {
+            assertSame(ioException, assertThrows(IOException.class, entityStream::readAllBytes));
+        }
+
+        // Then the truncated body is notified as a failure and not as consumed
+        verify(listener).bodyFailed(eq(ioException), eq(2L), anyLong());
+        verify(listener, never()).bodyConsumed(anyLong(), anyLong());
+        verify(listener).bodyClosed(eq(2L), anyLong());
+    }
+
+    @Test
+    void shouldNotifyFailureOnce() {
+        // Given
+        final HttpClient httpClient = mock(HttpClient.class);
+        final IOException ioException = new IOException("connection reset");
+        when(httpClient.<InputStream>sendAsync(any(), any())).thenReturn(CompletableFuture.failedFuture(ioException));
+        final HttpClientConnectorListener listener = mock(HttpClientConnectorListener.class);
+        final HttpClientConnector connector = new HttpClientConnector(httpClient, request -> listener);
+
+        // When
+        final ProcessingException processingException = assertThrows(ProcessingException.class, () -> connector.apply(getRequest()));
+
+        // Then
+        assertSame(ioException, processingException.getCause());
+        verify(listener, times(1)).failed(eq(ioException), anyLong());
+        verify(listener, never()).responseHeadersReceived(any(Integer.class), any(), anyLong());
+    }
+
+    @Test
+    void shouldNotObserveWhenFactoryReturnsNull() {
+        assertNull(ExchangeObserver.of(null, mock(ClientRequest.class)));
+        assertNull(ExchangeObserver.of(request -> null, mock(ClientRequest.class)));
+    }
+
+    private static ClientRequest getRequest() {
+        final ClientRequest clientRequest = mock(ClientRequest.class);
+        when(clientRequest.getUri()).thenReturn(URI.create("https://localhost/get"));
+        when(clientRequest.getMethod()).thenReturn("GET");
+        when(clientRequest.getRequestHeaders()).thenReturn(new MultivaluedHashMap<>());
+        return clientRequest;
+    }
+}
@@ -0,0 +1,104 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FileDownloadTest {
+
+    @Test
+    void shouldWriteSuccessfulBodyToFile(@TempDir Path directory) throws Exception {
+        // Given
+        final Path target = directory.resolve("artifact.bin");
+        final HttpResponse.BodySubscriber<InputStream> subscriber = FileDownload.handler(target, HttpResponse.BodyHandlers.ofInputStream()).apply(responseInfo(200));
+
+        // When
+        subscriber.onSubscribe(mock(Flow.Subscription.class));
+        subscriber.onNext(List.of(ByteBuffer.wrap("first,".getBytes(StandardCharsets.UTF_8)), ByteBuffer.wrap("second".getBytes(StandardCharsets.UTF_8))));
+        subscriber.onComplete();
+
+        // Then
+        try (InputStream body = subscriber.getBody().toCompletableFuture().get(5, TimeUnit.SECONDS)) {
+            assertEquals("first,second", new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertEquals("first,second", Files.readString(target));
+        assertEquals(List.of(target), files(directory));
+    }
+
+    @Test
+    void shouldNotLeavePartialFileWhenDownloadFails(@TempDir Path directory) throws IOException {
+        // Given
+        final Path target = directory.resolve("artifact.bin");
+        final HttpResponse.BodySubscriber<InputStream> subscriber = FileDownload.handler(target, HttpResponse.BodyHandlers.ofInputStream()).apply(responseInfo(200));
+        subscriber.onSubscribe(mock(Flow.Subscription.class));
+        subscriber.onNext(List.of(ByteBuffer.wrap("first,".getBytes(StandardCharsets.UTF_8))));
+        final IOException reset = new IOException("reset");
+
+        // When
+        subscriber.onError(reset);
+
+        // Then
+        final ExecutionException executionException = assertThrows(ExecutionException.class, () -> subscriber.getBody().toCompletableFuture().get(5, TimeUnit.SECONDS));
+        assertSame(reset, executionException.getCause());
+        assertEquals(List.of(), files(directory));
+    }
+
+    @Test
+    void shouldStreamUnsuccessfulResponse(@TempDir Path directory) throws IOException {
+        // Given
+        final Path target = directory.resolve("artifact.bin");
+
+        // When
+        final HttpResponse.BodySubscriber<InputStream> subscriber = FileDownload.handler(target, HttpResponse.BodyHandlers.ofInputStream()).apply(responseInfo(404));
+
+        // Then
+        assertFalse(subscriber instanceof FileDownload);
+        assertFalse(Files.exists(target));
+        assertEquals(List.of(), files(directory));
+    }
+
+    @Test
+    void shouldFailWhenDirectoryDoesNotExist(@TempDir Path directory) {
+        // Given
+        final HttpResponse.BodyHandler<InputStream> handler = FileDownload.handler(directory.resolve("missing").resolve("artifact.bin"), HttpResponse.BodyHandlers.ofInputStream());
+        final HttpResponse.ResponseInfo responseInfo = responseInfo(200);
+
+        // When
+        final RuntimeException exception = assertThrows(RuntimeException.class, () -> handler.apply(responseInfo));
+
+        // Then
+        assertInstanceOf(IOException.class, exception.getCause());
+    }
+
+    private static HttpResponse.ResponseInfo responseInfo(int statusCode) {
+        final HttpResponse.ResponseInfo responseInfo = mock(HttpResponse.ResponseInfo.class);
+        when(responseInfo.statusCode()).thenReturn(statusCode);
+        return responseInfo;
+    }
+
+    private static List<Path> files(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.github.nhenneaux.jersey.connector.httpclient;
 
 import jakarta.ws.rs.ProcessingException;
 import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.core.MultivaluedHashMap;
 import org.glassfish.jersey.client.ClientConfig;
 import org.glassfish.jersey.client.ClientProperties;
 import org.glassfish.jersey.client.ClientRequest;
@@ -13,20 +14,26 @@ import org.mockito.ArgumentCaptor;
 import javax.net.ssl.SSLContext;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.PipedInputStream;
-import java.io.PipedOutputStream;
+import java.net.InetAddress;
 import java.net.Proxy;
+import java.net.ServerSocket;
 import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -34,8 +41,10 @@ import static org.awaitility.Awaitility.await;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.anyOf;
 import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -49,7 +58,8 @@ import static org.mockito.Mockito.when;
 
 class HttpClientConnectorTest {
 
-    static final Class<? extends HttpRequest.BodyPublisher> IS_PUBLISHER_CLASS = HttpRequest.BodyPublishers.ofInputStream(() -> null).getClass();
+    static final Class<? extends HttpRequest.BodyPublisher> STREAMED_PUBLISHER_CLASS = HttpRequest.BodyPublishers.fromPublisher(subscriber -> {
+    }).getClass();
     @SuppressWarnings("unchecked")
     static final Class<? extends HttpResponse.BodyHandler<InputStream>> IS_HANDLER_CLASS = (Class<? extends HttpResponse.BodyHandler<InputStream>>) HttpResponse.BodyHandlers.ofInputStream().getClass();
 
@@ -68,10 +78,10 @@ class HttpClientConnectorTest {
         final ClientRequest clientRequest = mock(ClientRequest.class);
         final String method = "POST";
         when(clientRequest.getMethod()).thenReturn(method);
-        when(requestBuilder.method(eq(method), any(IS_PUBLISHER_CLASS))).thenReturn(requestBuilderWithMethod);
+        when(requestBuilder.method(eq(method), any(STREAMED_PUBLISHER_CLASS))).thenReturn(requestBuilderWithMethod);
         when(requestBuilderWithMethod.build()).thenReturn(httpRequest);
         // When
-        final CompletableFuture<HttpResponse<InputStream>> httpResponseCompletableFuture = httpClientConnector.streamRequestBody(clientRequest, requestBuilder, ignored -> CompletableFuture.completedFuture(httpResponse), method);
+        final CompletableFuture<HttpResponse<InputStream>> httpResponseCompletableFuture = httpClientConnector.streamRequestBody(clientRequest, requestBuilder, ignored -> CompletableFuture.completedFuture(httpResponse), method, null);
 
         // Then
         await()
@@ -106,27 +116,34 @@ class HttpClientConnectorTest {
         final ClientRequest clientRequest = mock(ClientRequest.class);
         final String method = "POST";
         when(clientRequest.getMethod()).thenReturn(method);
-        when(requestBuilder.method(eq(method), any(IS_PUBLISHER_CLASS))).thenReturn(requestBuilderWithMethod);
+        when(requestBuilder.method(eq(method), any(STREAMED_PUBLISHER_CLASS))).thenReturn(requestBuilderWithMethod);
         when(requestBuilderWithMethod.build()).thenReturn(httpRequest);
         final IOException ioException = new IOException(UUID.randomUUID().toString());
         doThrow(ioException).when(clientRequest).writeEntity();
 
         // When
-        final var processingException = assertThrows(ProcessingException.class, () -> httpClientConnector.streamRequestBody(clientRequest, requestBuilder, ignored -> CompletableFuture.completedFuture(null), method));
+        final CompletableFuture<HttpResponse<InputStream>> pendingResponse = new CompletableFuture<>();
+        final var processingException = assertThrows(ProcessingException.class, () -> httpClientConnector.streamRequestBody(clientRequest, requestBuilder, ignored -> pendingResponse, method, null));
 
         // Then
-        assertEquals("java.util.concurrent.ExecutionException: jakarta.ws.rs.ProcessingException: The sending process failed with I/O error, " + ioException.getMessage(), processingException.getMessage());
-        assertSame(ioException, processingException.getCause().getCause().getCause());
+        assertEquals("The sending process failed with I/O error, " + ioException.getMessage(), processingException.getMessage());
+        assertSame(ioException, processingException.getCause());
+        assertTrue(pendingResponse.isCancelled());
     }
 
     @Test
-    void shouldThrowWhenConnectingStreamAlreadyConnected() throws IOException {
-        try (final PipedInputStream pipedInputStream = new PipedInputStream();
-             final PipedOutputStream pipedOutputStream = new PipedOutputStream()) {
-            pipedOutputStream.connect(pipedInputStream);
-            final ProcessingException expectedException = assertThrows(ProcessingException.class, () -> HttpClientConnector.connectStream(pipedOutputStream, pipedInputStream));
-            assertEquals("The input stream cannot be connected to the output stream, Already connected", expectedException.getMessage());
-        }
+    void shouldWrapStreamedResponseFailure() {
+        // Given
+        final CompletableFuture<HttpResponse<InputStream>> responseFuture = new CompletableFuture<>();
+        final IOException ioException = new IOException(UUID.randomUUID().toString());
+        responseFuture.completeExceptionally(ioException);
+
+        // When
+        final var processingException = assertThrows(ProcessingException.class, () -> HttpClientConnector.waitForResponse(responseFuture));
+
+        // Then
+        assertEquals("The HTTP sending process failed with error, " + ioException.getMessage(), processingException.getMessage());
+        assertSame(ioException, processingException.getCause());
     }
 
     @Test
@@ -189,4 +206,137 @@ class HttpClientConnectorTest {
         final Proxy proxy = proxies.get(0);
         assertThat(proxy.address().toString(), anyOf(equalTo("my.gateway.io:3129"), equalTo("my.gateway.io/<unresolved>:3129")));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldMapClientPropertiesOnHttpClient() throws NoSuchAlgorithmException {
+        // Given
+        final ClientConfig configuration = new ClientConfig()
+                .property(ClientProperties.ASYNC_THREADPOOL_SIZE, 2)
+                .property(ClientProperties.FOLLOW_REDIRECTS, true)
+                .property(HttpClientConnectorProperties.HTTP_VERSION, "HTTP_1_1")
+                .property(HttpClientConnectorProperties.PRIORITY, 16);
+        final Client client = mock(Client.class);
+        when(client.getSslContext()).thenReturn(SSLContext.getDefault());
+        // When
+        final HttpClientConnector httpClientConnector = new HttpClientConnector(client, configuration);
+        // Then
+        final HttpClient httpClient = httpClientConnector.getHttpClient();
+        assertEquals(HttpClient.Version.HTTP_1_1, httpClient.version());
+        assertEquals(HttpClient.Redirect.NORMAL, httpClient.followRedirects());
+        final ExecutorService executor = (ExecutorService) httpClient.executor().orElseThrow();
+        httpClientConnector.close();
+        assertTrue(executor.isShutdown());
+    }
+
+    @Test
+    void shouldPreferConnectorPropertiesOverClientProperties() throws NoSuchAlgorithmException {
+        // Given
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        final ClientConfig configuration = new ClientConfig()
+                .property(ClientProperties.ASYNC_THREADPOOL_SIZE, 2)
+                .property(ClientProperties.FOLLOW_REDIRECTS, false)
+                .property(HttpClientConnectorProperties.EXECUTOR_SERVICE, executorService)
+                .property(HttpClientConnectorProperties.REDIRECT, HttpClient.Redirect.ALWAYS);
+        final Client client = mock(Client.class);
+        when(client.getSslContext()).thenReturn(SSLContext.getDefault());
+        try {
+            // When
+            final HttpClientConnector httpClientConnector = new HttpClientConnector(client, configuration);
+            // Then the supplied executor is used and left open
+            final HttpClient httpClient = httpClientConnector.getHttpClient();
+            assertSame(executorService, httpClient.executor().orElseThrow());
+            assertEquals(HttpClient.Redirect.ALWAYS, httpClient.followRedirects());
+            httpClientConnector.close();
+            assertFalse(executorService.isShutdown());
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    void shouldConvertStringPropertyValues() throws NoSuchAlgorithmException {
+        // Given
+        final ClientConfig configuration = new ClientConfig()
+                .property(HttpClientConnectorProperties.BUFFER_POOL_SIZE, "4")
+                .property(HttpClientConnectorProperties.VIRTUAL_THREADS, "true")
+                .property(HttpClientConnectorProperties.CLIENT_POOL_SIZE, "2")
+                .property(HttpClientConnectorProperties.CLIENT_POOL_SELECTION, HttpClientPool.Selection.ROUND_ROBIN)
+                .property(HttpClientConnectorProperties.COALESCING, "true")
+                .property(HttpClientConnectorProperties.HTTP_CACHE_SIZE, "1024")
+                .property(HttpClientConnectorProperties.HEDGING_DELAY, "50")
+                .property(HttpClientConnectorProperties.HEDGING, "true")
+                .property(ClientProperties.CONNECT_TIMEOUT, "1000");
+        final Client client = mock(Client.class);
+        when(client.getSslContext()).thenReturn(SSLContext.getDefault());
+        // When
+        final HttpClientConnector httpClientConnector = new HttpClientConnector(client, configuration);
+        // Then
+        assertNotNull(httpClientConnector.getHttpClient());
+        assertEquals(Optional.of(Duration.ofSeconds(1)), httpClientConnector.getHttpClient().connectTimeout());
+        httpClientConnector.close();
+    }
+
+    @Test
+    void shouldConvertStringWarmUpTimeout() throws NoSuchAlgorithmException, IOException {
+        // Given a server accepting the connections without ever answering
+        try (ServerSocket silentServer = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            final ClientConfig configuration = new ClientConfig()
+                    .property(HttpClientConnectorProperties.WARM_UP_ORIGINS, "http://localhost:" + silentServer.getLocalPort())
+                    .property(HttpClientConnectorProperties.WARM_UP_TIMEOUT, "200");
+            final Client client = mock(Client.class);
+            when(client.getSslContext()).thenReturn(SSLContext.getDefault());
+            // When
+            final HttpClientConnector httpClientConnector = new HttpClientConnector(client, configuration);
+            // Then
+            final ConnectionWarmUp.Result result = httpClientConnector.getWarmUpResult().orElseThrow();
+            assertFalse(result.isSucceeded());
+            assertTrue(result.getDuration().compareTo(Duration.ofMillis(200)) >= 0);
+            assertTrue(result.getDuration().compareTo(ConnectionWarmUp.DEFAULT_TIMEOUT) < 0);
+            httpClientConnector.close();
+        }
+    }
+
+    @Test
+    void shouldSendRegisteredEntityUncompressedWithCompressionThreshold() {
+        // Given
+        final HttpClient httpClient = mock(HttpClient.class);
+        @SuppressWarnings("unchecked") final HttpResponse<InputStream> httpResponse = mock(HttpResponse.class);
+        when(httpResponse.statusCode()).thenReturn(204);
+        when(httpResponse.headers()).thenReturn(HttpHeaders.of(Map.of(), (name, value) -> true));
+        when(httpResponse.body()).thenReturn(InputStream.nullInputStream());
+        when(httpClient.<InputStream>sendAsync(any(), any())).thenReturn(CompletableFuture.completedFuture(httpResponse));
+        final HttpClientConnector httpClientConnector = new HttpClientConnector(httpClient);
+        final byte[] payload = "{\"data\":\"payload\"}".getBytes(StandardCharsets.UTF_8);
+        final ClientRequest clientRequest = mock(ClientRequest.class);
+        when(clientRequest.getConfiguration()).thenReturn(new ClientConfig().property(HttpClientConnectorProperties.REQUEST_COMPRESSION_THRESHOLD, 0));
+        when(clientRequest.getUri()).thenReturn(URI.create("https://example.com/post"));
+        when(clientRequest.getMethod()).thenReturn("POST");
+        when(clientRequest.getEntity()).thenReturn(SerializedPayload.of(payload));
+        when(clientRequest.getRequestHeaders()).thenReturn(new MultivaluedHashMap<>());
+
+        // When
+        final ClientResponse response = httpClientConnector.apply(clientRequest);
+
+        // Then
+        assertEquals(204, response.getStatus());
+        final ArgumentCaptor<HttpRequest> sentRequest = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient).sendAsync(sentRequest.capture(), any());
+        assertTrue(sentRequest.getValue().headers().firstValue("Content-Encoding").isEmpty());
+        final HttpRequest.BodyPublisher bodyPublisher = sentRequest.getValue().bodyPublisher().orElseThrow();
+        assertEquals(payload.length, bodyPublisher.contentLength());
+        assertArrayEquals(payload, BodyPublisherRegistryTest.publishedBytes(bodyPublisher));
+    }
+
+    @Test
+    void shouldKeepHttpClientDefaultsWithoutProperties() throws NoSuchAlgorithmException {
+        // Given
+        final Client client = mock(Client.class);
+        when(client.getSslContext()).thenReturn(SSLContext.getDefault());
+        // When
+        final HttpClient httpClient = new HttpClientConnector(client, new ClientConfig()).getHttpClient();
+        // Then
+        assertEquals(HttpClient.Version.HTTP_2, httpClient.version());
+        assertEquals(HttpClient.Redirect.NEVER, httpClient.followRedirects());
+        assertTrue(httpClient.executor().isEmpty());
+    }
+}
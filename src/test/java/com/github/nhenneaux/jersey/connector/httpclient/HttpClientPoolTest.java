@@ -0,0 +1,64 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HttpClientPoolTest {
+
+    @Test
+    void shouldUseClientsInTurn() {
+        final HttpClient first = mock(HttpClient.class);
+        final HttpClient second = mock(HttpClient.class);
+        final HttpClientPool pool = new HttpClientPool(List.of(first, second), HttpClientPool.Selection.ROUND_ROBIN);
+
+        assertSame(first, pool.next());
+        assertSame(second, pool.next());
+        assertSame(first, pool.next());
+    }
+
+    @Test
+    void shouldSendToClientWithFewestRequestsInFlight() {
+        // Given
+        final HttpClient first = mock(HttpClient.class);
+        final HttpClient second = mock(HttpClient.class);
+        final CompletableFuture<HttpResponse<InputStream>> firstResponse = new CompletableFuture<>();
+        final CompletableFuture<HttpResponse<InputStream>> secondResponse = new CompletableFuture<>();
+        final CompletableFuture<HttpResponse<InputStream>> thirdResponse = new CompletableFuture<>();
+        when(first.<InputStream>sendAsync(any(), any())).thenReturn(firstResponse);
+        when(second.<InputStream>sendAsync(any(), any())).thenReturn(secondResponse, thirdResponse);
+        final HttpClientPool pool = new HttpClientPool(List.of(first, second), HttpClientPool.Selection.LEAST_IN_FLIGHT);
+        final HttpRequest request = mock(HttpRequest.class);
+
+        // When
+        pool.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+        pool.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+        secondResponse.complete(null);
+
+        // Then the next request goes to the second client which has no request in flight anymore
+        assertArrayEquals(new int[]{1, 0}, pool.getInFlight());
+        assertSame(thirdResponse, pool.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream()));
+        assertArrayEquals(new int[]{1, 1}, pool.getInFlight());
+        firstResponse.complete(null);
+        assertArrayEquals(new int[]{0, 1}, pool.getInFlight());
+    }
+
+    @Test
+    void shouldRejectEmptyPool() {
+        final IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> new HttpClientPool(0, HttpClient::newHttpClient, HttpClientPool.Selection.ROUND_ROBIN));
+        assertEquals("The pool size must be positive but was 0", exception.getMessage());
+    }
+}
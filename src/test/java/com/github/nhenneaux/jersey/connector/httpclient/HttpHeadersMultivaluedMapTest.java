@@ -0,0 +1,63 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpHeaders;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpHeadersMultivaluedMapTest {
+
+    private static final HttpHeaders HEADERS = HttpHeaders.of(Map.of(
+            "content-type", List.of("application/json"),
+            "set-cookie", List.of("a=1", "b=2")), (name, value) -> true);
+
+    @Test
+    void shouldReadHeadersIgnoringCase() {
+        final HttpHeadersMultivaluedMap headers = new HttpHeadersMultivaluedMap(HEADERS);
+
+        assertEquals("application/json", headers.getFirst("Content-Type"));
+        assertEquals(List.of("a=1", "b=2"), headers.get("SET-COOKIE"));
+        assertTrue(headers.containsKey("Set-Cookie"));
+        assertNull(headers.getFirst("accept"));
+        assertEquals(2, headers.size());
+    }
+
+    @Test
+    void shouldCopyHeadersOnFirstModification() {
+        // Given
+        final HttpHeadersMultivaluedMap headers = new HttpHeadersMultivaluedMap(HEADERS);
+
+        // When
+        headers.add("X-Request-Id", "42");
+        headers.remove("Set-Cookie");
+
+        // Then
+        assertEquals("42", headers.getFirst("x-request-id"));
+        assertEquals("application/json", headers.getFirst("CONTENT-TYPE"));
+        assertEquals(2, headers.size());
+        assertEquals(List.of("a=1", "b=2"), HEADERS.allValues("set-cookie"));
+    }
+
+    @Test
+    void shouldCompareIgnoringValueOrder() {
+        final HttpHeadersMultivaluedMap headers = new HttpHeadersMultivaluedMap(HEADERS);
+        final HttpHeadersMultivaluedMap reordered = new HttpHeadersMultivaluedMap(HttpHeaders.of(Map.of(
+                "Content-Type", List.of("application/json"),
+                "Set-Cookie", List.of("b=2", "a=1")), (name, value) -> true));
+
+        assertTrue(headers.equalsIgnoreValueOrder(reordered));
+    }
+
+    @Test
+    void shouldExposeImmutableValuesBeforeModification() {
+        final List<String> values = new HttpHeadersMultivaluedMap(HEADERS).get("set-cookie");
+
+        assertThrows(UnsupportedOperationException.class, () -> values.add("c=3"));
+    }
+}
@@ -0,0 +1,281 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HttpResponseCacheTest {
+
+    private final MutableClock clock = new MutableClock();
+    private final List<HttpRequest> sentRequests = new ArrayList<>();
+
+    @Test
+    void shouldServeFreshResponseAndRevalidateStaleOne() {
+        // Given
+        final HttpResponseCache cache = new HttpResponseCache(1024, clock);
+        final Function<HttpRequest, CompletableFuture<HttpResponse<byte[]>>> origin = sender(
+                response(200, "config-v1", "cache-control", "max-age=60", "etag", "\"v1\""),
+                response(304, null, "cache-control", "max-age=120"));
+
+        // When
+        final HttpResponse<String> first = send(cache, get("https://example.com/config"), origin);
+        clock.advance(30_000);
+        final HttpResponse<String> fromCache = send(cache, get("https://example.com/config"), origin);
+        clock.advance(40_000);
+        final HttpResponse<String> revalidated = send(cache, get("https://example.com/config"), origin);
+        clock.advance(100_000);
+        final HttpResponse<String> freshAfterRevalidation = send(cache, get("https://example.com/config"), origin);
+
+        // Then
+        assertEquals("config-v1", first.body());
+        assertEquals("config-v1", fromCache.body());
+        assertEquals("30", fromCache.headers().firstValue("age").orElseThrow());
+        assertEquals(200, revalidated.statusCode());
+        assertEquals("config-v1", revalidated.body());
+        assertEquals("config-v1", freshAfterRevalidation.body());
+        assertEquals(2, sentRequests.size());
+        assertEquals("\"v1\"", sentRequests.get(1).headers().firstValue("If-None-Match").orElseThrow());
+    }
+
+    @Test
+    void shouldNotStoreNoStoreResponse() {
+        // Given
+        final HttpResponseCache cache = new HttpResponseCache(1024, clock);
+        final Function<HttpRequest, CompletableFuture<HttpResponse<byte[]>>> origin = sender(
+                response(200, "secret", "cache-control", "no-store, max-age=60"),
+                response(200, "secret", "cache-control", "no-store, max-age=60"));
+
+        // When
+        send(cache, get("https://example.com/secret"), origin);
+        send(cache, get("https://example.com/secret"), origin);
+
+        // Then
+        assertEquals(2, sentRequests.size());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void shouldNotServeResponseToAnotherAuthorization() {
+        // Given
+        final HttpResponseCache cache = new HttpResponseCache(1024, clock);
+        final Function<HttpRequest, CompletableFuture<HttpResponse<byte[]>>> origin = sender(
+                response(200, "alice-private", "cache-control", "max-age=60"),
+                response(200, "alice-private", "cache-control", "max-age=60"),
+                response(200, "alice-public", "cache-control", "public, max-age=60"),
+                response(200, "bob", "cache-control", "public, max-age=60"));
+
+        // When
+        send(cache, authorized("Bearer alice"), origin);
+        send(cache, authorized("Bearer alice"), origin);
+        send(cache, authorized("Bearer alice"), origin);
+        final HttpResponse<String> alice = send(cache, authorized("Bearer alice"), origin);
+        final HttpResponse<String> bob = send(cache, authorized("Bearer bob"), origin);
+        final HttpResponse<String> bobFromCache = send(cache, authorized("Bearer bob"), origin);
+
+        // Then
+        assertEquals("alice-public", alice.body());
+        assertEquals("bob", bob.body());
+        assertEquals("bob", bobFromCache.body());
+        assertEquals(4, sentRequests.size());
+        assertEquals("Bearer bob", sentRequests.get(3).headers().firstValue("Authorization").orElseThrow());
+    }
+
+    @Test
+    void shouldRevalidateNoCacheResponseAndHonourRequestDirectives() {
+        // Given
+        final HttpResponseCache cache = new HttpResponseCache(1024, clock);
+        final Function<HttpRequest, CompletableFuture<HttpResponse<byte[]>>> origin = sender(
+                response(200, "profile", "cache-control", "max-age=60", "last-modified", "Thu, 15 Oct 2026 10:00:00 GMT"),
+                response(304, null),
+                response(200, "profile-v2", "cache-control", "max-age=60"));
+
+        // When
+        send(cache, get("https://example.com/profile"), origin);
+        final HttpResponse<String> revalidated = send(cache, HttpRequest.newBuilder(URI.create("https://example.com/profile")).header("Cache-Control", "no-cache").build(), origin);
+        clock.advance(10_000);
+        final HttpResponse<String> tooOld = send(cache, HttpRequest.newBuilder(URI.create("https://example.com/profile")).header("Cache-Control", "max-age=5").build(), origin);
+
+        // Then
+        assertEquals("profile", revalidated.body());
+        assertEquals("Thu, 15 Oct 2026 10:00:00 GMT", sentRequests.get(1).headers().firstValue("If-Modified-Since").orElseThrow());
+        assertEquals("profile-v2", tooOld.body());
+        assertEquals(3, sentRequests.size());
+    }
+
+    @Test
+    void shouldSelectVariant() {
+        // Given
+        final HttpResponseCache cache = new HttpResponseCache(1024, clock);
+        final Function<HttpRequest, CompletableFuture<HttpResponse<byte[]>>> origin = sender(
+                response(200, "{}", "cache-control", "max-age=60", "vary", "Accept"),
+                response(200, "<xml/>", "cache-control", "max-age=60", "vary", "Accept"));
+
+        // When
+        final HttpRequest json = HttpRequest.newBuilder(URI.create("https://example.com/item")).header("Accept", "application/json").build();
+        final HttpRequest xml = HttpRequest.newBuilder(URI.create("https://example.com/item")).header("Accept", "application/xml").build();
+        send(cache, json, origin);
+        send(cache, xml, origin);
+
+        // Then
+        assertEquals("{}", send(cache, json, origin).body());
+        assertEquals("<xml/>", send(cache, xml, origin).body());
+        assertEquals(2, sentRequests.size());
+    }
+
+    @Test
+    void shouldKeepFrequentlyReadUriWhenScanning() {
+        // Given
+        final HttpResponseCache cache = new HttpResponseCache(300, clock);
+        final Function<HttpRequest, CompletableFuture<HttpResponse<byte[]>>> origin = request -> {
+            sentRequests.add(request);
+            return CompletableFuture.completedFuture(response(200, "x".repeat(60), "cache-control", "max-age=60"));
+        };
+        send(cache, get("https://example.com/hot"), origin);
+        send(cache, get("https://example.com/hot"), origin);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            send(cache, get("https://example.com/scan/" + i), origin);
+        }
+        sentRequests.clear();
+        send(cache, get("https://example.com/hot"), origin);
+
+        // Then
+        assertTrue(sentRequests.isEmpty());
+        assertTrue(cache.size() <= 300);
+    }
+
+    @Test
+    void shouldInvalidateUri() {
+        // Given
+        final HttpResponseCache cache = new HttpResponseCache(1024, clock);
+        final Function<HttpRequest, CompletableFuture<HttpResponse<byte[]>>> origin = sender(
+                response(200, "v1", "cache-control", "max-age=60"),
+                response(200, "v2", "cache-control", "max-age=60"));
+        send(cache, get("https://example.com/item"), origin);
+
+        // When
+        cache.invalidate(URI.create("https://example.com/item"));
+
+        // Then
+        assertEquals("v2", send(cache, get("https://example.com/item"), origin).body());
+        assertTrue(HttpResponseCache.invalidates(HttpRequest.newBuilder(URI.create("https://example.com/item")).DELETE().build()));
+        assertFalse(HttpResponseCache.invalidates(get("https://example.com/item")));
+        assertFalse(HttpResponseCache.isCacheable(HttpRequest.newBuilder(URI.create("https://example.com/item")).header("Cache-Control", "no-store").build()));
+    }
+
+    @Test
+    void shouldStreamBodyNotFittingInCache() {
+        // Given
+        final HttpResponseCache cache = new HttpResponseCache(64, clock);
+        final Function<HttpRequest, CompletableFuture<HttpResponse<byte[]>>> origin = sender(
+                response(200, "x".repeat(100), "cache-control", "max-age=60"),
+                response(200, "x".repeat(100), "cache-control", "max-age=60"),
+                withoutContentLength(response(200, "chunked", "cache-control", "max-age=60")),
+                withoutContentLength(response(200, "chunked", "cache-control", "max-age=60")));
+
+        // When
+        final HttpResponse<String> tooLarge = send(cache, get("https://example.com/large"), origin);
+        send(cache, get("https://example.com/large"), origin);
+        final HttpResponse<String> chunked = send(cache, get("https://example.com/chunked"), origin);
+        send(cache, get("https://example.com/chunked"), origin);
+
+        // Then the bodies are streamed to the handler and not stored
+        assertEquals("x".repeat(100), tooLarge.body());
+        assertEquals("chunked", chunked.body());
+        assertEquals(4, sentRequests.size());
+        assertEquals(0, cache.size());
+    }
+
+    private static HttpResponse<String> send(HttpResponseCache cache, HttpRequest request, Function<HttpRequest, CompletableFuture<HttpResponse<byte[]>>> origin) {
+        // The body of the origin response is published to the body handler like the HTTP client does
+        return cache.sendAsync(request, HttpResponse.BodyHandlers.ofString(), (sentRequest, bodyHandler) -> origin.apply(sentRequest)
+                .thenCompose(response -> ReplayedResponse.replay(response, bodyHandler))).join();
+    }
+
+    @SafeVarargs
+    private Function<HttpRequest, CompletableFuture<HttpResponse<byte[]>>> sender(HttpResponse<byte[]>... responses) {
+        return request -> {
+            sentRequests.add(request);
+            return CompletableFuture.completedFuture(responses[sentRequests.size() - 1]);
+        };
+    }
+
+    private static HttpRequest authorized(String authorization) {
+        return HttpRequest.newBuilder(URI.create("https://example.com/account")).header("Authorization", authorization).build();
+    }
+
+    private static HttpRequest get(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).build();
+    }
+
+    private static HttpResponse<byte[]> response(int statusCode, String body, String... headers) {
+        final Map<String, List<String>> headerMap = new LinkedHashMap<>();
+        headerMap.put("content-length", List.of(Integer.toString(body == null ? 0 : body.getBytes(StandardCharsets.UTF_8).length)));
+        for (int i = 0; i < headers.length; i += 2) {
+            headerMap.put(headers[i], List.of(headers[i + 1]));
+        }
+        @SuppressWarnings("unchecked") final HttpResponse<byte[]> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(statusCode);
+        when(response.headers()).thenReturn(HttpHeaders.of(headerMap, (name, value) -> true));
+        when(response.version()).thenReturn(HttpClient.Version.HTTP_2);
+        when(response.body()).thenReturn(body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8));
+        return response;
+    }
+
+    private static HttpResponse<byte[]> withoutContentLength(HttpResponse<byte[]> response) {
+        final Map<String, List<String>> headerMap = new LinkedHashMap<>(response.headers().map());
+        headerMap.remove("content-length");
+        when(response.headers()).thenReturn(HttpHeaders.of(headerMap, (name, value) -> true));
+        return response;
+    }
+
+    private static final class MutableClock extends Clock {
+        private long millis = Instant.parse("2026-10-16T10:00:00Z").toEpochMilli();
+
+        void advance(long delta) {
+            millis += delta;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
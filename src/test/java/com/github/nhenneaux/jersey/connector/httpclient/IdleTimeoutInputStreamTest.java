@@ -0,0 +1,136 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdleTimeoutInputStreamTest {
+
+    @Test
+    void shouldFailReadWhenBodyStalls() throws IOException {
+        // Given
+        final StalledInputStream stalledBody = new StalledInputStream();
+        final IdleTimeoutInputStream body = IdleTimeoutInputStream.of(stalledBody, Duration.ofMillis(100));
+        assertEquals(1, body.read());
+
+        // When the server stalls
+        final HttpTimeoutException timeoutException = assertThrows(HttpTimeoutException.class, body::read);
+
+        // Then the body is closed to cancel the exchange
+        assertEquals("No data of the response body was received for 100 ms", timeoutException.getMessage());
+        assertTrue(body.isExpired());
+        assertTrue(stalledBody.isClosed());
+        assertThrows(HttpTimeoutException.class, () -> body.read(new byte[1], 0, 1));
+    }
+
+    @Test
+    void shouldNotCountTimeSpentOutsideReads() throws IOException, InterruptedException {
+        // Given
+        final IdleTimeoutInputStream body = IdleTimeoutInputStream.of(new ByteArrayInputStream(new byte[]{1, 2}), Duration.ofMillis(50));
+        assertEquals(1, body.read());
+
+        // When the consumer is slower than the timeout
+        TimeUnit.MILLISECONDS.sleep(200);
+
+        // Then
+        assertArrayEquals(new byte[]{2}, body.readAllBytes());
+        assertFalse(body.isExpired());
+    }
+
+    @Test
+    void shouldStopCheckingOutsideReadsAndOnceExpired() throws IOException, InterruptedException {
+        // Given
+        final StalledInputStream stalledBody = new StalledInputStream();
+        final IdleTimeoutInputStream body = IdleTimeoutInputStream.of(stalledBody, Duration.ofMillis(50));
+        assertFalse(body.isChecking());
+        assertEquals(1, body.read());
+
+        // When no read is in progress for longer than the timeout
+        TimeUnit.MILLISECONDS.sleep(200);
+
+        // Then the check is not rescheduled until the next read
+        assertFalse(body.isChecking());
+        assertThrows(HttpTimeoutException.class, body::read);
+        assertTrue(body.isExpired());
+        TimeUnit.MILLISECONDS.sleep(200);
+        assertThrows(HttpTimeoutException.class, body::read);
+        assertFalse(body.isChecking());
+    }
+
+    @Test
+    void shouldNotExpireWhileDataKeepsFlowing() throws IOException {
+        // Given
+        final InputStream slowBody = new InputStream() {
+            private int remaining = 5;
+
+            @Override
+            public int read() throws IOException {
+                if (remaining-- == 0) {
+                    return -1;
+                }
+                try {
+                    TimeUnit.MILLISECONDS.sleep(60);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+                return remaining;
+            }
+        };
+        final IdleTimeoutInputStream body = IdleTimeoutInputStream.of(slowBody, Duration.ofMillis(200));
+
+        // When the whole body takes longer than the timeout
+        int read = 0;
+        while (body.read() != -1) {
+            read++;
+        }
+
+        // Then
+        assertEquals(5, read);
+        assertFalse(body.isExpired());
+    }
+
+    /**
+     * Body sending one byte and then stalling until it is closed, like the body of the HTTP client it then reports the end of the stream.
+     */
+    private static final class StalledInputStream extends InputStream {
+        private final CountDownLatch closed = new CountDownLatch(1);
+        private boolean first = true;
+
+        @Override
+        public int read() throws IOException {
+            if (first) {
+                first = false;
+                return 1;
+            }
+            try {
+                closed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            return -1;
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+
+        private boolean isClosed() {
+            return closed.getCount() == 0;
+        }
+    }
+}
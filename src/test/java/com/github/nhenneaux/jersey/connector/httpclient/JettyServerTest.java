@@ -14,14 +14,25 @@ import org.glassfish.jersey.client.ClientProperties;
 import org.glassfish.jersey.client.HttpUrlConnectorProvider;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.ConnectException;
 import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.KeyStore;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -30,8 +41,10 @@ import java.util.stream.IntStream;
 
 import static com.github.nhenneaux.jersey.connector.httpclient.JettyServer.TlsSecurityConfiguration.getKeyStore;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import javax.net.ServerSocketFactory;
 import java.util.function.IntPredicate;
@@ -134,7 +147,7 @@ class JettyServerTest {
         return getClient(port, trustStore(), http2ClientConfig().property(ClientProperties.REQUEST_ENTITY_PROCESSING, "CHUNKED"));
     }
 
-    private static KeyStore trustStore() {
+    static KeyStore trustStore() {
         return getKeyStore("TEST==ONLY==truststore-password".toCharArray(), "truststore.p12");
     }
 
@@ -230,6 +243,313 @@ class JettyServerTest {
         }
     }
 
+    @Test
+    @Timeout(20)
+    void testPostAsyncChunkVirtualThreads() throws Exception {
+        int port = findAvailablePort();
+        JettyServer.TlsSecurityConfiguration tlsSecurityConfiguration = tlsConfig();
+        try (AutoCloseable ignored = jerseyServer(
+                port,
+                tlsSecurityConfiguration,
+                DummyRestService.class)) {
+            final ClientConfig clientConfig = http2ClientConfig()
+                    .property(ClientProperties.REQUEST_ENTITY_PROCESSING, "CHUNKED")
+                    .property(HttpClientConnectorProperties.VIRTUAL_THREADS, true);
+            String data = UUID.randomUUID().toString();
+            try (final Response response = getClient(port, trustStore(), clientConfig).path("post").request().async().post(Entity.json(new DummyRestService.Data(data))).get()) {
+                assertEquals(200, response.getStatus());
+                assertEquals(data, response.readEntity(DummyRestService.Data.class).getData());
+            }
+        }
+    }
+
+    @Test
+    @Timeout(20)
+    void testPostAsyncBufferedBody() throws Exception {
+        int port = findAvailablePort();
+        JettyServer.TlsSecurityConfiguration tlsSecurityConfiguration = tlsConfig();
+        try (AutoCloseable ignored = jerseyServer(
+                port,
+                tlsSecurityConfiguration,
+                DummyRestService.class)) {
+            final WebTarget target = getClient(port).path("post");
+            // The first body fits in the buffer while the second one is larger and is streamed
+            for (int bufferSize : new int[]{1024, 8}) {
+                String data = UUID.randomUUID().toString();
+                try (final Response response = target.request()
+                        .property(HttpClientConnectorProperties.ASYNC_BODY_BUFFER_SIZE, bufferSize)
+                        .async()
+                        .post(Entity.json(new DummyRestService.Data(data)))
+                        .get()) {
+                    assertEquals(200, response.getStatus());
+                    assertEquals(data, response.readEntity(DummyRestService.Data.class).getData());
+                }
+            }
+        }
+    }
+
+    @Test
+    @Timeout(60)
+    void shouldAdaptConcurrencyLimitWhenLatencyIsRaised() throws Exception {
+        int port = findAvailablePort();
+        JettyServer.TlsSecurityConfiguration tlsSecurityConfiguration = tlsConfig();
+        try (AutoCloseable ignored = jerseyServer(
+                port,
+                tlsSecurityConfiguration,
+                DummyRestService.class)) {
+            final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 100, 10_000);
+            final WebTarget target = getClient(port, trustStore(), http2ClientConfig()
+                    .property(HttpClientConnectorProperties.CONCURRENCY_LIMITER, limiter))
+                    .path("pingWithSleep");
+            // Warm-up at the nominal latency of the stand-in, the limit grows while the requests are queued
+            sendConcurrently(target, 400, 5, limiter);
+            final int nominalLimit = limiter.snapshot().get("localhost").getLimit();
+
+            // The stand-in becomes slower in the middle of the run, the limit decreases until the new latency becomes the baseline
+            final int lowestLimit = sendConcurrently(target, 200, 200, limiter);
+
+            assertThat(nominalLimit, Matchers.greaterThan(10));
+            assertThat(lowestLimit, Matchers.lessThan(nominalLimit));
+            assertEquals(0, limiter.snapshot().get("localhost").getRejectedCount());
+        }
+    }
+
+    /**
+     * @return the lowest limit observed while the requests were in flight
+     */
+    private static int sendConcurrently(WebTarget target, int requests, long sleepTimeInMilliseconds, AdaptiveConcurrencyLimiter limiter) throws Exception {
+        final List<Future<Response>> responses = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            responses.add(target.queryParam("sleepTimeInMilliseconds", sleepTimeInMilliseconds).request().async().get());
+        }
+        int lowestLimit = Integer.MAX_VALUE;
+        while (!responses.stream().allMatch(Future::isDone)) {
+            final AdaptiveConcurrencyLimiter.Snapshot snapshot = limiter.snapshot().get("localhost");
+            if (snapshot != null) {
+                lowestLimit = Math.min(lowestLimit, snapshot.getLimit());
+            }
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        for (Future<Response> response : responses) {
+            try (Response closed = response.get()) {
+                assertEquals(200, closed.getStatus());
+            }
+        }
+        return lowestLimit;
+    }
+
+    @Test
+    @Timeout(30)
+    void shouldReduceFirstRequestLatencyWithWarmUp() throws Exception {
+        int port = findAvailablePort();
+        JettyServer.TlsSecurityConfiguration tlsSecurityConfiguration = tlsConfig();
+        try (AutoCloseable ignored = jerseyServer(
+                port,
+                tlsSecurityConfiguration,
+                DummyRestService.class)) {
+            // A first client warms up the JVM and the server so that only the connection set-up differs between the measured clients
+            firstRequestLatency(getClient(port));
+
+            final long coldLatency = firstRequestLatency(getClient(port));
+
+            final Client warmClient = ClientBuilder.newBuilder()
+                    .trustStore(trustStore())
+                    .withConfig(http2ClientConfig()
+                            .property(HttpClientConnectorProperties.WARM_UP_ORIGINS, "https://localhost:" + port)
+                            .property(HttpClientConnectorProperties.WARM_UP_TIMEOUT, 5_000))
+                    .build();
+            final ClientConfig warmConfig = (ClientConfig) warmClient.getConfiguration();
+            // Creates the runtime of the client and so the connector which warms up the connection
+            warmConfig.getClientExecutor();
+            final ConnectionWarmUp.Result warmUpResult = ((HttpClientConnector) warmConfig.getConnector()).getWarmUpResult().orElseThrow();
+            final long warmLatency = firstRequestLatency(warmClient.target("https://localhost:" + port));
+
+            System.out.println("First request latency without warm-up " + TimeUnit.NANOSECONDS.toMicros(coldLatency) + " us, with warm-up "
+                    + TimeUnit.NANOSECONDS.toMicros(warmLatency) + " us, warm-up " + warmUpResult.getDuration().toMillis() + " ms");
+            assertEquals(Map.of(), warmUpResult.getFailures());
+            assertThat(warmLatency, Matchers.lessThan(coldLatency));
+        }
+    }
+
+    @Test
+    @Timeout(20)
+    void shouldFailWhenRequestDeadlineExpires() throws Exception {
+        int port = findAvailablePort();
+        JettyServer.TlsSecurityConfiguration tlsSecurityConfiguration = tlsConfig();
+        try (AutoCloseable ignored = jerseyServer(
+                port,
+                tlsSecurityConfiguration,
+                DummyRestService.class)) {
+            final var request = getClient(port).path("pingWithSleep")
+                    .queryParam("sleepTimeInMilliseconds", 5_000)
+                    .request()
+                    .property(HttpClientConnectorProperties.REQUEST_DEADLINE, 200);
+            final long start = System.nanoTime();
+            final ProcessingException processingException = assertThrows(ProcessingException.class, request::get);
+            assertEquals(HttpTimeoutException.class, processingException.getCause().getClass());
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), Matchers.lessThan(5_000L));
+        }
+    }
+
+    @Test
+    @Timeout(20)
+    void shouldFailReadWhenResponseBodyStalls() throws Exception {
+        int port = findAvailablePort();
+        JettyServer.TlsSecurityConfiguration tlsSecurityConfiguration = tlsConfig();
+        try (AutoCloseable ignored = jerseyServer(
+                port,
+                tlsSecurityConfiguration,
+                DummyRestService.class)) {
+            try (final Response response = getClient(port).path("stallingBody")
+                    .queryParam("stallTimeInMilliseconds", 5_000)
+                    .request()
+                    .property(HttpClientConnectorProperties.READ_IDLE_TIMEOUT, 200)
+                    .get()) {
+                assertEquals(200, response.getStatus());
+                final InputStream body = response.readEntity(InputStream.class);
+                assertEquals(1, body.read());
+                final long start = System.nanoTime();
+                final HttpTimeoutException timeoutException = assertThrows(HttpTimeoutException.class, () -> body.readNBytes(5));
+                assertEquals("No data of the response body was received for 200 ms", timeoutException.getMessage());
+                assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), Matchers.lessThan(5_000L));
+            }
+        }
+    }
+
+    @Test
+    @Timeout(20)
+    void shouldDownloadResponseBodyToFile(@TempDir Path directory) throws Exception {
+        int port = findAvailablePort();
+        JettyServer.TlsSecurityConfiguration tlsSecurityConfiguration = tlsConfig();
+        try (AutoCloseable ignored = jerseyServer(
+                port,
+                tlsSecurityConfiguration,
+                DummyRestService.class)) {
+            final Path target = directory.resolve("body.bin");
+            try (final Response response = getClient(port).path("stallingBody")
+                    .queryParam("stallTimeInMilliseconds", 0)
+                    .request()
+                    .property(HttpClientConnectorProperties.DOWNLOAD_FILE, target)
+                    .get()) {
+                assertEquals(200, response.getStatus());
+                assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6}, Files.readAllBytes(target));
+                assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6}, response.readEntity(byte[].class));
+            }
+        }
+    }
+
+    @Test
+    @Timeout(20)
+    void shouldDownloadToFileWithoutCacheCoalescingNorHedging(@TempDir Path directory) throws Exception {
+        int port = findAvailablePort();
+        JettyServer.TlsSecurityConfiguration tlsSecurityConfiguration = tlsConfig();
+        try (AutoCloseable ignored = jerseyServer(
+                port,
+                tlsSecurityConfiguration,
+                DummyRestService.class)) {
+            final WebTarget target = getClient(port, trustStore(), http2ClientConfig()
+                    .property(HttpClientConnectorProperties.HTTP_CACHE_SIZE, 1024 * 1024)
+                    .property(HttpClientConnectorProperties.COALESCING, true)
+                    .property(HttpClientConnectorProperties.HEDGING_DELAY, 0));
+            final int countBefore = getClient(port).path("cacheableBodyCount").request().get(Integer.class);
+            for (int i = 0; i < 2; i++) {
+                final Path file = directory.resolve("body-" + i + ".bin");
+                try (final Response response = target.path("cacheableBody")
+                        .queryParam("sleepTimeInMilliseconds", 100)
+                        .request()
+                        .property(HttpClientConnectorProperties.DOWNLOAD_FILE, file)
+                        .get()) {
+                    assertEquals(200, response.getStatus());
+                    assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6}, Files.readAllBytes(file));
+                }
+            }
+            // Each download reaches the server once, it is neither served from the cache nor hedged
+            assertEquals(countBefore + 2, getClient(port).path("cacheableBodyCount").request().get(Integer.class));
+        }
+    }
+
+    @Test
+    @Timeout(20)
+    void shouldStreamLinesToSubscriber() throws Exception {
+        int port = findAvailablePort();
+        JettyServer.TlsSecurityConfiguration tlsSecurityConfiguration = tlsConfig();
+        try (AutoCloseable ignored = jerseyServer(
+                port,
+                tlsSecurityConfiguration,
+                DummyRestService.class)) {
+            final List<String> lines = new CopyOnWriteArrayList<>();
+            final CompletableFuture<Void> completed = new CompletableFuture<>();
+            final Flow.Subscriber<String> subscriber = new Flow.Subscriber<>() {
+                private Flow.Subscription subscription;
+
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    this.subscription = subscription;
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onNext(String line) {
+                    lines.add(line);
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    completed.completeExceptionally(throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                    completed.complete(null);
+                }
+            };
+            try (final Response response = getClient(port).path("lines")
+                    .queryParam("count", 100)
+                    .request()
+                    .property(HttpClientConnectorProperties.LINE_SUBSCRIBER, subscriber)
+                    .async()
+                    .get()
+                    .get(10, TimeUnit.SECONDS)) {
+                assertEquals(200, response.getStatus());
+                completed.get(10, TimeUnit.SECONDS);
+            }
+            assertEquals(100, lines.size());
+            assertEquals("{\"id\":0}", lines.get(0));
+            assertEquals("{\"id\":99}", lines.get(99));
+        }
+    }
+
+    @Test
+    @Timeout(20)
+    void shouldCancelExchangeWhenCancellationSignalCompletes() throws Exception {
+        int port = findAvailablePort();
+        JettyServer.TlsSecurityConfiguration tlsSecurityConfiguration = tlsConfig();
+        try (AutoCloseable ignored = jerseyServer(
+                port,
+                tlsSecurityConfiguration,
+                DummyRestService.class)) {
+            final CompletableFuture<Void> cancellationSignal = new CompletableFuture<>();
+            final var request = getClient(port).path("pingWithSleep")
+                    .queryParam("sleepTimeInMilliseconds", 5_000)
+                    .request()
+                    .property(HttpClientConnectorProperties.CANCELLATION_SIGNAL, cancellationSignal);
+            final long start = System.nanoTime();
+            CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS).execute(() -> cancellationSignal.complete(null));
+            final ProcessingException processingException = assertThrows(ProcessingException.class, request::get);
+            assertEquals(CancellationException.class, processingException.getCause().getClass());
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), Matchers.lessThan(5_000L));
+        }
+    }
+
+    private static long firstRequestLatency(WebTarget target) {
+        final long start = System.nanoTime();
+        try (final Response ping = target.path(PING).request().head()) {
+            assertEquals(204, ping.getStatus());
+        }
+        return System.nanoTime() - start;
+    }
+
     @Test
     @Timeout(20)
     void testPostString() throws Exception {
@@ -322,6 +642,87 @@ class JettyServerTest {
         }
     }
 
+    @Test
+    @Timeout(20)
+    void testPostFile(@TempDir Path directory) throws Exception {
+        int port = findAvailablePort();
+        JettyServer.TlsSecurityConfiguration tlsSecurityConfiguration = tlsConfig();
+        try (AutoCloseable ignored = jerseyServer(
+                port,
+                tlsSecurityConfiguration,
+                DummyRestService.class)) {
+            String data = UUID.randomUUID().toString();
+
+            final var file = directory.resolve("data.json");
+            new ObjectMapper().writeValue(file.toFile(), new DummyRestService.Data(data));
+            try (final Response response = getClient(port).path("post").request().post(Entity.entity(
+                    file.toFile(),
+                    MediaType.APPLICATION_JSON_TYPE
+            ))) {
+                assertEquals(200, response.getStatus());
+                assertEquals(data, response.readEntity(DummyRestService.Data.class).getData());
+            }
+            try (final Response response = getClientChunk(port).path("post").request().post(Entity.entity(
+                    file,
+                    MediaType.APPLICATION_JSON_TYPE
+            ))) {
+                assertEquals(200, response.getStatus());
+                assertEquals(data, response.readEntity(DummyRestService.Data.class).getData());
+            }
+        }
+    }
+
+    @Test
+    @Timeout(20)
+    void testPostSerializedPayload() throws Exception {
+        int port = findAvailablePort();
+        JettyServer.TlsSecurityConfiguration tlsSecurityConfiguration = tlsConfig();
+        try (AutoCloseable ignored = jerseyServer(
+                port,
+                tlsSecurityConfiguration,
+                DummyRestService.class)) {
+            String data = UUID.randomUUID().toString();
+
+            final var writeValueAsBytes = new ObjectMapper().writeValueAsBytes(new DummyRestService.Data(data));
+            try (final Response response = getClient(port).path("post").request().post(Entity.entity(
+                    SerializedPayload.of(writeValueAsBytes),
+                    MediaType.APPLICATION_JSON_TYPE
+            ))) {
+                assertEquals(200, response.getStatus());
+                assertEquals(data, response.readEntity(DummyRestService.Data.class).getData());
+            }
+        }
+    }
+
+    @Test
+    @Timeout(20)
+    void testPostInputStream() throws Exception {
+        int port = findAvailablePort();
+        JettyServer.TlsSecurityConfiguration tlsSecurityConfiguration = tlsConfig();
+        try (AutoCloseable ignored = jerseyServer(
+                port,
+                tlsSecurityConfiguration,
+                DummyRestService.class)) {
+            String data = UUID.randomUUID().toString();
+
+            final var writeValueAsBytes = new ObjectMapper().writeValueAsBytes(new DummyRestService.Data(data));
+            final CountDownLatch closed = new CountDownLatch(1);
+            final InputStream entity = new ByteArrayInputStream(writeValueAsBytes) {
+                @Override
+                public void close() {
+                    closed.countDown();
+                }
+            };
+            try (final Response response = getClient(port).path("post").request().post(Entity.entity(
+                    entity,
+                    MediaType.APPLICATION_JSON_TYPE
+            ))) {
+                assertEquals(200, response.getStatus());
+                assertEquals(data, response.readEntity(DummyRestService.Data.class).getData());
+            }
+            assertTrue(closed.await(5, TimeUnit.SECONDS));
+        }
+    }
 
     @Test
     @Timeout(20)
@@ -408,7 +809,7 @@ class JettyServerTest {
                 // nothing to do expecting exception
             }
         });
-        assertEquals(ConnectException.class, processingException.getCause().getCause().getCause().getClass());
+        assertEquals(ConnectException.class, processingException.getCause().getClass());
     }
 
 
@@ -432,6 +833,21 @@ class JettyServerTest {
                 .connectorProvider((jaxRsClient, configuration) -> getHttpClientConnector(jaxRsClient, HttpClient.Version.HTTP_2)));
     }
 
+    @Test
+    @Timeout(60)
+    void testConcurrentHttp2JavaHttpClientPool() throws Exception {
+        testConcurrent(http2ClientConfig()
+                .property(HttpClientConnectorProperties.CLIENT_POOL_SIZE, 4));
+    }
+
+    @Test
+    @Timeout(60)
+    void testConcurrentGetHttp2JavaHttpClientPoolRoundRobin() throws Exception {
+        testConcurrent(http2ClientConfig()
+                .property(HttpClientConnectorProperties.CLIENT_POOL_SIZE, 4)
+                .property(HttpClientConnectorProperties.CLIENT_POOL_SELECTION, HttpClientPool.Selection.ROUND_ROBIN.name()), HttpMethod.GET, "/pingWithSleep");
+    }
+
     @Test
     @Timeout(60)
     void testConcurrentGetHttp2JavaHttpClient() throws Exception {
@@ -0,0 +1,94 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import org.glassfish.jersey.client.ClientRequest;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LatencyRegistryTest {
+
+    @Test
+    void shouldMapValuesToBuckets() {
+        for (long value : new long[]{0, 1, 15, 16, 17, 31, 32, 1_000, 123_456_789, Long.MAX_VALUE}) {
+            final int index = LatencyHistogram.index(value);
+            final long highest = LatencyHistogram.highestValue(index);
+            assertTrue(highest >= value, () -> value + " > " + highest);
+            assertTrue(highest - value <= value / LatencyHistogram.SUB_BUCKET_COUNT, () -> value + " reported as " + highest);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.highestValue(index - 1) < value);
+            }
+        }
+    }
+
+    @Test
+    void shouldComputePercentilesPerHost() {
+        // Given
+        final LatencyRegistry registry = new LatencyRegistry();
+
+        // When
+        for (int i = 1; i <= 1000; i++) {
+            final HttpClientConnectorListener listener = registry.newListener(request("https://first.example.com/" + i));
+            listener.requestBuildStarted(0);
+            listener.responseHeadersReceived(200, HttpClient.Version.HTTP_2, Duration.ofMillis(i).toNanos());
+        }
+        final HttpClientConnectorListener failing = registry.newListener(request("https://second.example.com/"));
+        failing.requestBuildStarted(0);
+        failing.failed(new IOException(), 10);
+        registry.newListener(request("https://second.example.com/")).requestBuildStarted(0);
+
+        // Then
+        final Map<String, LatencyRegistry.Snapshot> snapshot = registry.snapshot();
+        assertEquals(Set.of("first.example.com", "second.example.com"), snapshot.keySet());
+        final LatencyRegistry.Snapshot first = snapshot.get("first.example.com");
+        assertEquals(1000, first.getCount());
+        assertEquals(0, first.getErrorCount());
+        assertEquals(0, first.getInFlight());
+        assertWithinPrecision(Duration.ofMillis(500), first.getP50());
+        assertWithinPrecision(Duration.ofMillis(990), first.getP99());
+        assertWithinPrecision(Duration.ofMillis(999), first.getP999());
+        final LatencyRegistry.Snapshot second = snapshot.get("second.example.com");
+        assertEquals(0, second.getCount());
+        assertEquals(1, second.getErrorCount());
+        assertEquals(1, second.getInFlight());
+        assertEquals(Duration.ZERO, second.getP99());
+    }
+
+    @Test
+    void shouldCompleteExchangeOnce() {
+        // Given
+        final LatencyRegistry registry = new LatencyRegistry(clientRequest -> "GET /items/{id}");
+        final HttpClientConnectorListener listener = registry.newListener(request("https://example.com/items/1"));
+
+        // When
+        listener.requestBuildStarted(0);
+        listener.responseHeadersReceived(503, HttpClient.Version.HTTP_1_1, 1_000);
+        listener.failed(new IOException(), 2_000);
+
+        // Then
+        final LatencyRegistry.Snapshot snapshot = registry.snapshot().get("GET /items/{id}");
+        assertEquals(1, snapshot.getCount());
+        assertEquals(1, snapshot.getErrorCount());
+        assertEquals(0, snapshot.getInFlight());
+    }
+
+    private static void assertWithinPrecision(Duration expected, Duration actual) {
+        final long error = Math.abs(actual.toNanos() - expected.toNanos());
+        assertTrue(error <= expected.toNanos() / LatencyHistogram.SUB_BUCKET_COUNT, () -> actual + " instead of " + expected);
+    }
+
+    private static ClientRequest request(String uri) {
+        final ClientRequest clientRequest = mock(ClientRequest.class);
+        when(clientRequest.getUri()).thenReturn(URI.create(uri));
+        return clientRequest;
+    }
+}
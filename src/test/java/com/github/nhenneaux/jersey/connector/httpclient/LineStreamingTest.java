@@ -0,0 +1,112 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LineStreamingTest {
+
+    @Test
+    void shouldDeliverLinesOnDemandWithEmptyEntity() throws Exception {
+        // Given
+        final LineSubscriber lines = new LineSubscriber(1);
+        final HttpResponse.BodySubscriber<InputStream> subscriber = LineStreaming.handler(lines, HttpResponse.BodyHandlers.ofInputStream())
+                .apply(responseInfo(200, "application/x-ndjson"));
+        final Flow.Subscription subscription = mock(Flow.Subscription.class);
+
+        // When
+        subscriber.onSubscribe(subscription);
+        subscriber.onNext(List.of(ByteBuffer.wrap("{\"id\":1}\n{\"id\":2}\n{\"id\"".getBytes(StandardCharsets.UTF_8))));
+
+        // Then the response is handed over right away and the lines are only delivered as requested
+        assertEquals(-1, subscriber.getBody().toCompletableFuture().get().read());
+        assertEquals(List.of("{\"id\":1}"), lines.lines);
+
+        // When
+        lines.subscription.get().request(2);
+        subscriber.onNext(List.of(ByteBuffer.wrap(":3}\n".getBytes(StandardCharsets.UTF_8))));
+        subscriber.onComplete();
+
+        // Then
+        assertEquals(List.of("{\"id\":1}", "{\"id\":2}", "{\"id\":3}"), lines.lines);
+        assertTrue(lines.completed.get());
+    }
+
+    @Test
+    void shouldNotSubscribeOnUnsuccessfulResponse() {
+        // Given
+        final LineSubscriber lines = new LineSubscriber(Long.MAX_VALUE);
+
+        // When
+        final HttpResponse.BodySubscriber<InputStream> subscriber = LineStreaming.handler(lines, HttpResponse.BodyHandlers.ofInputStream())
+                .apply(responseInfo(503, "text/plain"));
+
+        // Then
+        assertFalse(subscriber instanceof LineStreaming);
+        assertNull(lines.subscription.get());
+    }
+
+    @Test
+    void shouldDecodeWithCharsetOfContentType() {
+        assertEquals(Charset.forName("ISO-8859-1"), LineStreaming.charset(responseInfo(200, "text/event-stream; charset=\"ISO-8859-1\"")));
+        assertEquals(StandardCharsets.UTF_16, LineStreaming.charset(responseInfo(200, "application/x-ndjson;Charset=UTF-16")));
+        assertEquals(StandardCharsets.UTF_8, LineStreaming.charset(responseInfo(200, "text/event-stream")));
+    }
+
+    private static HttpResponse.ResponseInfo responseInfo(int statusCode, String contentType) {
+        final HttpResponse.ResponseInfo responseInfo = mock(HttpResponse.ResponseInfo.class);
+        when(responseInfo.statusCode()).thenReturn(statusCode);
+        when(responseInfo.headers()).thenReturn(HttpHeaders.of(Map.of("content-type", List.of(contentType)), (name, value) -> true));
+        return responseInfo;
+    }
+
+    private static final class LineSubscriber implements Flow.Subscriber<String> {
+        private final long initialDemand;
+        private final AtomicReference<Flow.Subscription> subscription = new AtomicReference<>();
+        private final List<String> lines = new CopyOnWriteArrayList<>();
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private LineSubscriber(long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription.set(subscription);
+            subscription.request(initialDemand);
+        }
+
+        @Override
+        public void onNext(String item) {
+            lines.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            throw new AssertionError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            completed.set(true);
+        }
+    }
+}
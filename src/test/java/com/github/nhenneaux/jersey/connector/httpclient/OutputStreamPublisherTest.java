@@ -0,0 +1,236 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutputStreamPublisherTest {
+
+    @Test
+    void shouldPublishChunksWhenRequested() throws IOException {
+        // Given
+        final OutputStreamPublisher publisher = new OutputStreamPublisher(4);
+        final RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        publisher.subscribe(subscriber);
+
+        // When
+        publisher.write("0123456789".getBytes(StandardCharsets.UTF_8));
+        publisher.close();
+
+        // Then
+        assertEquals(List.of("0123", "4567", "89"), subscriber.chunks());
+        assertTrue(subscriber.completed.get());
+    }
+
+    @Test
+    void shouldWaitForDemandBeforePublishing() {
+        // Given
+        final OutputStreamPublisher publisher = new OutputStreamPublisher(4);
+        final RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        publisher.subscribe(subscriber);
+
+        // When
+        final CompletableFuture<Void> writing = CompletableFuture.runAsync(() -> {
+            try (publisher) {
+                publisher.write("01234567".getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Then
+        await().during(Duration.ofMillis(200)).atMost(Duration.ofSeconds(2)).until(() -> !writing.isDone());
+        assertEquals(List.of(), subscriber.chunks());
+
+        subscriber.subscription.get().request(1);
+        await().atMost(Duration.ofSeconds(2)).until(() -> subscriber.chunks().size() == 1);
+        assertFalse(writing.isDone());
+
+        subscriber.subscription.get().request(1);
+        await().atMost(Duration.ofSeconds(2)).until(writing::isDone);
+        assertEquals(List.of("0123", "4567"), subscriber.chunks());
+        assertTrue(subscriber.completed.get());
+    }
+
+    @Test
+    void shouldDiscardWritesOnceCancelled() throws IOException {
+        // Given
+        final OutputStreamPublisher publisher = new OutputStreamPublisher(4);
+        final RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        publisher.subscribe(subscriber);
+
+        // When
+        subscriber.subscription.get().cancel();
+        publisher.write("0123456789".getBytes(StandardCharsets.UTF_8));
+        publisher.close();
+
+        // Then
+        assertEquals(List.of(), subscriber.chunks());
+        assertFalse(subscriber.completed.get());
+    }
+
+    @Test
+    void shouldSignalErrorWhenAborted() {
+        // Given
+        final OutputStreamPublisher publisher = new OutputStreamPublisher(4);
+        final RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        publisher.subscribe(subscriber);
+        final IOException cause = new IOException(UUID.randomUUID().toString());
+
+        // When
+        publisher.abort(cause);
+
+        // Then
+        assertSame(cause, subscriber.error.get());
+    }
+
+    @Test
+    void shouldFailWritesOnceAborted() {
+        // Given
+        final OutputStreamPublisher publisher = new OutputStreamPublisher(4);
+        publisher.subscribe(new RecordingSubscriber(Long.MAX_VALUE));
+        final IOException cause = new IOException(UUID.randomUUID().toString());
+
+        // When
+        publisher.abort(cause);
+
+        // Then the entity writer stops instead of serializing the rest of the entity
+        final IOException ioException = assertThrows(IOException.class, () -> publisher.write("0123".getBytes(StandardCharsets.UTF_8)));
+        assertSame(cause, ioException.getCause());
+    }
+
+    @Test
+    void shouldSignalAbortAfterPendingOnNext() throws InterruptedException {
+        // Given
+        final OutputStreamPublisher publisher = new OutputStreamPublisher(4);
+        final CountDownLatch inOnNext = new CountDownLatch(1);
+        final CountDownLatch releaseOnNext = new CountDownLatch(1);
+        final AtomicBoolean overlapping = new AtomicBoolean();
+        final AtomicBoolean receiving = new AtomicBoolean();
+        final RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE) {
+            @Override
+            public void onNext(ByteBuffer item) {
+                receiving.set(true);
+                inOnNext.countDown();
+                try {
+                    releaseOnNext.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.onNext(item);
+                receiving.set(false);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                overlapping.compareAndSet(false, receiving.get());
+                super.onError(throwable);
+            }
+        };
+        publisher.subscribe(subscriber);
+        final Thread writer = new Thread(() -> {
+            try {
+                publisher.write("0123".getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        writer.start();
+        inOnNext.await();
+        final IOException cause = new IOException(UUID.randomUUID().toString());
+
+        // When
+        final Thread aborting = new Thread(() -> publisher.abort(cause));
+        aborting.start();
+        aborting.join(100);
+        releaseOnNext.countDown();
+        aborting.join();
+        writer.join();
+
+        // Then the error is only signaled once the chunk is received
+        assertSame(cause, subscriber.error.get());
+        assertFalse(overlapping.get());
+        assertEquals(List.of("0123"), subscriber.chunks());
+    }
+
+    @Test
+    void shouldRejectSecondSubscriber() {
+        // Given
+        final OutputStreamPublisher publisher = new OutputStreamPublisher(4);
+        publisher.subscribe(new RecordingSubscriber(0));
+        final RecordingSubscriber secondSubscriber = new RecordingSubscriber(0);
+
+        // When
+        publisher.subscribe(secondSubscriber);
+
+        // Then
+        assertInstanceOf(IllegalStateException.class, secondSubscriber.error.get());
+    }
+
+    @Test
+    void shouldRejectInvalidChunkSize() {
+        final IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> new OutputStreamPublisher(0));
+        assertEquals("The chunk size must be positive but was 0", exception.getMessage());
+    }
+
+    static class RecordingSubscriber implements Flow.Subscriber<ByteBuffer> {
+        private final long initialDemand;
+        final AtomicReference<Flow.Subscription> subscription = new AtomicReference<>();
+        final List<ByteBuffer> items = new CopyOnWriteArrayList<>();
+        final AtomicBoolean completed = new AtomicBoolean();
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+
+        RecordingSubscriber(long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription.set(subscription);
+            if (initialDemand > 0) {
+                subscription.request(initialDemand);
+            }
+        }
+
+        @Override
+        public void onNext(ByteBuffer item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error.set(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            completed.set(true);
+        }
+
+        List<String> chunks() {
+            return items.stream()
+                    .map(buffer -> StandardCharsets.UTF_8.decode(buffer.duplicate()).toString())
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RequestCoalescerTest {
+
+    private static final byte[] BODY = "{\"feature\":\"enabled\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void shouldSendConcurrentIdenticalRequestsOnce() throws InterruptedException, ExecutionException, TimeoutException, IOException {
+        // Given
+        final RequestCoalescer coalescer = new RequestCoalescer(List.of("Authorization"));
+        final CompletableFuture<HttpResponse<byte[]>> backendResponse = new CompletableFuture<>();
+        final AtomicInteger backendCalls = new AtomicInteger();
+        final Function<HttpRequest, CompletableFuture<HttpResponse<byte[]>>> backend = request -> {
+            backendCalls.incrementAndGet();
+            return backendResponse;
+        };
+        final int callers = 32;
+        final ExecutorService executorService = Executors.newFixedThreadPool(callers);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<CompletableFuture<HttpResponse<InputStream>>>> responses = new ArrayList<>();
+
+        // When
+        try {
+            for (int i = 0; i < callers; i++) {
+                responses.add(executorService.submit(() -> {
+                    start.await();
+                    return coalescer.sendAsync(request("GET", "Bearer token"), HttpResponse.BodyHandlers.ofInputStream(), backend);
+                }));
+            }
+            start.countDown();
+            for (Future<CompletableFuture<HttpResponse<InputStream>>> response : responses) {
+                response.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executorService.shutdown();
+        }
+        backendResponse.complete(response());
+
+        // Then
+        assertEquals(1, backendCalls.get());
+        for (Future<CompletableFuture<HttpResponse<InputStream>>> response : responses) {
+            final HttpResponse<InputStream> httpResponse = response.get().get();
+            assertEquals(200, httpResponse.statusCode());
+            try (InputStream body = httpResponse.body()) {
+                assertEquals(new String(BODY, StandardCharsets.UTF_8), new String(body.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        await().atMost(Duration.ofSeconds(1)).until(() -> coalescer.inFlight() == 0);
+    }
+
+    @Test
+    void shouldNotShareExchangeBetweenDifferentVaryHeadersNorOnceCompleted() {
+        // Given
+        final RequestCoalescer coalescer = new RequestCoalescer(List.of("Authorization"));
+        final AtomicInteger backendCalls = new AtomicInteger();
+        final CompletableFuture<HttpResponse<byte[]>> pending = new CompletableFuture<>();
+        final Function<HttpRequest, CompletableFuture<HttpResponse<byte[]>>> backend = request -> {
+            backendCalls.incrementAndGet();
+            return pending;
+        };
+
+        // When
+        coalescer.sendAsync(request("GET", "Bearer first"), HttpResponse.BodyHandlers.ofString(), backend);
+        coalescer.sendAsync(request("GET", "Bearer second"), HttpResponse.BodyHandlers.ofString(), backend);
+        pending.complete(response());
+        coalescer.sendAsync(request("GET", "Bearer first"), HttpResponse.BodyHandlers.ofString(), backend);
+
+        // Then
+        assertEquals(3, backendCalls.get());
+    }
+
+    @Test
+    void shouldNotShareExchangeBetweenConditionalAndPlainRequests() {
+        // Given
+        final RequestCoalescer coalescer = new RequestCoalescer(List.of());
+        final List<HttpRequest> sentRequests = new ArrayList<>();
+        final CompletableFuture<HttpResponse<byte[]>> pending = new CompletableFuture<>();
+        final Function<HttpRequest, CompletableFuture<HttpResponse<byte[]>>> backend = request -> {
+            sentRequests.add(request);
+            return pending;
+        };
+        final HttpRequest conditional = HttpRequest.newBuilder(URI.create("https://localhost/config")).header("If-None-Match", "\"v1\"").build();
+        final HttpRequest ranged = HttpRequest.newBuilder(URI.create("https://localhost/config")).header("Range", "bytes=0-9").build();
+
+        // When
+        coalescer.sendAsync(conditional, HttpResponse.BodyHandlers.ofString(), backend);
+        coalescer.sendAsync(ranged, HttpResponse.BodyHandlers.ofString(), backend);
+        coalescer.sendAsync(request("GET", null), HttpResponse.BodyHandlers.ofString(), backend);
+        coalescer.sendAsync(request("GET", null), HttpResponse.BodyHandlers.ofString(), backend);
+
+        // Then the plain requests share their own exchange
+        assertEquals(3, sentRequests.size());
+        assertEquals(List.of(), sentRequests.get(2).headers().allValues("If-None-Match"));
+        assertEquals(List.of(), sentRequests.get(2).headers().allValues("Range"));
+    }
+
+    @Test
+    void shouldPropagateFailureToAllCallers() {
+        // Given
+        final RequestCoalescer coalescer = new RequestCoalescer(List.of());
+        final CompletableFuture<HttpResponse<byte[]>> pending = new CompletableFuture<>();
+        final CompletableFuture<HttpResponse<String>> first = coalescer.sendAsync(request("GET", null), HttpResponse.BodyHandlers.ofString(), request -> pending);
+        final CompletableFuture<HttpResponse<String>> second = coalescer.sendAsync(request("GET", null), HttpResponse.BodyHandlers.ofString(), request -> pending);
+        final IOException ioException = new IOException("reset");
+
+        // When
+        pending.completeExceptionally(ioException);
+
+        // Then
+        assertSame(ioException, assertThrows(ExecutionException.class, first::get).getCause());
+        assertSame(ioException, assertThrows(ExecutionException.class, second::get).getCause());
+        assertEquals(0, coalescer.inFlight());
+    }
+
+    @Test
+    void shouldCancelSharedExchangeOnceEveryCallerCancelled() {
+        // Given
+        final RequestCoalescer coalescer = new RequestCoalescer(List.of());
+        final CompletableFuture<HttpResponse<byte[]>> pending = new CompletableFuture<>();
+        final CompletableFuture<HttpResponse<String>> first = coalescer.sendAsync(request("GET", null), HttpResponse.BodyHandlers.ofString(), request -> pending);
+        final CompletableFuture<HttpResponse<String>> second = coalescer.sendAsync(request("GET", null), HttpResponse.BodyHandlers.ofString(), request -> pending);
+
+        // When
+        first.cancel(true);
+
+        // Then the exchange is still shared with the second caller
+        assertFalse(pending.isCancelled());
+        assertEquals(1, coalescer.inFlight());
+
+        // When
+        second.cancel(true);
+
+        // Then
+        assertTrue(pending.isCancelled());
+        assertEquals(0, coalescer.inFlight());
+    }
+
+    @Test
+    void shouldOnlyCoalesceRequestsWithoutBody() {
+        assertTrue(RequestCoalescer.isCoalescable(request("GET", null)));
+        assertTrue(RequestCoalescer.isCoalescable(HttpRequest.newBuilder(URI.create("https://localhost/config")).method("HEAD", HttpRequest.BodyPublishers.noBody()).build()));
+        assertFalse(RequestCoalescer.isCoalescable(HttpRequest.newBuilder(URI.create("https://localhost/config")).POST(HttpRequest.BodyPublishers.noBody()).build()));
+        assertFalse(RequestCoalescer.isCoalescable(HttpRequest.newBuilder(URI.create("https://localhost/config")).method("GET", HttpRequest.BodyPublishers.ofString("body")).build()));
+    }
+
+    private static HttpRequest request(String method, String authorization) {
+        final HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("https://localhost/config")).method(method, HttpRequest.BodyPublishers.noBody());
+        if (authorization != null) {
+            builder.header("Authorization", authorization);
+        }
+        return builder.build();
+    }
+
+    private static HttpResponse<byte[]> response() {
+        @SuppressWarnings("unchecked") final HttpResponse<byte[]> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.headers()).thenReturn(HttpHeaders.of(Map.of("content-type", List.of("application/json")), (name, value) -> true));
+        when(response.version()).thenReturn(HttpClient.Version.HTTP_2);
+        when(response.body()).thenReturn(BODY);
+        return response;
+    }
+}
@@ -0,0 +1,143 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RequestDeadlineTest {
+
+    private static final HttpRequest REQUEST = HttpRequest.newBuilder(URI.create("https://localhost/deadline")).build();
+
+    @Test
+    void shouldCancelExchangeWhenDeadlineExpiresBeforeHeaders() {
+        // Given
+        final CompletableFuture<HttpResponse<InputStream>> exchange = new CompletableFuture<>();
+        final RequestDeadline deadline = RequestDeadline.start(Duration.ofMillis(50));
+
+        // When
+        final CompletableFuture<HttpResponse<InputStream>> response = deadline.sender(request -> exchange).apply(REQUEST);
+
+        // Then
+        final ExecutionException executionException = assertThrows(ExecutionException.class, () -> response.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(HttpTimeoutException.class, executionException.getCause());
+        assertTrue(exchange.isCancelled());
+    }
+
+    @Test
+    void shouldFailBodyReadWhenDeadlineExpires() throws Exception {
+        // Given
+        final InputStream stalledBody = new StalledInputStream();
+        final RequestDeadline deadline = RequestDeadline.start(Duration.ofMillis(100));
+        final InputStream entityStream = deadline.entityStream(stalledBody);
+        assertEquals(1, entityStream.read());
+
+        // When the server stalls
+        final HttpTimeoutException timeoutException = assertThrows(HttpTimeoutException.class, entityStream::read);
+
+        // Then
+        assertEquals("The request deadline of 100 ms expired while reading the response body", timeoutException.getMessage());
+        assertTrue(deadline.isExpired());
+    }
+
+    @Test
+    void shouldNotExpireOnceBodyIsConsumed() throws IOException {
+        // Given
+        final AtomicBoolean closed = new AtomicBoolean();
+        final RequestDeadline deadline = RequestDeadline.start(Duration.ofMillis(50));
+        final InputStream entityStream = deadline.entityStream(new ByteArrayInputStream(new byte[]{1, 2}) {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        });
+
+        // When
+        assertEquals(2, entityStream.readAllBytes().length);
+
+        // Then
+        await().during(Duration.ofMillis(150)).atMost(Duration.ofSeconds(1)).until(() -> !deadline.isExpired());
+        assertFalse(closed.get());
+    }
+
+    @Test
+    void shouldNotSendWhenDeadlineExpiredDuringSerialization() {
+        // Given
+        final RequestDeadline deadline = RequestDeadline.start(Duration.ofMillis(1));
+        await().atMost(Duration.ofSeconds(1)).until(deadline::isExpired);
+        final AtomicBoolean sent = new AtomicBoolean();
+
+        // When
+        final CompletableFuture<HttpResponse<InputStream>> response = deadline.sender(request -> {
+            sent.set(true);
+            return new CompletableFuture<>();
+        }).apply(REQUEST);
+
+        // Then
+        assertFalse(sent.get());
+        assertTrue(response.isCompletedExceptionally());
+    }
+
+    @Test
+    void shouldReturnResponseWithinDeadline() throws Exception {
+        // Given
+        @SuppressWarnings("unchecked") final HttpResponse<InputStream> httpResponse = mock(HttpResponse.class);
+        when(httpResponse.body()).thenReturn(InputStream.nullInputStream());
+        final RequestDeadline deadline = RequestDeadline.start(Duration.ofSeconds(5));
+
+        // When
+        final CompletableFuture<HttpResponse<InputStream>> response = deadline.sender(request -> CompletableFuture.completedFuture(httpResponse)).apply(REQUEST);
+
+        // Then
+        assertSame(httpResponse, response.get());
+    }
+
+    /**
+     * Body sending one byte and then stalling until it is closed, like the body of the HTTP client it then reports the end of the stream.
+     */
+    private static final class StalledInputStream extends InputStream {
+        private final CountDownLatch closed = new CountDownLatch(1);
+        private boolean first = true;
+
+        @Override
+        public int read() throws IOException {
+            if (first) {
+                first = false;
+                return 1;
+            }
+            try {
+                closed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            return -1;
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
+}
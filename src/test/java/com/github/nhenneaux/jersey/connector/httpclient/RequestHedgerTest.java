@@ -0,0 +1,158 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestHedgerTest {
+
+    private static final HttpRequest GET = HttpRequest.newBuilder(URI.create("https://example.com/item")).build();
+
+    private final List<Attempt> attempts = new CopyOnWriteArrayList<>();
+
+    @Test
+    void shouldSendSecondAttemptWhenFirstIsSlow() throws ExecutionException, InterruptedException, TimeoutException {
+        // Given
+        final RequestHedger hedger = RequestHedger.fixed(Duration.ofMillis(50));
+
+        // When
+        final CompletableFuture<HttpResponse<String>> response = hedger.sendAsync(GET, HttpResponse.BodyHandlers.ofString(), this::send);
+        await().atMost(Duration.ofSeconds(5)).until(() -> attempts.size() == 2);
+        attempts.get(1).respond("second");
+
+        // Then
+        assertEquals("second", response.get(5, TimeUnit.SECONDS).body());
+        assertTrue(attempts.get(0).future.isCancelled());
+        assertEquals(1, hedger.hedgedAttempts());
+    }
+
+    @Test
+    void shouldDiscardBodyOfLoser() throws ExecutionException, InterruptedException, TimeoutException {
+        // Given
+        final RequestHedger hedger = RequestHedger.fixed(Duration.ZERO);
+        final AtomicInteger handled = new AtomicInteger();
+        final HttpResponse.BodyHandler<String> bodyHandler = responseInfo -> {
+            handled.incrementAndGet();
+            return HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8);
+        };
+
+        // When
+        final CompletableFuture<HttpResponse<String>> response = hedger.sendAsync(GET, bodyHandler, this::send);
+        await().atMost(Duration.ofSeconds(5)).until(() -> attempts.size() == 2);
+        attempts.get(0).respond("first");
+        attempts.get(1).respond("second");
+
+        // Then
+        assertEquals("first", response.get(5, TimeUnit.SECONDS).body());
+        assertEquals(1, handled.get());
+    }
+
+    @Test
+    void shouldNotHedgeFastResponse() throws ExecutionException, InterruptedException, TimeoutException {
+        // Given
+        final RequestHedger hedger = RequestHedger.fixed(Duration.ofMillis(200));
+
+        // When
+        final CompletableFuture<HttpResponse<String>> response = hedger.sendAsync(GET, HttpResponse.BodyHandlers.ofString(), this::send);
+        attempts.get(0).respond("first");
+
+        // Then
+        assertEquals("first", response.get(5, TimeUnit.SECONDS).body());
+        Thread.sleep(300);
+        assertEquals(1, attempts.size());
+        assertEquals(0, hedger.hedgedAttempts());
+    }
+
+    @Test
+    void shouldWaitForSecondAttemptWhenFirstFails() throws ExecutionException, InterruptedException, TimeoutException {
+        // Given
+        final RequestHedger hedger = RequestHedger.fixed(Duration.ZERO);
+
+        // When
+        final CompletableFuture<HttpResponse<String>> response = hedger.sendAsync(GET, HttpResponse.BodyHandlers.ofString(), this::send);
+        await().atMost(Duration.ofSeconds(5)).until(() -> attempts.size() == 2);
+        attempts.get(0).future.completeExceptionally(new IllegalStateException("connection reset"));
+
+        // Then
+        assertFalse(response.isDone());
+        attempts.get(1).respond("second");
+        assertEquals("second", response.get(5, TimeUnit.SECONDS).body());
+    }
+
+    @Test
+    void shouldDeriveDelayFromObservedLatencies() {
+        // Given
+        final RequestHedger hedger = RequestHedger.adaptive();
+
+        // When
+        for (int i = 0; i < RequestHedger.MIN_SAMPLES - 1; i++) {
+            hedger.sendAsync(GET, HttpResponse.BodyHandlers.ofString(), this::send);
+            attempts.get(i).respond("fast");
+        }
+        final long delayBeforeEnoughSamples = hedger.delayNanos("example.com");
+        hedger.sendAsync(GET, HttpResponse.BodyHandlers.ofString(), this::send);
+        attempts.get(RequestHedger.MIN_SAMPLES - 1).respond("fast");
+
+        // Then
+        assertEquals(-1, delayBeforeEnoughSamples);
+        assertTrue(hedger.delayNanos("example.com") >= 0);
+        assertEquals(RequestHedger.MIN_SAMPLES, attempts.size());
+    }
+
+    @Test
+    void shouldOnlyHedgeIdempotentRequestsWithReplayableBody() {
+        assertTrue(RequestHedger.isHedgeable(GET));
+        assertTrue(RequestHedger.isHedgeable(HttpRequest.newBuilder(GET.uri()).PUT(HttpRequest.BodyPublishers.ofString("entity")).build()));
+        assertFalse(RequestHedger.isHedgeable(HttpRequest.newBuilder(GET.uri()).POST(HttpRequest.BodyPublishers.ofString("entity")).build()));
+        assertFalse(RequestHedger.isHedgeable(HttpRequest.newBuilder(GET.uri())
+                .PUT(HttpRequest.BodyPublishers.fromPublisher(new OutputStreamPublisher(1024))).build()));
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(HttpRequest request, HttpResponse.BodyHandler<String> bodyHandler) {
+        final Attempt attempt = new Attempt(request, bodyHandler);
+        attempts.add(attempt);
+        return attempt.future;
+    }
+
+    private static final class Attempt {
+        private final HttpRequest request;
+        private final HttpResponse.BodyHandler<String> bodyHandler;
+        private final CompletableFuture<HttpResponse<String>> future = new CompletableFuture<>();
+
+        private Attempt(HttpRequest request, HttpResponse.BodyHandler<String> bodyHandler) {
+            this.request = request;
+            this.bodyHandler = bodyHandler;
+        }
+
+        private void respond(String body) {
+            ReplayedResponse.replay(200, HttpHeaders.of(Map.of(), (name, value) -> true), HttpClient.Version.HTTP_2, request, Optional.empty(), body.getBytes(StandardCharsets.UTF_8), bodyHandler)
+                    .whenComplete((response, throwable) -> {
+                        if (throwable == null) {
+                            future.complete(response);
+                        } else {
+                            future.completeExceptionally(throwable);
+                        }
+                    });
+        }
+    }
+}
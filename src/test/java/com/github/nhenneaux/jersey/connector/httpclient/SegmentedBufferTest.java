@@ -0,0 +1,112 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SegmentedBufferTest {
+
+    @Test
+    void shouldPublishWrittenBytesWithContentLength() {
+        // Given
+        final byte[] content = new byte[3 * SegmentPool.SEGMENT_SIZE + 17];
+        new Random(42).nextBytes(content);
+        final SegmentedBuffer buffer = new SegmentedBuffer(-1, null);
+
+        // When
+        buffer.write(content, 0, 10);
+        buffer.write(content[10]);
+        buffer.write(content, 11, content.length - 11);
+        final HttpRequest.BodyPublisher bodyPublisher = buffer.toBodyPublisher();
+
+        // Then
+        assertEquals(content.length, bodyPublisher.contentLength());
+        assertArrayEquals(content, publishedBytes(bodyPublisher));
+        // The publisher can be subscribed again, e.g. on retry
+        assertArrayEquals(content, publishedBytes(bodyPublisher));
+    }
+
+    @Test
+    void shouldPublishNoBodyWhenEmpty() {
+        final HttpRequest.BodyPublisher bodyPublisher = new SegmentedBuffer(0, null).toBodyPublisher();
+
+        assertEquals(0, bodyPublisher.contentLength());
+    }
+
+    @Test
+    void shouldReturnSegmentsToPoolOnRelease() {
+        // Given
+        final SegmentPool pool = new SegmentPool(4);
+        final SegmentedBuffer buffer = new SegmentedBuffer(1024, pool);
+        buffer.write(new byte[2 * SegmentPool.SEGMENT_SIZE + 1], 0, 2 * SegmentPool.SEGMENT_SIZE + 1);
+        final HttpRequest.BodyPublisher bodyPublisher = buffer.toBodyPublisher();
+        final OutputStreamPublisherTest.RecordingSubscriber subscriber = new OutputStreamPublisherTest.RecordingSubscriber(1);
+        bodyPublisher.subscribe(subscriber);
+
+        // When
+        buffer.release();
+
+        // Then the segments are kept while they are published
+        assertEquals(0, pool.size());
+        subscriber.subscription.get().request(Long.MAX_VALUE);
+        assertTrue(subscriber.completed.get());
+        assertEquals(3, pool.size());
+        assertEquals(3, subscriber.items.size());
+    }
+
+    @Test
+    void shouldNotPoolMoreThanCapacity() {
+        final SegmentPool pool = new SegmentPool(1);
+
+        pool.release(pool.acquire());
+        pool.release(new byte[SegmentPool.SEGMENT_SIZE]);
+
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    void shouldRejectSubscriptionOnceReleased() {
+        // Given
+        final SegmentedBuffer buffer = new SegmentedBuffer(8, new SegmentPool(1));
+        buffer.write(1);
+        final HttpRequest.BodyPublisher bodyPublisher = buffer.toBodyPublisher();
+        buffer.release();
+        final OutputStreamPublisherTest.RecordingSubscriber subscriber = new OutputStreamPublisherTest.RecordingSubscriber(1);
+
+        // When
+        bodyPublisher.subscribe(subscriber);
+
+        // Then
+        assertInstanceOf(IllegalStateException.class, subscriber.error.get());
+    }
+
+    @Test
+    void shouldRejectInvalidPoolCapacity() {
+        final IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> new SegmentPool(0));
+        assertEquals("The pool capacity must be positive but was 0", exception.getMessage());
+    }
+
+    private static byte[] publishedBytes(HttpRequest.BodyPublisher bodyPublisher) {
+        final OutputStreamPublisherTest.RecordingSubscriber subscriber = new OutputStreamPublisherTest.RecordingSubscriber(Long.MAX_VALUE);
+        bodyPublisher.subscribe(subscriber);
+        assertTrue(subscriber.completed.get());
+        final List<ByteBuffer> items = subscriber.items;
+        final byte[] published = new byte[items.stream().mapToInt(ByteBuffer::remaining).sum()];
+        int position = 0;
+        for (ByteBuffer item : items) {
+            final int length = item.remaining();
+            item.get(published, position, length);
+            position += length;
+        }
+        return published;
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.nhenneaux.jersey.connector.httpclient;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualThreadsTest {
+
+    @Test
+    void shouldBeSupportedFromJdk21() {
+        assertEquals(Runtime.version().feature() >= 21, VirtualThreads.isSupported());
+    }
+
+    @Test
+    void shouldRunTasksOnVirtualThreadsWhenSupported() throws ExecutionException, InterruptedException {
+        final Optional<ExecutorService> executor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+        assertEquals(VirtualThreads.isSupported(), executor.isPresent());
+        if (executor.isPresent()) {
+            try {
+                final Boolean virtual = executor.get().submit(() -> (Boolean) Thread.class.getMethod("isVirtual").invoke(Thread.currentThread())).get();
+                assertTrue(virtual);
+            } finally {
+                executor.get().shutdown();
+            }
+        }
+    }
+}